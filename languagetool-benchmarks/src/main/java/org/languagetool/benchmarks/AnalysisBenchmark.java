@@ -0,0 +1,86 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.AnalyzedSentence;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The steps of the analysis pipeline, each run over the whole corpus of a language:
+ * sentence tokenization (SRX-based for most languages), word tokenization, tagging
+ * and disambiguation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class AnalysisBenchmark {
+
+  @Benchmark
+  public List<String> sentenceTokenize(CorpusState state) {
+    return state.language.getSentenceTokenizer().tokenize(state.text);
+  }
+
+  @Benchmark
+  public void wordTokenize(CorpusState state, Blackhole blackhole) {
+    for (String sentence : state.sentences) {
+      blackhole.consume(state.language.getWordTokenizer().tokenize(sentence));
+    }
+  }
+
+  @Benchmark
+  public void tag(CorpusState state, Blackhole blackhole) throws IOException {
+    for (List<String> tokens : state.sentenceTokens) {
+      blackhole.consume(state.language.getTagger().tag(tokens));
+    }
+  }
+
+  @Benchmark
+  public void disambiguate(CorpusState state, RawSentences rawSentences, Blackhole blackhole) throws IOException {
+    for (AnalyzedSentence sentence : rawSentences.sentences) {
+      blackhole.consume(state.language.getDisambiguator().disambiguate(sentence));
+    }
+  }
+
+  /**
+   * Sentences that have been tagged but not disambiguated. Created again for every
+   * invocation, as some disambiguators modify the tokens of their input.
+   */
+  @State(Scope.Thread)
+  public static class RawSentences {
+
+    List<AnalyzedSentence> sentences;
+
+    @Setup(Level.Invocation)
+    public void setUp(CorpusState state) throws IOException {
+      sentences = new ArrayList<>();
+      for (String sentence : state.sentences) {
+        sentences.add(state.lt.getRawAnalyzedSentence(sentence));
+      }
+    }
+  }
+
+}
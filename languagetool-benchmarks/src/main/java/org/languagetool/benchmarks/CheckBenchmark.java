@@ -0,0 +1,71 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rule matching on the analyzed sentences of the corpus of a language, and the
+ * complete check of its text with {@link org.languagetool.JLanguageTool#check(String)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CheckBenchmark {
+
+  /**
+   * All XML pattern rules of the language, matched with the {@code PatternRuleMatcher}.
+   */
+  @Benchmark
+  public void patternRules(CorpusState state, Blackhole blackhole) throws IOException {
+    match(state.patternRules, state, blackhole);
+  }
+
+  /**
+   * The spell checker of the language, based on Morfologik or Hunspell.
+   */
+  @Benchmark
+  public void spelling(CorpusState state, Blackhole blackhole) throws IOException {
+    match(state.spellingRules, state, blackhole);
+  }
+
+  @Benchmark
+  public List<RuleMatch> check(CorpusState state) throws IOException {
+    return state.lt.check(state.text);
+  }
+
+  private void match(List<Rule> rules, CorpusState state, Blackhole blackhole) throws IOException {
+    for (AnalyzedSentence sentence : state.analyzedSentences) {
+      for (Rule rule : rules) {
+        blackhole.consume(rule.match(sentence));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,86 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.patterns.AbstractPatternRule;
+import org.languagetool.rules.spelling.SpellingCheckRule;
+import org.languagetool.tools.StringTools;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The text of one language from the fixed corpus in {@code org/languagetool/benchmarks/},
+ * with the intermediate results of the analysis pipeline so that each benchmark only
+ * measures its own step.
+ */
+@State(Scope.Benchmark)
+public class CorpusState {
+
+  @Param({"en-US", "de-DE", "fr", "es"})
+  public String languageCode;
+
+  Language language;
+  JLanguageTool lt;
+  String text;
+  List<String> sentences;
+  List<List<String>> sentenceTokens;
+  List<AnalyzedSentence> analyzedSentences;
+  List<Rule> patternRules;
+  List<Rule> spellingRules;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    language = Languages.getLanguageForShortCode(languageCode);
+    lt = new JLanguageTool(language);
+    text = readCorpus(language.getShortCode());
+    sentences = lt.sentenceTokenize(text);
+    sentenceTokens = new ArrayList<>();
+    for (String sentence : sentences) {
+      sentenceTokens.add(language.getWordTokenizer().tokenize(sentence));
+    }
+    analyzedSentences = new ArrayList<>();
+    for (String sentence : sentences) {
+      analyzedSentences.add(lt.getAnalyzedSentence(sentence));
+    }
+    List<Rule> rules = lt.getAllActiveRules();
+    patternRules = rules.stream().filter(rule -> rule instanceof AbstractPatternRule).collect(Collectors.toList());
+    spellingRules = rules.stream().filter(rule -> rule instanceof SpellingCheckRule).collect(Collectors.toList());
+  }
+
+  private static String readCorpus(String shortCode) throws IOException {
+    String path = "/org/languagetool/benchmarks/" + shortCode + ".txt";
+    try (InputStream stream = CorpusState.class.getResourceAsStream(path)) {
+      if (stream == null) {
+        throw new IOException("No benchmark corpus found at " + path);
+      }
+      return StringTools.readStream(stream, "utf-8");
+    }
+  }
+
+}
@@ -118,7 +118,7 @@ public final class AnalyzedSentence {
     for (int i = 0; i < copyTokens.length; i++) {
       AnalyzedTokenReadings analyzedTokens = sentence.getTokens()[i];
       copyTokens[i] = new AnalyzedTokenReadings(analyzedTokens.getReadings(), analyzedTokens.getStartPos());
-      copyTokens[i].setHistoricalAnnotations(analyzedTokens.getHistoricalAnnotations());
+      copyTokens[i].copyHistory(analyzedTokens);
       copyTokens[i].setChunkTags(analyzedTokens.getChunkTags());
       if (analyzedTokens.isImmunized()) {
         copyTokens[i].immunize();
@@ -32,7 +32,6 @@ public final class AnalyzedToken {
   private final String token;
   private final String posTag;
   private final String lemma;
-  private final String lemmaOrToken;  // used only for matching with Elements
 
   private boolean isWhitespaceBefore;
   private boolean hasNoPOSTag;
@@ -40,12 +39,7 @@ public final class AnalyzedToken {
   public AnalyzedToken(String token, String posTag, String lemma) {
     this.token = Objects.requireNonNull(token, "token cannot be null");
     this.posTag = posTag;
-    this.lemma = lemma;    
-    if (lemma == null) {
-      lemmaOrToken = token;
-    } else {
-      lemmaOrToken = lemma;
-    }
+    this.lemma = lemma;
     hasNoPOSTag = (posTag == null 
         || JLanguageTool.SENTENCE_END_TAGNAME.equals(posTag)
         || JLanguageTool.PARAGRAPH_END_TAGNAME.equals(posTag));
@@ -127,7 +121,7 @@ public final class AnalyzedToken {
   
   @Override
   public String toString() {
-    return lemmaOrToken + '/' + posTag;
+    return (lemma != null ? lemma : token) + '/' + posTag;
   }
 
   @Override
@@ -25,6 +25,7 @@ import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.chunking.ChunkTag;
 import org.languagetool.tools.StringTools;
 
@@ -47,7 +48,7 @@ public final class AnalyzedTokenReadings implements Iterable<AnalyzedToken> {
   private AnalyzedToken[] anTokReadings;
   private int startPos;
   private String token;
-  private List<ChunkTag> chunkTags = new ArrayList<>();
+  private List<ChunkTag> chunkTags = Collections.emptyList();  // most tokens have none, so share an empty list
   private boolean isSentEnd;
   private boolean isParaEnd;
   private boolean isWhitespaceBefore;
@@ -62,8 +63,10 @@ public final class AnalyzedTokenReadings implements Iterable<AnalyzedToken> {
   // other rules can freely match it.
   private boolean isIgnoredBySpeller;
 
-  // Used to hold the string representation of the disambiguator actions on a token.
+  // Used to hold the string representation of the disambiguator actions on a token,
+  // if it has been set explicitly. The changes recorded by disambiguators follow it:
   private String historicalAnnotations = "";
+  private DisambiguationTrace disambiguationTrace;
 
   // True if the token has the same lemma value for all tokens.
   // Can be used internally to optimize matching.
@@ -484,19 +487,62 @@ public final class AnalyzedTokenReadings implements Iterable<AnalyzedToken> {
   }
 
   /**
-   * Used to track disambiguator actions.
+   * Used to track disambiguator actions. Empty if {@link DisambiguationTrace#isEnabled()}
+   * was {@code false} while the token was disambiguated.
    * @return the historicalAnnotations
    */
   public String getHistoricalAnnotations() {
-    return historicalAnnotations;
+    if (disambiguationTrace == null) {
+      return historicalAnnotations;
+    }
+    return historicalAnnotations + disambiguationTrace;
   }
 
   /**
-   * Used to track disambiguator actions.
+   * Used to track disambiguator actions. Replaces the {@link #getDisambiguationTrace() trace}.
    * @param historicalAnnotations the historicalAnnotations to set
    */
   public void setHistoricalAnnotations(String historicalAnnotations) {
     this.historicalAnnotations = historicalAnnotations;
+    this.disambiguationTrace = null;
+  }
+
+  /**
+   * The changes disambiguators made to this token, if {@link DisambiguationTrace#isEnabled() enabled}.
+   * @since 4.7
+   */
+  @Experimental
+  @Nullable
+  public DisambiguationTrace getDisambiguationTrace() {
+    return disambiguationTrace;
+  }
+
+  /**
+   * @since 4.7
+   */
+  @Experimental
+  public void setDisambiguationTrace(@Nullable DisambiguationTrace disambiguationTrace) {
+    this.disambiguationTrace = disambiguationTrace;
+  }
+
+  void copyHistory(AnalyzedTokenReadings other) {
+    historicalAnnotations = other.historicalAnnotations;
+    disambiguationTrace = other.disambiguationTrace;
+  }
+
+  /**
+   * Set the history of this token to that of {@code previous} (which might be this token itself),
+   * followed by a change from {@code before} to the current readings. Does nothing if {@code before}
+   * is {@code null}, which is what disambiguators use when {@link DisambiguationTrace#isEnabled()} is {@code false}.
+   * @param before the {@link #toString()} of {@code previous} before the change
+   * @since 4.7
+   */
+  @Experimental
+  public void addDisambiguationChange(AnalyzedTokenReadings previous, String source, @Nullable String before) {
+    if (before != null) {
+      historicalAnnotations = previous.historicalAnnotations;
+      disambiguationTrace = new DisambiguationTrace(previous.disambiguationTrace, source, before, toString());
+    }
   }
 
   /**
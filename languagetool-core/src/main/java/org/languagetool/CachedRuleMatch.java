@@ -0,0 +1,303 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.SuggestedReplacement;
+import org.languagetool.rules.patterns.AbstractPatternRule;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * For internal use only. A {@link RuleMatch} as stored in the {@link ResultCache}: without
+ * the reference to its {@link AnalyzedSentence}, which would keep all the tokens and readings of
+ * the sentence in memory. The sentence is set again when the match is taken from the cache.
+ * @since 4.7
+ */
+class CachedRuleMatch {
+
+  // rough sizes of the JVM's object headers and references, used to estimate memory usage:
+  private static final int OBJECT_BYTES = 16;
+  private static final int REFERENCE_BYTES = 8;
+  private static final int ARRAY_BYTES = 16;
+
+  private final Rule rule;
+  private final String message;
+  private final String shortMessage;
+  private final int fromPos;
+  private final int toPos;
+  private final int line;
+  private final int endLine;
+  private final int column;
+  private final int endColumn;
+  private final List<SuggestedReplacement> suggestedReplacements;
+  private final URL url;
+  private final RuleMatch.Type type;
+  private final SortedMap<String, Float> features;
+  private final boolean autoCorrect;
+
+  CachedRuleMatch(RuleMatch match) {
+    this.rule = match.getRule();
+    this.message = match.getMessage();
+    this.shortMessage = match.getShortMessage();
+    this.fromPos = match.getFromPos();
+    this.toPos = match.getToPos();
+    this.line = match.getLine();
+    this.endLine = match.getEndLine();
+    this.column = match.getColumn();
+    this.endColumn = match.getEndColumn();
+    this.suggestedReplacements = new ArrayList<>(match.getSuggestedReplacementObjects());
+    this.url = match.getUrl();
+    this.type = match.getType();
+    this.features = match.getFeatures();
+    this.autoCorrect = match.isAutoCorrect();
+  }
+
+  private CachedRuleMatch(Rule rule, String message, String shortMessage, int fromPos, int toPos,
+                          int line, int endLine, int column, int endColumn, List<SuggestedReplacement> suggestedReplacements,
+                          URL url, RuleMatch.Type type, SortedMap<String, Float> features, boolean autoCorrect) {
+    this.rule = rule;
+    this.message = message;
+    this.shortMessage = shortMessage;
+    this.fromPos = fromPos;
+    this.toPos = toPos;
+    this.line = line;
+    this.endLine = endLine;
+    this.column = column;
+    this.endColumn = endColumn;
+    this.suggestedReplacements = suggestedReplacements;
+    this.url = url;
+    this.type = type;
+    this.features = features;
+    this.autoCorrect = autoCorrect;
+  }
+
+  /**
+   * @param sentence the sentence the match was found in, i.e. the sentence of the cache key
+   */
+  RuleMatch toRuleMatch(@Nullable AnalyzedSentence sentence) {
+    RuleMatch match = new RuleMatch(rule, sentence, fromPos, toPos, message, shortMessage);
+    match.setSuggestedReplacementObjects(new ArrayList<>(suggestedReplacements));
+    match.setUrl(url);
+    match.setType(type);
+    match.setFeatures(features);
+    match.setAutoCorrect(autoCorrect);
+    match.setLine(line);
+    match.setEndLine(endLine);
+    match.setColumn(column);
+    match.setEndColumn(endColumn);
+    return match;
+  }
+
+  /**
+   * @return an estimate of the memory used by this object, not counting the rule and the URL,
+   *  which are shared with other matches
+   */
+  int getEstimatedBytes() {
+    int bytes = OBJECT_BYTES + 9 * REFERENCE_BYTES + 7 * Integer.BYTES;
+    bytes += getEstimatedBytes(message) + getEstimatedBytes(shortMessage);
+    bytes += OBJECT_BYTES + ARRAY_BYTES + suggestedReplacements.size() * REFERENCE_BYTES;
+    for (SuggestedReplacement replacement : suggestedReplacements) {
+      bytes += OBJECT_BYTES + 4 * REFERENCE_BYTES;
+      bytes += getEstimatedBytes(replacement.getReplacement()) + getEstimatedBytes(replacement.getShortDescription());
+      bytes += getEstimatedBytes(replacement.getFeatures());
+    }
+    bytes += getEstimatedBytes(features);
+    return bytes;
+  }
+
+  /**
+   * Serialize this match, with the rule written as {@link #getRuleId(Rule)}.
+   */
+  void writeTo(DataOutput out) throws IOException {
+    writeString(out, getRuleId(rule));
+    writeString(out, message);
+    writeString(out, shortMessage);
+    out.writeInt(fromPos);
+    out.writeInt(toPos);
+    out.writeInt(line);
+    out.writeInt(endLine);
+    out.writeInt(column);
+    out.writeInt(endColumn);
+    out.writeInt(suggestedReplacements.size());
+    for (SuggestedReplacement replacement : suggestedReplacements) {
+      writeString(out, replacement.getReplacement());
+      writeString(out, replacement.getShortDescription());
+      Float confidence = replacement.getConfidence();
+      out.writeBoolean(confidence != null);
+      if (confidence != null) {
+        out.writeFloat(confidence);
+      }
+      writeFeatures(out, replacement.getFeatures());
+    }
+    writeString(out, url != null ? url.toString() : null);
+    out.writeByte(type.ordinal());
+    writeFeatures(out, features);
+    out.writeBoolean(autoCorrect);
+  }
+
+  /**
+   * Read a match written by {@link #writeTo(DataOutput)}.
+   * @param rules gets the rule for an id as returned by {@link #getRuleId(Rule)}, or {@code null} if the rule is unknown
+   * @return the match, or {@code null} if its rule is unknown
+   */
+  @Nullable
+  static CachedRuleMatch readFrom(DataInput in, Function<String, Rule> rules) throws IOException {
+    Rule rule = rules.apply(readString(in));
+    String message = readString(in);
+    String shortMessage = readString(in);
+    int fromPos = in.readInt();
+    int toPos = in.readInt();
+    int line = in.readInt();
+    int endLine = in.readInt();
+    int column = in.readInt();
+    int endColumn = in.readInt();
+    int replacementCount = in.readInt();
+    List<SuggestedReplacement> replacements = new ArrayList<>(replacementCount);
+    for (int i = 0; i < replacementCount; i++) {
+      SuggestedReplacement replacement = new SuggestedReplacement(readString(in));
+      replacement.setShortDescription(readString(in));
+      if (in.readBoolean()) {
+        replacement.setConfidence(in.readFloat());
+      }
+      replacement.setFeatures(readFeatures(in));
+      replacements.add(replacement);
+    }
+    String url = readString(in);
+    RuleMatch.Type type = RuleMatch.Type.values()[in.readByte()];
+    SortedMap<String, Float> features = readFeatures(in);
+    boolean autoCorrect = in.readBoolean();
+    if (rule == null) {
+      return null;
+    }
+    return new CachedRuleMatch(rule, message, shortMessage, fromPos, toPos, line, endLine, column, endColumn,
+      replacements, url != null ? new URL(url) : null, type, features, autoCorrect);
+  }
+
+  /**
+   * Serialize a list of matches with {@link #writeTo(DataOutput)}.
+   */
+  static byte[] serialize(List<RuleMatch> matches) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(matches.size());
+      for (RuleMatch match : matches) {
+        new CachedRuleMatch(match).writeTo(out);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Could not serialize matches: " + matches, e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Read a list of matches written by {@link #serialize(List)}.
+   * @param rules see {@link #readFrom(DataInput, Function)}
+   * @return the matches, or {@code null} if the rule of one of them is unknown
+   */
+  @Nullable
+  static List<CachedRuleMatch> deserialize(byte[] bytes, Function<String, Rule> rules) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      int size = in.readInt();
+      List<CachedRuleMatch> matches = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        CachedRuleMatch match = readFrom(in, rules);
+        if (match == null) {
+          return null;
+        }
+        matches.add(match);
+      }
+      return matches;
+    } catch (IOException e) {
+      throw new RuntimeException("Could not deserialize matches", e);
+    }
+  }
+
+  /**
+   * @return the id of the rule, including the sub id for pattern rules
+   */
+  static String getRuleId(Rule rule) {
+    return rule instanceof AbstractPatternRule ? ((AbstractPatternRule) rule).getFullId() : rule.getId();
+  }
+
+  private static void writeString(DataOutput out, @Nullable String s) throws IOException {
+    if (s == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  @Nullable
+  private static String readString(DataInput in) throws IOException {
+    int length = in.readInt();
+    if (length == -1) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeFeatures(DataOutput out, SortedMap<String, Float> features) throws IOException {
+    out.writeInt(features.size());
+    for (Map.Entry<String, Float> entry : features.entrySet()) {
+      writeString(out, entry.getKey());
+      out.writeFloat(entry.getValue());
+    }
+  }
+
+  private static SortedMap<String, Float> readFeatures(DataInput in) throws IOException {
+    int size = in.readInt();
+    if (size == 0) {
+      return Collections.emptySortedMap();
+    }
+    SortedMap<String, Float> features = new TreeMap<>();
+    for (int i = 0; i < size; i++) {
+      features.put(readString(in), in.readFloat());
+    }
+    return features;
+  }
+
+  static int getEstimatedBytes(@Nullable String s) {
+    // assumes two bytes per char, as strings that aren't Latin-1 can't be stored more compactly
+    return s == null ? 0 : OBJECT_BYTES + Integer.BYTES + REFERENCE_BYTES + ARRAY_BYTES + 2 * s.length();
+  }
+
+  private static int getEstimatedBytes(SortedMap<String, Float> map) {
+    if (map.isEmpty()) {
+      return 0;  // usually the shared Collections.emptySortedMap()
+    }
+    int bytes = OBJECT_BYTES;
+    for (Map.Entry<String, Float> entry : map.entrySet()) {
+      // tree map entry and the boxed float:
+      bytes += OBJECT_BYTES + 5 * REFERENCE_BYTES + 2 * OBJECT_BYTES + getEstimatedBytes(entry.getKey());
+    }
+    return bytes;
+  }
+
+}
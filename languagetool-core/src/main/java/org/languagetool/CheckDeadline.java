@@ -0,0 +1,70 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A time limit for {@link JLanguageTool#check(org.languagetool.markup.AnnotatedText, boolean, JLanguageTool.ParagraphHandling, RuleMatchListener, JLanguageTool.Mode, CheckDeadline)}.
+ * When it has passed, the check stops at the next sentence boundary and returns the matches of the
+ * sentences checked so far. Unlike interrupting the checking thread, this gives a well-defined result:
+ * the text up to {@link #getCheckedUpTo()} has been checked completely, the rest not at all, so a
+ * client can check just the rest of the text again later.
+ * <p>Text-level rules are then only applied to the checked part of the text. In
+ * {@link JLanguageTool.Mode#TEXTLEVEL_ONLY} the deadline is ignored, as these rules need the complete text.
+ * Use a new object for each check.
+ * @since 4.7
+ */
+@Experimental
+public class CheckDeadline {
+
+  private final long deadlineNanos;
+  private volatile int checkedUpTo = -1;
+
+  /**
+   * @param maxMillis time from now after which checking stops
+   */
+  public CheckDeadline(long maxMillis) {
+    this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxMillis);
+  }
+
+  public boolean isExpired() {
+    return System.nanoTime() - deadlineNanos >= 0;
+  }
+
+  void setCheckedUpTo(int checkedUpTo) {
+    this.checkedUpTo = checkedUpTo;
+  }
+
+  /**
+   * @return {@code true} if the check stopped before the end of the text because of this deadline
+   */
+  public boolean isIncomplete() {
+    return checkedUpTo != -1;
+  }
+
+  /**
+   * @return the position in the original text (including markup) up to which the text has been
+   *  checked if the check was stopped, {@code -1} if the complete text has been checked
+   */
+  public int getCheckedUpTo() {
+    return checkedUpTo;
+  }
+
+}
@@ -0,0 +1,116 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A change a disambiguator made to the readings of a token, linked to the changes
+ * made before. Only used for debugging and testing disambiguation rules, see
+ * {@link AnalyzedTokenReadings#getHistoricalAnnotations()}. Recording the changes
+ * costs time and memory, so it can be switched off with {@link #setEnabled(boolean)}.
+ * @since 4.7
+ */
+@Experimental
+public final class DisambiguationTrace {
+
+  private static volatile boolean enabled = true;
+
+  private final DisambiguationTrace previous;
+  private final String source;
+  private final String before;
+  private final String after;
+
+  /**
+   * Whether disambiguators should record their changes. {@code true} by default.
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Switch recording of disambiguator changes on or off for all languages.
+   */
+  public static void setEnabled(boolean enabled) {
+    DisambiguationTrace.enabled = enabled;
+  }
+
+  /**
+   * @param previous the earlier changes of the token, or {@code null}
+   * @param source the id of the rule or disambiguator that made the change
+   * @param before the readings before the change, as in {@link AnalyzedTokenReadings#toString()}
+   * @param after the readings after the change
+   */
+  public DisambiguationTrace(@Nullable DisambiguationTrace previous, String source, String before, String after) {
+    this.previous = previous;
+    this.source = Objects.requireNonNull(source);
+    this.before = Objects.requireNonNull(before);
+    this.after = Objects.requireNonNull(after);
+  }
+
+  /**
+   * @return the earlier changes of the token, or {@code null}
+   */
+  @Nullable
+  public DisambiguationTrace getPrevious() {
+    return previous;
+  }
+
+  public String getSource() {
+    return source;
+  }
+
+  public String getBefore() {
+    return before;
+  }
+
+  public String getAfter() {
+    return after;
+  }
+
+  /**
+   * @return all changes up to and including this one, oldest first
+   */
+  public List<DisambiguationTrace> getChanges() {
+    List<DisambiguationTrace> changes = new ArrayList<>();
+    for (DisambiguationTrace trace = this; trace != null; trace = trace.previous) {
+      changes.add(trace);
+    }
+    Collections.reverse(changes);
+    return changes;
+  }
+
+  /**
+   * @return all changes in the format of {@link AnalyzedTokenReadings#getHistoricalAnnotations()}
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (DisambiguationTrace change : getChanges()) {
+      sb.append('\n').append(change.source).append(": ").append(change.before).append(" -> ").append(change.after);
+    }
+    return sb.toString();
+  }
+
+}
@@ -0,0 +1,72 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link RemoteResultStore} that keeps the values in a map in the same JVM, for tests. Expired
+ * values are only removed when they are read, so the memory it uses isn't bounded.
+ * @since 4.7
+ */
+@Experimental
+public class InMemoryResultStore implements RemoteResultStore {
+
+  private final Map<String, Value> values = new ConcurrentHashMap<>();
+
+  @Nullable
+  @Override
+  public byte[] get(String key) {
+    Value value = values.get(key);
+    if (value == null) {
+      return null;
+    }
+    if (System.nanoTime() - value.expiresAt > 0) {
+      values.remove(key, value);
+      return null;
+    }
+    return value.bytes;
+  }
+
+  @Override
+  public void put(String key, byte[] value, long expireAfter, TimeUnit timeUnit) {
+    values.put(key, new Value(value, System.nanoTime() + timeUnit.toNanos(expireAfter)));
+  }
+
+  /**
+   * @return the number of stored values, including expired ones that haven't been read since they expired
+   */
+  public int size() {
+    return values.size();
+  }
+
+  private static class Value {
+    private final byte[] bytes;
+    private final long expiresAt;
+    Value(byte[] bytes, long expiresAt) {
+      this.bytes = bytes;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+}
@@ -18,11 +18,13 @@
  */
 package org.languagetool;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.rules.CategoryId;
 
-import java.util.List;
-import java.util.Objects;
-import java.util.Set;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 
 /**
  * For internal use only. Used as a key for caching check results.
@@ -61,7 +63,74 @@ class InputSentence {
   public String getText() {
     return text;
   }
+
+  /**
+   * @return a key with the same language and settings as this one, but an empty text
+   * @since 4.7
+   */
+  InputSentence withoutText() {
+    return new InputSentence("", lang, motherTongue, disabledRules, disabledRuleCategories,
+            enabledRules, enabledRuleCategories, userConfig, altLanguages, mode);
+  }
   
+  /**
+   * @return a key that is equal for equal sentences in all JVMs that run the same version of LanguageTool,
+   *  unlike {@link #hashCode()}, used as the key for a {@link RemoteResultStore}
+   * @since 4.7
+   */
+  String getStableKey() {
+    Hasher hasher = Hashing.sha256().newHasher();
+    putString(hasher, JLanguageTool.VERSION);
+    putString(hasher, JLanguageTool.BUILD_DATE);
+    putString(hasher, text);
+    putString(hasher, lang.getShortCodeWithCountryAndVariant());
+    putString(hasher, motherTongue != null ? motherTongue.getShortCodeWithCountryAndVariant() : null);
+    putStrings(hasher, disabledRules);
+    putStrings(hasher, disabledRuleCategories);
+    putStrings(hasher, enabledRules);
+    putStrings(hasher, enabledRuleCategories);
+    hasher.putBoolean(userConfig != null);
+    if (userConfig != null) {
+      userConfig.putSettings(hasher);
+    }
+    hasher.putInt(altLanguages != null ? altLanguages.size() : -1);
+    if (altLanguages != null) {
+      for (Language altLanguage : altLanguages) {
+        putString(hasher, altLanguage.getShortCodeWithCountryAndVariant());
+      }
+    }
+    putString(hasher, mode.name());
+    return hasher.hash().toString();
+  }
+
+  private static void putStrings(Hasher hasher, @Nullable Set<?> set) {
+    if (set == null) {
+      hasher.putInt(-1);
+      return;
+    }
+    List<String> strings = new ArrayList<>();
+    for (Object o : set) {
+      strings.add(o.toString());
+    }
+    Collections.sort(strings);
+    hasher.putInt(strings.size());
+    for (String s : strings) {
+      putString(hasher, s);
+    }
+  }
+
+  /**
+   * Add {@code s} with its length, so that consecutive strings can't be confused.
+   */
+  static void putString(Hasher hasher, @Nullable String s) {
+    if (s == null) {
+      hasher.putInt(-1);
+    } else {
+      hasher.putInt(s.length());
+      hasher.putString(s, StandardCharsets.UTF_8);
+    }
+  }
+
   @Override
   public boolean equals(Object o) {
     if (o == null) return false;
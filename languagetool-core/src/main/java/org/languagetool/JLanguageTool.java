@@ -44,6 +44,7 @@ import java.net.JarURLConnection;
 import java.net.URL;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 import java.util.jar.Manifest;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
@@ -534,13 +535,13 @@ public class JLanguageTool {
   }
 
   /**
-   * Loads and activates the false friend rules from
-   * <code>rules/false-friends.xml</code>.
+   * Activates the false friend rules from
+   * <code>rules/false-friends.xml</code>, which are loaded only once per language pair.
    */
-  private void activateDefaultFalseFriendRules()
-      throws ParserConfigurationException, SAXException, IOException {
-    String falseFriendRulesFilename = JLanguageTool.getDataBroker().getRulesDir() + "/" + FALSE_FRIEND_FILE;
-    userRules.addAll(loadFalseFriendRules(falseFriendRulesFilename));
+  private void activateDefaultFalseFriendRules() throws IOException {
+    if (motherTongue != null) {
+      userRules.addAll(language.getFalseFriendRules(motherTongue));
+    }
   }
 
   /**
@@ -737,6 +738,19 @@ public class JLanguageTool {
    * @since 4.3
    */
   public List<RuleMatch> check(AnnotatedText annotatedText, boolean tokenizeText, ParagraphHandling paraMode, RuleMatchListener listener, Mode mode) throws IOException {
+    return check(annotatedText, tokenizeText, paraMode, listener, mode, null);
+  }
+
+  /**
+   * The main check method. Tokenizes the text into sentences and matches these
+   * sentences against all currently active rules depending on {@code mode}.
+   * @param deadline if not {@code null}, the sentences are checked in order and checking stops
+   *   at the next sentence boundary once the deadline has passed, see {@link CheckDeadline}
+   * @since 4.7
+   */
+  @Experimental
+  public List<RuleMatch> check(AnnotatedText annotatedText, boolean tokenizeText, ParagraphHandling paraMode, RuleMatchListener listener,
+                               Mode mode, @Nullable CheckDeadline deadline) throws IOException {
     List<String> sentences;
     if (tokenizeText) { 
       sentences = sentenceTokenize(annotatedText.getPlainText());
@@ -752,7 +766,12 @@ public class JLanguageTool {
     unknownWords = new HashSet<>();
     List<AnalyzedSentence> analyzedSentences = analyzeSentences(sentences);
     
-    List<RuleMatch> ruleMatches = performCheck(analyzedSentences, sentences, allRules, paraMode, annotatedText, listener, mode);
+    List<RuleMatch> ruleMatches;
+    if (deadline == null) {
+      ruleMatches = performCheck(analyzedSentences, sentences, allRules, paraMode, annotatedText, listener, mode);
+    } else {
+      ruleMatches = performCheck(analyzedSentences, sentences, allRules, paraMode, annotatedText, listener, mode, deadline);
+    }
     ruleMatches = new SameRuleGroupFilter().filter(ruleMatches);
     // no sorting: SameRuleGroupFilter sorts rule matches already
     if (cleanOverlappingMatches) {
@@ -810,7 +829,18 @@ public class JLanguageTool {
    */
   protected List<RuleMatch> performCheck(List<AnalyzedSentence> analyzedSentences, List<String> sentences,
                                          List<Rule> allRules, ParagraphHandling paraMode, AnnotatedText annotatedText, RuleMatchListener listener, Mode mode) throws IOException {
-    Callable<List<RuleMatch>> matcher = new TextCheckCallable(allRules, sentences, analyzedSentences, paraMode, annotatedText, 0, 0, 1, listener, mode);
+    return performCheck(analyzedSentences, sentences, allRules, paraMode, annotatedText, listener, mode, null);
+  }
+
+  /**
+   * Checks the sentences in order, stopping when {@code deadline} has passed. Subclasses that check
+   * in parallel don't need to override this, as a deadline requires checking in order.
+   * @since 4.7
+   */
+  protected List<RuleMatch> performCheck(List<AnalyzedSentence> analyzedSentences, List<String> sentences,
+                                         List<Rule> allRules, ParagraphHandling paraMode, AnnotatedText annotatedText, RuleMatchListener listener,
+                                         Mode mode, @Nullable CheckDeadline deadline) throws IOException {
+    Callable<List<RuleMatch>> matcher = new TextCheckCallable(allRules, sentences, analyzedSentences, paraMode, annotatedText, 0, 0, 1, listener, mode, deadline);
     try {
       return matcher.call();
     } catch (IOException e) {
@@ -827,8 +857,18 @@ public class JLanguageTool {
    */
   public List<RuleMatch> checkAnalyzedSentence(ParagraphHandling paraMode,
         List<Rule> rules, AnalyzedSentence analyzedSentence) throws IOException {
+    return checkAnalyzedSentence(paraMode, rules, analyzedSentence, null);
+  }
+
+  /**
+   * @return the matches, or {@code null} if {@code deadline} has passed before all rules have been applied
+   */
+  @Nullable
+  private List<RuleMatch> checkAnalyzedSentence(ParagraphHandling paraMode, List<Rule> rules, AnalyzedSentence analyzedSentence,
+                                                @Nullable CheckDeadline deadline) throws IOException {
     List<RuleMatch> sentenceMatches = new ArrayList<>();
-    RuleLoggerManager logger = RuleLoggerManager.getInstance();
+    boolean logCheckTimes = RuleLoggerManager.getInstance().isLogging(Level.FINE);
+    int sampleInterval = RuleTimingStats.getSampleInterval();
     for (Rule rule : rules) {
       if (rule instanceof TextLevelRule) {
         continue;
@@ -843,10 +883,15 @@ public class JLanguageTool {
       if (paraMode == ParagraphHandling.ONLYPARA) {
         continue;
       }
-      long time = System.currentTimeMillis();
+      if (deadline != null && deadline.isExpired()) {
+        return null;
+      }
+      boolean sampled = sampleInterval > 0 && RuleTimingStats.shouldSample(sampleInterval);
+      long startNanos = logCheckTimes || sampled ? System.nanoTime() : 0;
       RuleMatch[] thisMatches = rule.match(analyzedSentence);
-      logger.log(new RuleCheckTimeMessage(rule.getId(), language.getShortCodeWithCountryAndVariant(),
-        time, analyzedSentence.getText().length()), Level.FINE);
+      if (logCheckTimes || sampled) {
+        logCheckTime(rule, startNanos, analyzedSentence.getText().length(), logCheckTimes, sampled);
+      }
       for (RuleMatch elem : thisMatches) {
         sentenceMatches.add(elem);
       }
@@ -855,6 +900,18 @@ public class JLanguageTool {
     return applyCustomFilters(new SameRuleGroupFilter().filter(sentenceMatches),text);
   }
 
+  private void logCheckTime(Rule rule, long startNanos, int textSize, boolean logCheckTime, boolean sampled) {
+    long nanos = System.nanoTime() - startNanos;
+    String lang = language.getShortCodeWithCountryAndVariant();
+    if (sampled) {
+      RuleTimingStats.record(lang, rule.getId(), nanos);
+    }
+    if (logCheckTime) {
+      RuleLoggerManager.getInstance().log(new RuleCheckTimeMessage(rule.getId(), lang,
+        TimeUnit.NANOSECONDS.toMillis(nanos), textSize), Level.FINE);
+    }
+  }
+
   private boolean ignoreRule(Rule rule) {
     Category ruleCategory = rule.getCategory();
     boolean isCategoryDisabled = (disabledRuleCategories.contains(ruleCategory.getId()) || rule.getCategory().isDefaultOff()) 
@@ -955,6 +1012,30 @@ public class JLanguageTool {
     return words;
   }
 
+  /**
+   * Calculate the column at the end of {@code sentence}, for matching columns.
+   * @param columnCount the column at the start of {@code sentence}
+   */
+  int getColumnCountAfter(String sentence, int columnCount) {
+    int lineBreakPos = sentence.lastIndexOf('\n');
+    if (lineBreakPos == -1) {
+      return columnCount + sentence.length();
+    } else if (lineBreakPos == 0) {
+      int column = sentence.length();
+      if (!language.getSentenceTokenizer().singleLineBreaksMarksPara()) {
+        column--;
+      }
+      return column;
+    } else {
+      return sentence.length() - lineBreakPos;
+    }
+  }
+
+  @Nullable
+  ResultCache getCache() {
+    return cache;
+  }
+
   // non-private only for test case
   static int countLineBreaks(String s) {
     int pos = -1;
@@ -1214,14 +1295,23 @@ public class JLanguageTool {
     private final List<AnalyzedSentence> analyzedSentences;
     private final RuleMatchListener listener;
     private final Mode mode;
+    private final CheckDeadline deadline;
     
     private int charCount;
     private int lineCount;
     private int columnCount;
+    private int checkedSentences;
+    private Map<String, Rule> rulesById;
 
     TextCheckCallable(List<Rule> rules, List<String> sentences, List<AnalyzedSentence> analyzedSentences,
                       ParagraphHandling paraMode, AnnotatedText annotatedText, int charCount, int lineCount, int columnCount,
                       RuleMatchListener listener, Mode mode) {
+      this(rules, sentences, analyzedSentences, paraMode, annotatedText, charCount, lineCount, columnCount, listener, mode, null);
+    }
+
+    TextCheckCallable(List<Rule> rules, List<String> sentences, List<AnalyzedSentence> analyzedSentences,
+                      ParagraphHandling paraMode, AnnotatedText annotatedText, int charCount, int lineCount, int columnCount,
+                      RuleMatchListener listener, Mode mode, @Nullable CheckDeadline deadline) {
       this.rules = rules;
       if (sentences.size() != analyzedSentences.size()) {
         throw new IllegalArgumentException("sentences and analyzedSentences do not have the same length : " + sentences.size() + " != " + analyzedSentences.size());
@@ -1235,12 +1325,17 @@ public class JLanguageTool {
       this.columnCount = columnCount;
       this.listener = listener;
       this.mode = Objects.requireNonNull(mode);
+      this.deadline = mode == Mode.TEXTLEVEL_ONLY ? null : deadline;
     }
 
     @Override
     public List<RuleMatch> call() throws Exception {
       List<RuleMatch> ruleMatches = new ArrayList<>();
-      if (mode == Mode.ALL) {
+      if (mode == Mode.ALL && deadline != null) {
+        // text-level rules are applied to the sentences that have been checked before the deadline:
+        ruleMatches.addAll(getOtherRuleMatches());
+        ruleMatches.addAll(getTextLevelRuleMatches(analyzedSentences.subList(0, checkedSentences)));
+      } else if (mode == Mode.ALL) {
         ruleMatches.addAll(getTextLevelRuleMatches());
         ruleMatches.addAll(getOtherRuleMatches());
       } else if (mode == Mode.ALL_BUT_TEXTLEVEL_ONLY) {
@@ -1256,18 +1351,24 @@ public class JLanguageTool {
     }
 
     private List<RuleMatch> getTextLevelRuleMatches() throws IOException {
+      return getTextLevelRuleMatches(analyzedSentences);
+    }
+
+    private List<RuleMatch> getTextLevelRuleMatches(List<AnalyzedSentence> analyzedSentences) throws IOException {
       List<RuleMatch> ruleMatches = new ArrayList<>();
-      RuleLoggerManager logger = RuleLoggerManager.getInstance();
-      String lang = language.getShortCodeWithCountryAndVariant();
+      boolean logCheckTimes = RuleLoggerManager.getInstance().isLogging(Level.FINE);
+      int sampleInterval = RuleTimingStats.getSampleInterval();
       for (Rule rule : rules) {
         if (rule instanceof TextLevelRule && !ignoreRule(rule) && paraMode != ParagraphHandling.ONLYNONPARA) {
-          long time = System.currentTimeMillis();
+          boolean sampled = sampleInterval > 0 && RuleTimingStats.shouldSample(sampleInterval);
+          long startNanos = logCheckTimes || sampled ? System.nanoTime() : 0;
           RuleMatch[] matches = ((TextLevelRule) rule).match(analyzedSentences, annotatedText);
-          logger.log(new RuleCheckTimeMessage(rule.getId(), lang,
-            time, annotatedText.getPlainText().length()), Level.FINE);
+          if (logCheckTimes || sampled) {
+            logCheckTime(rule, startNanos, annotatedText.getPlainText().length(), logCheckTimes, sampled);
+          }
           List<RuleMatch> adaptedMatches = new ArrayList<>();
           for (RuleMatch match : matches) {
-            LineColumnRange range = getLineColumnRange(match);
+            LineColumnRange range = getLineColumnRange(match, analyzedSentences);
             int newFromPos = annotatedText.getOriginalTextPositionFor(match.getFromPos());
             int newToPos = annotatedText.getOriginalTextPositionFor(match.getToPos() - 1) + 1;
             RuleMatch newMatch = new RuleMatch(match);
@@ -1293,11 +1394,29 @@ public class JLanguageTool {
       return ruleMatches;
     }
 
+    /**
+     * Used to find the rules of matches that have been serialized by the cache.
+     */
+    @Nullable
+    private Rule getRule(String ruleId) {
+      if (rulesById == null) {
+        rulesById = new HashMap<>();
+        for (Rule rule : rules) {
+          rulesById.putIfAbsent(CachedRuleMatch.getRuleId(rule), rule);
+        }
+      }
+      return rulesById.get(ruleId);
+    }
+
     private List<RuleMatch> getOtherRuleMatches() {
       List<RuleMatch> ruleMatches = new ArrayList<>();
       int i = 0;
       int wordCounter = 0;
       for (AnalyzedSentence analyzedSentence : analyzedSentences) {
+        if (deadline != null && deadline.isExpired()) {
+          stop();
+          break;
+        }
         String sentence = sentences.get(i++);
         wordCounter += analyzedSentence.getTokensWithoutWhitespace().length;
         try {
@@ -1307,13 +1426,18 @@ public class JLanguageTool {
             cacheKey = new InputSentence(analyzedSentence.getText(), language, motherTongue,
                     disabledRules, disabledRuleCategories,
                     enabledRules, enabledRuleCategories, userConfig, altLanguages, mode);
-            sentenceMatches = cache.getIfPresent(cacheKey);
+            sentenceMatches = cache.getIfPresent(cacheKey, analyzedSentence, this::getRule);
           }
           if (sentenceMatches == null) {
-            sentenceMatches = checkAnalyzedSentence(paraMode, rules, analyzedSentence);
-          }
-          if (cache != null) {
-            cache.put(cacheKey, sentenceMatches);
+            sentenceMatches = checkAnalyzedSentence(paraMode, rules, analyzedSentence, deadline);
+            if (sentenceMatches == null) {
+              // the deadline has passed while checking this sentence, so it's not part of the result:
+              stop();
+              break;
+            }
+            if (cache != null) {
+              cache.put(cacheKey, sentenceMatches);
+            }
           }
           List<RuleMatch> adaptedMatches = new ArrayList<>();
           for (RuleMatch elem : sentenceMatches) {
@@ -1334,21 +1458,8 @@ public class JLanguageTool {
           }
           charCount += sentence.length();
           lineCount += countLineBreaks(sentence);
-
-          // calculate matching column:
-          int lineBreakPos = sentence.lastIndexOf('\n');
-          if (lineBreakPos == -1) {
-            columnCount += sentence.length();
-          } else {
-            if (lineBreakPos == 0) {
-              columnCount = sentence.length();
-              if (!language.getSentenceTokenizer().singleLineBreaksMarksPara()) {
-                columnCount--;
-              }
-            } else {
-              columnCount = sentence.length() - lineBreakPos;
-            }
-          }
+          columnCount = getColumnCountAfter(sentence, columnCount);
+          checkedSentences++;
         } catch (ErrorRateTooHighException e) {
           throw e;
         } catch (Exception e) {
@@ -1359,7 +1470,14 @@ public class JLanguageTool {
       return ruleMatches;
     }
 
-    private LineColumnRange getLineColumnRange(RuleMatch match) {
+    /**
+     * Called when the deadline has passed before the sentence at {@code charCount} has been checked.
+     */
+    private void stop() {
+      deadline.setCheckedUpTo(annotatedText.getOriginalTextPositionFor(charCount));
+    }
+
+    private LineColumnRange getLineColumnRange(RuleMatch match, List<AnalyzedSentence> analyzedSentences) {
       LineColumnPosition fromPos = new LineColumnPosition(-1, -1);
       LineColumnPosition toPos = new LineColumnPosition(-1, -1);
       LineColumnPosition pos = new LineColumnPosition(0, 0);
@@ -36,7 +36,9 @@ import org.languagetool.tokenizers.SentenceTokenizer;
 import org.languagetool.tokenizers.SimpleSentenceTokenizer;
 import org.languagetool.tokenizers.Tokenizer;
 import org.languagetool.tokenizers.WordTokenizer;
+import org.xml.sax.SAXException;
 
+import javax.xml.parsers.ParserConfigurationException;
 import java.io.*;
 import java.util.*;
 import java.util.regex.Pattern;
@@ -65,6 +67,7 @@ public abstract class Language {
   private final Pattern ignoredCharactersRegex = Pattern.compile("[\u00AD]");  // soft hyphen
   
   private List<AbstractPatternRule> patternRules;
+  private final Map<String, List<AbstractPatternRule>> falseFriendRules = new HashMap<>();
   private boolean noLmWarningPrinted;
 
   /**
@@ -438,6 +441,33 @@ public abstract class Language {
     }
     return patternRules;
   }
+
+  /**
+   * Get the false friend rules for this language and the given mother tongue, as defined in
+   * {@link JLanguageTool#FALSE_FRIEND_FILE}. The rules are loaded once per mother tongue and
+   * then shared by all {@link JLanguageTool} instances for this language.
+   * @since 4.7
+   */
+  protected synchronized List<AbstractPatternRule> getFalseFriendRules(Language motherTongue) throws IOException {
+    String key = motherTongue.getShortCodeWithCountryAndVariant();
+    List<AbstractPatternRule> rules = falseFriendRules.get(key);
+    if (rules == null) {
+      String fileName = JLanguageTool.getDataBroker().getRulesDir() + "/" + JLanguageTool.FALSE_FRIEND_FILE;
+      FalseFriendRuleLoader ruleLoader = new FalseFriendRuleLoader(motherTongue);
+      try (InputStream is = this.getClass().getResourceAsStream(fileName)) {
+        if (is == null) {
+          rules = ruleLoader.getRules(new File(fileName), this, motherTongue);
+        } else {
+          rules = ruleLoader.getRules(is, this, motherTongue);
+        }
+      } catch (ParserConfigurationException | SAXException e) {
+        throw new IOException("Could not load false friend rules from " + fileName, e);
+      }
+      rules = Collections.unmodifiableList(rules);
+      falseFriendRules.put(key, rules);
+    }
+    return rules;
+  }
   
   @Override
   public final String toString() {
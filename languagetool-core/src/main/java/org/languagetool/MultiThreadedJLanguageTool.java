@@ -79,7 +79,19 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
    */
   public MultiThreadedJLanguageTool(Language language, Language motherTongue, int threadPoolSize,
       UserConfig userConfig) {
-    super(language, motherTongue, null, userConfig);
+    this(language, motherTongue, threadPoolSize, userConfig, null);
+  }
+
+  /**
+   * @see #shutdown()
+   * @param threadPoolSize the number of concurrent threads
+   * @param cache a cache for speeding up checks if the same sentences get checked more than once,
+   *              e.g. when a text gets re-checked after it has been edited. Set to {@code null} to deactivate the cache.
+   * @since 4.7
+   */
+  public MultiThreadedJLanguageTool(Language language, Language motherTongue, int threadPoolSize,
+      UserConfig userConfig, ResultCache cache) {
+    super(language, motherTongue, cache, userConfig);
 
     this.threadPoolSize = threadPoolSize;
     threadPool = new ForkJoinPool(threadPoolSize, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false);
@@ -165,7 +177,8 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
     
     ExecutorService executorService = getExecutorService();
     try {
-      List<Callable<List<RuleMatch>>> callables =
+      List<Callable<List<RuleMatch>>> callables = getCache() != null ?
+              createSentenceCheckCallables(paraMode, annotatedText, analyzedSentences, sentences, allRules, listener, mode) :
               createTextCheckCallables(paraMode, annotatedText, analyzedSentences, sentences, allRules, charCount, lineCount, columnCount, listener, mode);
       List<Future<List<RuleMatch>>> futures = executorService.invokeAll(callables);
       for (Future<List<RuleMatch>> future : futures) {
@@ -192,6 +205,37 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
     return callables;
   }
 
+  /**
+   * Split the work by sentences instead of by rules, as the cache keeps the matches of all rules per sentence.
+   */
+  private List<Callable<List<RuleMatch>>> createSentenceCheckCallables(ParagraphHandling paraMode,
+       AnnotatedText annotatedText, List<AnalyzedSentence> analyzedSentences, List<String> sentences,
+       List<Rule> allRules, RuleMatchListener listener, Mode mode) {
+    List<Callable<List<RuleMatch>>> callables = new ArrayList<>();
+    if (mode != Mode.ALL_BUT_TEXTLEVEL_ONLY) {
+      callables.add(new TextCheckCallable(allRules, sentences, analyzedSentences, paraMode,
+          annotatedText, 0, 0, 1, listener, Mode.TEXTLEVEL_ONLY));
+    }
+    if (mode != Mode.TEXTLEVEL_ONLY) {
+      // several chunks per thread, as some sentences take much longer than others:
+      int chunkSize = Math.max(1, sentences.size() / (4 * threadPoolSize));
+      int charCount = 0;
+      int lineCount = 0;
+      int columnCount = 1;
+      for (int from = 0; from < sentences.size(); from += chunkSize) {
+        int to = Math.min(from + chunkSize, sentences.size());
+        callables.add(new TextCheckCallable(allRules, sentences.subList(from, to), analyzedSentences.subList(from, to), paraMode,
+            annotatedText, charCount, lineCount, columnCount, listener, Mode.ALL_BUT_TEXTLEVEL_ONLY));
+        for (String sentence : sentences.subList(from, to)) {
+          charCount += sentence.length();
+          lineCount += countLineBreaks(sentence);
+          columnCount = getColumnCountAfter(sentence, columnCount);
+        }
+      }
+    }
+    return callables;
+  }
+
   private class AnalyzeSentenceCallable implements Callable<AnalyzedSentence> {
     private final String sentence;
 
@@ -0,0 +1,298 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A {@link ResultCache} that keeps the rule matches serialized in direct (off-heap) memory, so that
+ * a large cache doesn't mean millions of small objects on the heap that the garbage collector has to
+ * look at. Its capacity is given in bytes. Only the cache keys and the analyzed sentences
+ * (see {@link #getSentenceCache()}) are kept on the heap, {@link #getMatchesCache()} is always empty.
+ *
+ * <p>The memory is split into segments, each of which is written like a ring buffer: when a segment
+ * is full, the oldest matches are overwritten. Matches are also dropped when they haven't been read
+ * for the given expiry time. Note that the JVM limits direct memory with {@code -XX:MaxDirectMemorySize},
+ * which defaults to the maximum heap size.
+ * @since 4.7
+ */
+@Experimental
+public class OffHeapResultCache extends ResultCache {
+
+  private static final int SEGMENTS = 16;
+
+  private final Segment[] segments = new Segment[SEGMENTS];
+  private final long expireAfterMillis;
+  // the rules of the cached matches, by settings and rule id, so that matches can be read without serializing rules:
+  private final Cache<RuleKey, Rule> rules = CacheBuilder.newBuilder().weakValues().build();
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
+  /**
+   * @param maxSize maximum size of the cache of analyzed sentences, which is kept on the heap, in number of sentences
+   * @param capacityBytes maximum off-heap memory used for the rule matches, in bytes
+   * @param expireAfter time to expire sentences from the cache after last read access
+   */
+  public OffHeapResultCache(long maxSize, long capacityBytes, long expireAfter, TimeUnit timeUnit) {
+    this(maxSize, capacityBytes, expireAfter, timeUnit, null);
+  }
+
+  /**
+   * @param remoteStore a store shared with other caches, see {@link ResultCache#ResultCache(long, long, TimeUnit, RemoteResultStore)}
+   */
+  public OffHeapResultCache(long maxSize, long capacityBytes, long expireAfter, TimeUnit timeUnit, @Nullable RemoteResultStore remoteStore) {
+    super(maxSize, expireAfter, timeUnit, remoteStore);
+    if (capacityBytes < SEGMENTS || capacityBytes / SEGMENTS > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Off-heap cache capacity must be between " + SEGMENTS + " and " +
+              (long) SEGMENTS * Integer.MAX_VALUE + " bytes: " + capacityBytes);
+    }
+    for (int i = 0; i < SEGMENTS; i++) {
+      segments[i] = new Segment((int) (capacityBytes / SEGMENTS));
+    }
+    this.expireAfterMillis = timeUnit.toMillis(expireAfter);
+  }
+
+  @Override
+  List<RuleMatch> getLocal(InputSentence key, @Nullable AnalyzedSentence sentence, @Nullable Function<String, Rule> rules) {
+    byte[] bytes = getSegment(key).get(key, System.currentTimeMillis());
+    List<CachedRuleMatch> matches = null;
+    if (bytes != null) {
+      InputSentence settings = key.withoutText();
+      matches = CachedRuleMatch.deserialize(bytes, ruleId -> {
+        Rule rule = this.rules.getIfPresent(new RuleKey(settings, ruleId));
+        return rule == null && rules != null ? rules.apply(ruleId) : rule;
+      });
+    }
+    if (matches == null) {
+      // also if a rule is gone, e.g. because the JLanguageTool objects that used it have been garbage collected
+      missCount.increment();
+      return null;
+    }
+    hitCount.increment();
+    return toRuleMatches(matches, sentence);
+  }
+
+  @Override
+  void putLocal(InputSentence key, List<RuleMatch> sentenceMatches) {
+    InputSentence settings = key.withoutText();
+    for (RuleMatch match : sentenceMatches) {
+      rules.asMap().putIfAbsent(new RuleKey(settings, CachedRuleMatch.getRuleId(match.getRule())), match.getRule());
+    }
+    getSegment(key).put(key, CachedRuleMatch.serialize(sentenceMatches), System.currentTimeMillis());
+  }
+
+  private Segment getSegment(InputSentence key) {
+    int hash = key.hashCode();
+    return segments[Math.floorMod(hash ^ (hash >>> 16), SEGMENTS)];
+  }
+
+  @Override
+  public double hitRate() {
+    long requestCount = getMatchesRequestCount();
+    double matchesHitRate = requestCount == 0 ? 1.0 : hitCount.sum() / (double) requestCount;
+    return (matchesHitRate + getSentenceCache().stats().hitRate()) / 2.0;
+  }
+
+  @Override
+  public double requestCount() {
+    return getMatchesRequestCount() + getSentenceCache().stats().requestCount();
+  }
+
+  @Override
+  public long hitCount() {
+    return hitCount.sum() + getSentenceCache().stats().hitCount();
+  }
+
+  private long getMatchesRequestCount() {
+    return hitCount.sum() + missCount.sum();
+  }
+
+  /**
+   * @return statistics of the off-heap matches cache only, with load counts and times always being {@code 0}
+   */
+  public CacheStats getMatchesStats() {
+    return new CacheStats(hitCount.sum(), missCount.sum(), 0, 0, 0, evictionCount.sum());
+  }
+
+  /**
+   * @return the number of sentences whose matches are cached, including ones that have expired but haven't been removed yet
+   */
+  public long getMatchesCount() {
+    long count = 0;
+    for (Segment segment : segments) {
+      count += segment.getEntryCount();
+    }
+    return count;
+  }
+
+  /**
+   * @return the off-heap memory used by cached matches, in bytes
+   */
+  public long getUsedBytes() {
+    long bytes = 0;
+    for (Segment segment : segments) {
+      bytes += segment.getUsedBytes();
+    }
+    return bytes;
+  }
+
+  /**
+   * @return the off-heap memory reserved for cached matches, in bytes
+   */
+  public long getCapacityBytes() {
+    return (long) SEGMENTS * segments[0].buffer.capacity();
+  }
+
+  private static final class RuleKey {
+
+    private final InputSentence settings;
+    private final String ruleId;
+
+    RuleKey(InputSentence settings, String ruleId) {
+      this.settings = settings;
+      this.ruleId = ruleId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      RuleKey other = (RuleKey) o;
+      return settings.equals(other.settings) && ruleId.equals(other.ruleId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(settings, ruleId);
+    }
+  }
+
+  /**
+   * One part of the off-heap memory. Entries are written one after the other, and when the
+   * end of the buffer is reached, writing starts over at its beginning, overwriting the oldest entries.
+   */
+  private final class Segment {
+
+    private final ByteBuffer buffer;
+    private final Map<InputSentence, Entry> index = new HashMap<>();
+    // all entries that haven't been overwritten yet, including removed ones, in the order they were written:
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private int writePos;
+    private long usedBytes;
+
+    Segment(int capacity) {
+      buffer = ByteBuffer.allocateDirect(capacity);
+    }
+
+    @Nullable
+    synchronized byte[] get(InputSentence key, long now) {
+      Entry entry = index.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (now - entry.lastAccess > expireAfterMillis) {
+        remove(entry);
+        evictionCount.increment();
+        return null;
+      }
+      entry.lastAccess = now;
+      byte[] bytes = new byte[entry.length];
+      buffer.position(entry.offset);
+      buffer.get(bytes);
+      return bytes;
+    }
+
+    synchronized void put(InputSentence key, byte[] bytes, long now) {
+      if (bytes.length > buffer.capacity()) {
+        return;
+      }
+      if (writePos + bytes.length > buffer.capacity()) {
+        // not enough space left at the end, so drop the entries there (they are the oldest ones) and start over:
+        while (!entries.isEmpty() && entries.peekFirst().offset >= writePos) {
+          overwrite(entries.removeFirst());
+        }
+        writePos = 0;
+      }
+      while (!entries.isEmpty() && entries.peekFirst().offset >= writePos && entries.peekFirst().offset < writePos + bytes.length) {
+        overwrite(entries.removeFirst());
+      }
+      buffer.position(writePos);
+      buffer.put(bytes);
+      Entry entry = new Entry(key, writePos, bytes.length, now);
+      entries.addLast(entry);
+      Entry oldEntry = index.put(key, entry);
+      if (oldEntry != null) {
+        oldEntry.removed = true;
+        usedBytes -= oldEntry.length;
+      }
+      usedBytes += entry.length;
+      writePos += bytes.length;
+    }
+
+    private void overwrite(Entry entry) {
+      if (!entry.removed) {
+        remove(entry);
+        evictionCount.increment();
+      }
+    }
+
+    private void remove(Entry entry) {
+      index.remove(entry.key);
+      entry.removed = true;
+      usedBytes -= entry.length;
+    }
+
+    synchronized int getEntryCount() {
+      return index.size();
+    }
+
+    synchronized long getUsedBytes() {
+      return usedBytes;
+    }
+  }
+
+  private static final class Entry {
+
+    private final InputSentence key;
+    private final int offset;
+    private final int length;
+    private long lastAccess;
+    private boolean removed;
+
+    Entry(InputSentence key, int offset, int length, long lastAccess) {
+      this.key = key;
+      this.offset = offset;
+      this.length = length;
+      this.lastAccess = lastAccess;
+    }
+  }
+
+}
@@ -60,6 +60,11 @@ public class OutputStreamLogger extends RuleLogger {
     }
   }
 
+  @Override
+  public boolean isLogging(Level logLevel) {
+    return logLevel.intValue() >= level.intValue();
+  }
+
   public Level getLevel() {
     return level;
   }
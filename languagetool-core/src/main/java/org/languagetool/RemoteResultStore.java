@@ -0,0 +1,48 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A key/value store shared by several {@link ResultCache}s, e.g. the caches of all servers behind a
+ * load balancer, so that a sentence that has been checked on one server is a cache hit on the others.
+ * Keys are hex strings derived from the text and the check settings, values are serialized rule matches.
+ * Implementations must be thread-safe and should not block for long, as they are used while checking.
+ * @since 4.7
+ */
+@Experimental
+public interface RemoteResultStore {
+
+  /**
+   * @return the value stored for {@code key}, or {@code null} if there is none or it has expired
+   */
+  @Nullable
+  byte[] get(String key);
+
+  /**
+   * Store {@code value} for {@code key}, replacing any old value. Errors should be logged and ignored,
+   * as the value can always be computed again.
+   * @param expireAfter the time after which the value isn't needed anymore
+   */
+  void put(String key, byte[] value, long expireAfter, TimeUnit timeUnit);
+
+}
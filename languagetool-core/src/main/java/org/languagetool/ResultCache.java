@@ -21,10 +21,17 @@ package org.languagetool;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.Weigher;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 /**
  * A cache to speed up text checking for use cases where sentences are checked more than once. This
@@ -35,12 +42,26 @@ import java.util.concurrent.TimeUnit;
  * Using a cache with bitext rules isn't supported either.
  * It is okay however, to use the same cache for {@link JLanguageTool} objects with different languages, as
  * cached results are not used for a different language.
+ * <p>Optionally, a {@link RemoteResultStore} can be used as a second tier that's shared with other
+ * processes: matches are written to both tiers, and sentences not found in this cache are looked up
+ * in the remote store.
  * @since 3.7
  */
 public class ResultCache {
 
-  private final Cache<InputSentence, List<RuleMatch>> matchesCache;
+  private static final Logger logger = LoggerFactory.getLogger(ResultCache.class);
+
+  // the memory budget of the matches cache per sentence of the maxSize given by the user, in bytes:
+  static final long BYTES_PER_SENTENCE = 1_000;
+  // rough memory usage of a cache key and a cache entry without the sentence text and the matches, in bytes:
+  private static final int ENTRY_BYTES = 200;
+
+  private final Cache<InputSentence, List<CachedRuleMatch>> matchesCache;
   private final Cache<SimpleInputSentence, AnalyzedSentence> sentenceCache;
+  private final RemoteResultStore remoteStore;
+  private final long expireAfterMillis;
+  private final LongAdder remoteHitCount = new LongAdder();
+  private final LongAdder remoteMissCount = new LongAdder();
 
   /**
    * Create a cache that expires items 5 minutes after the latest read access.
@@ -51,15 +72,28 @@ public class ResultCache {
   }
 
   /**
-   * @param maxSize maximum cache size in number of sentences
+   * @param maxSize maximum cache size in number of sentences, the memory used for the cached matches
+   *                is limited to about {@code maxSize/2} average sentences, estimated as 1,000 bytes each
    * @param expireAfter time to expire sentences from the cache after last read access 
    */
   public ResultCache(long maxSize, long expireAfter, TimeUnit timeUnit) {
+    this(maxSize, expireAfter, timeUnit, null);
+  }
+
+  /**
+   * @param maxSize maximum cache size in number of sentences, see {@link #ResultCache(long, long, TimeUnit)}
+   * @param expireAfter time to expire sentences from the cache after last read access, also used as
+   *                    the expiry time of the matches put into {@code remoteStore}
+   * @param remoteStore a store shared with other caches, {@code null} to only use this cache
+   * @since 4.7
+   */
+  @Experimental
+  public ResultCache(long maxSize, long expireAfter, TimeUnit timeUnit, @Nullable RemoteResultStore remoteStore) {
     if (maxSize < 0) {
       throw new IllegalArgumentException("Result cache size must be >= 0: " + maxSize);
     }
     matchesCache = CacheBuilder.newBuilder().
-            maximumWeight(maxSize/2).weigher(new MatchesWeigher()).
+            maximumWeight(maxSize/2 * BYTES_PER_SENTENCE).weigher(new MatchesWeigher()).
             recordStats().
             expireAfterAccess(expireAfter, timeUnit).
             build();
@@ -68,14 +102,20 @@ public class ResultCache {
             recordStats().
             expireAfterAccess(expireAfter, timeUnit).
             build();
+    this.remoteStore = remoteStore;
+    this.expireAfterMillis = timeUnit.toMillis(expireAfter);
   }
   
-  class MatchesWeigher implements Weigher<InputSentence, List<RuleMatch>> {
+  static class MatchesWeigher implements Weigher<InputSentence, List<CachedRuleMatch>> {
     @Override
-    public int weigh(InputSentence sentence, List<RuleMatch> matches) {
-      // this is just a rough guesstimate so that the cacheSize given by the user
-      // is very roughly the number of average sentences the cache can keep:
-      return sentence.getText().length() / 75 + matches.size();
+    public int weigh(InputSentence sentence, List<CachedRuleMatch> matches) {
+      // estimated bytes, so that the cacheSize given by the user is very roughly the number
+      // of average sentences the cache can keep, no matter how many matches they have:
+      int bytes = ENTRY_BYTES + CachedRuleMatch.getEstimatedBytes(sentence.getText());
+      for (CachedRuleMatch match : matches) {
+        bytes += match.getEstimatedBytes();
+      }
+      return bytes;
     }
   }
   
@@ -98,24 +138,118 @@ public class ResultCache {
     return matchesCache.stats().hitCount() + sentenceCache.stats().hitCount();
   }
 
+  /**
+   * @return the cached matches, without a sentence (see {@link RuleMatch#getSentence()}), or {@code null}
+   */
   public List<RuleMatch> getIfPresent(InputSentence key) {
-    return matchesCache.getIfPresent(key);
+    return getIfPresent(key, null);
+  }
+
+  /**
+   * Note that the remote store (if any) isn't used by this method, as it needs to know the rules
+   * that the matches refer to, which {@link JLanguageTool} provides when checking.
+   * @param sentence the analyzed sentence of {@code key}, will be set as the sentence of the cached matches
+   * @return the cached matches or {@code null}
+   * @since 4.7
+   */
+  public List<RuleMatch> getIfPresent(InputSentence key, @Nullable AnalyzedSentence sentence) {
+    return getIfPresent(key, sentence, null);
+  }
+
+  /**
+   * @param rules the rules used for checking, by rule id as in {@link CachedRuleMatch#getRuleId(Rule)},
+   *              needed to read matches from the remote store
+   */
+  @Nullable
+  List<RuleMatch> getIfPresent(InputSentence key, @Nullable AnalyzedSentence sentence, @Nullable Function<String, Rule> rules) {
+    List<RuleMatch> matches = getLocal(key, sentence, rules);
+    if (matches == null && remoteStore != null && rules != null) {
+      matches = getRemote(key, sentence, rules);
+    }
+    return matches;
+  }
+
+  @Nullable
+  List<RuleMatch> getLocal(InputSentence key, @Nullable AnalyzedSentence sentence, @Nullable Function<String, Rule> rules) {
+    List<CachedRuleMatch> cachedMatches = matchesCache.getIfPresent(key);
+    return cachedMatches != null ? toRuleMatches(cachedMatches, sentence) : null;
+  }
+
+  @Nullable
+  private List<RuleMatch> getRemote(InputSentence key, @Nullable AnalyzedSentence sentence, Function<String, Rule> rules) {
+    List<CachedRuleMatch> cachedMatches = null;
+    byte[] bytes = remoteStore.get(key.getStableKey());
+    if (bytes != null) {
+      try {
+        cachedMatches = CachedRuleMatch.deserialize(bytes, rules);
+      } catch (RuntimeException e) {
+        logger.warn("Ignoring invalid matches from remote store for sentence: " + key, e);
+      }
+    }
+    if (cachedMatches == null) {
+      remoteMissCount.increment();
+      return null;
+    }
+    remoteHitCount.increment();
+    List<RuleMatch> matches = toRuleMatches(cachedMatches, sentence);
+    putLocal(key, matches);
+    return matches;
+  }
+
+  static List<RuleMatch> toRuleMatches(List<CachedRuleMatch> cachedMatches, @Nullable AnalyzedSentence sentence) {
+    List<RuleMatch> matches = new ArrayList<>(cachedMatches.size());
+    for (CachedRuleMatch cachedMatch : cachedMatches) {
+      matches.add(cachedMatch.toRuleMatch(sentence));
+    }
+    return matches;
+  }
+
+  /**
+   * @return how often matches not found in this cache have been found in the remote store
+   * @since 4.7
+   */
+  public long getRemoteHitCount() {
+    return remoteHitCount.sum();
+  }
+
+  /**
+   * @return how often matches have been found neither in this cache nor in the remote store
+   * @since 4.7
+   */
+  public long getRemoteMissCount() {
+    return remoteMissCount.sum();
   }
 
   public AnalyzedSentence getIfPresent(SimpleInputSentence key) {
     return sentenceCache.getIfPresent(key);
   }
 
+  /**
+   * Cache the matches of a sentence, also in the remote store if there is one. The matches' references
+   * to their {@link AnalyzedSentence} are not kept, so that cached matches don't keep their sentence's
+   * tokens in memory.
+   */
   public void put(InputSentence key, List<RuleMatch> sentenceMatches) {
-    matchesCache.put(key, sentenceMatches);
+    putLocal(key, sentenceMatches);
+    if (remoteStore != null) {
+      remoteStore.put(key.getStableKey(), CachedRuleMatch.serialize(sentenceMatches), expireAfterMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  void putLocal(InputSentence key, List<RuleMatch> sentenceMatches) {
+    List<CachedRuleMatch> cachedMatches = new ArrayList<>(sentenceMatches.size());
+    for (RuleMatch match : sentenceMatches) {
+      cachedMatches.add(new CachedRuleMatch(match));
+    }
+    matchesCache.put(key, cachedMatches);
   }
 
   public void put(SimpleInputSentence key, AnalyzedSentence aSentence) {
     sentenceCache.put(key, aSentence);
   }
 
-  /** @since 4.1 */
-  public Cache<InputSentence, List<RuleMatch>> getMatchesCache() {
+  /** @since 4.1, the type of the values changed in 4.7 */
+  public Cache<InputSentence, List<CachedRuleMatch>> getMatchesCache() {
     return matchesCache;
   }
 
@@ -24,9 +24,9 @@ public class RuleCheckTimeMessage extends RuleLoggerMessage {
   private final long executionTime;
   private final int textSize;
 
-  RuleCheckTimeMessage(String ruleId, String language, long startTime, int textSize) {
+  RuleCheckTimeMessage(String ruleId, String language, long executionTime, int textSize) {
     super(ruleId, language, "");
-    executionTime = System.currentTimeMillis() - startTime;
+    this.executionTime = executionTime;
     this.textSize = textSize;
     setMessage("Rule checked " + textSize + " chars in " + executionTime + " ms (" + ((float) textSize / executionTime) + " chars/ms)");
   }
@@ -33,6 +33,14 @@ public abstract class RuleLogger {
 
   public abstract void log(RuleLoggerMessage message, Level level);
 
+  /**
+   * Whether this logger may log messages with the given level.
+   * @since 4.7
+   */
+  public boolean isLogging(Level level) {
+    return true;
+  }
+
   public boolean filter(RuleLoggerMessage message) {
     return filters.stream().allMatch(filter -> filter.test(message));
   }
@@ -61,6 +61,15 @@ public final class RuleLoggerManager {
     log(message, Level.INFO);
   }
 
+  /**
+   * Whether a message with the given level would be passed to any logger. Use this
+   * to avoid creating messages that no one is going to see.
+   * @since 4.7
+   */
+  public boolean isLogging(Level logLevel) {
+    return logLevel.intValue() >= level.intValue() && loggerList.stream().anyMatch(logger -> logger.isLogging(logLevel));
+  }
+
   public void log(RuleLoggerMessage message, Level logLevel) {
     if (logLevel.intValue() >= level.intValue()) {
       loggerList.stream()
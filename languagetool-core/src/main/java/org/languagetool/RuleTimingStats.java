@@ -0,0 +1,162 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograms of the time rules take to check a sentence (or a text, for
+ * {@link org.languagetool.rules.TextLevelRule}s), per language and rule id. Only one
+ * in {@link #getSampleInterval()} rule checks is timed, so the histograms show the
+ * distribution of check times, not the number of checks. Disabled by default, in which case
+ * the cost for checking is a single field read per sentence.
+ * @since 4.7
+ */
+@Experimental
+public final class RuleTimingStats {
+
+  /** Upper bounds of the histogram buckets, in nanoseconds. The last bucket has no upper bound. */
+  private static final long[] BUCKET_BOUNDS = {
+    10_000, 50_000, 100_000, 500_000, 1_000_000, 5_000_000, 10_000_000, 50_000_000, 100_000_000, 500_000_000, 1_000_000_000
+  };
+
+  private static final ConcurrentMap<String, ConcurrentMap<String, Histogram>> histograms = new ConcurrentHashMap<>();
+
+  private static volatile int sampleInterval = 0;
+
+  private RuleTimingStats() {
+  }
+
+  /**
+   * @return {@code n} if one in {@code n} rule checks is timed, {@code 0} if timing is disabled
+   */
+  public static int getSampleInterval() {
+    return sampleInterval;
+  }
+
+  /**
+   * Time one in {@code sampleInterval} rule checks, use {@code 0} to disable timing.
+   */
+  public static void setSampleInterval(int sampleInterval) {
+    if (sampleInterval < 0) {
+      throw new IllegalArgumentException("sampleInterval must be >= 0: " + sampleInterval);
+    }
+    RuleTimingStats.sampleInterval = sampleInterval;
+  }
+
+  /**
+   * @param sampleInterval the value of {@link #getSampleInterval()}, read once by the caller
+   * @return whether the next rule check should be timed
+   */
+  static boolean shouldSample(int sampleInterval) {
+    return sampleInterval == 1 || sampleInterval > 1 && ThreadLocalRandom.current().nextInt(sampleInterval) == 0;
+  }
+
+  static void record(String language, String ruleId, long nanos) {
+    histograms.computeIfAbsent(language, k -> new ConcurrentHashMap<>())
+              .computeIfAbsent(ruleId, k -> new Histogram(language, ruleId))
+              .record(nanos);
+  }
+
+  /**
+   * @return the upper bounds of the buckets of each {@link Histogram}, in nanoseconds
+   */
+  public static long[] getBucketBounds() {
+    return BUCKET_BOUNDS.clone();
+  }
+
+  /**
+   * @return the histograms of all rules that have been timed so far
+   */
+  public static List<Histogram> getHistograms() {
+    List<Histogram> result = new ArrayList<>();
+    for (ConcurrentMap<String, Histogram> languageHistograms : histograms.values()) {
+      result.addAll(languageHistograms.values());
+    }
+    return result;
+  }
+
+  /**
+   * Remove all histograms.
+   */
+  public static void reset() {
+    histograms.clear();
+  }
+
+  /**
+   * Check times of one rule. The counts are updated without locking, so a reader may see
+   * a sample in the count before it appears in the sum or vice versa.
+   */
+  public static final class Histogram {
+
+    private final String language;
+    private final String ruleId;
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    private Histogram(String language, String ruleId) {
+      this.language = language;
+      this.ruleId = ruleId;
+      for (int i = 0; i < buckets.length; i++) {
+        buckets[i] = new LongAdder();
+      }
+    }
+
+    private void record(long nanos) {
+      int i = 0;
+      while (i < BUCKET_BOUNDS.length && nanos > BUCKET_BOUNDS[i]) {
+        i++;
+      }
+      buckets[i].increment();
+      sumNanos.add(nanos);
+    }
+
+    /**
+     * @return the language as in {@link Language#getShortCodeWithCountryAndVariant()}
+     */
+    public String getLanguage() {
+      return language;
+    }
+
+    public String getRuleId() {
+      return ruleId;
+    }
+
+    /**
+     * @return the number of samples in each bucket (not cumulative), see {@link #getBucketBounds()}
+     */
+    public long[] getBucketCounts() {
+      long[] counts = new long[buckets.length];
+      for (int i = 0; i < buckets.length; i++) {
+        counts[i] = buckets[i].sum();
+      }
+      return counts;
+    }
+
+    public long getSumNanos() {
+      return sumNanos.sum();
+    }
+  }
+
+}
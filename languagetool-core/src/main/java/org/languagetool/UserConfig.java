@@ -18,6 +18,9 @@
  */
 package org.languagetool;
 
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
@@ -26,6 +29,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 
 /**
  * User-specific configuration. So far, this contains a list of words and a settings map.
@@ -41,12 +45,18 @@ public class UserConfig {
   private final LinguServices linguServices;
   // needs to be in UserConfig so it is considered both in ResultCache and in PipelinePool
   private final boolean filterDictionaryMatches;
+  // the same, spelling matches without suggestions must not be returned for a request that wants them
+  private final boolean deferSpellingSuggestions;
 
   // partially indifferent for comparing UserConfigs (e.g. in PipelinePool)
   // provided to rules only for A/B tests ->
   private long textSessionId;
   private String abTest;
 
+  // hash of userSpecificSpellerWords for InputSentence.getStableKey(), computed once per word list:
+  private volatile List<String> hashedWords;
+  private volatile HashCode wordsHash;
+
   public UserConfig() {
     this(new ArrayList<>(), new HashMap<>());
   }
@@ -81,6 +91,17 @@ public class UserConfig {
   public UserConfig(List<String> userSpecificSpellerWords, Map<String, Integer> ruleValues,
                     int maxSpellingSuggestions, String userDictName,
                     LinguServices linguServices, boolean filterDictionaryMatches) {
+    this(userSpecificSpellerWords, ruleValues, maxSpellingSuggestions, userDictName, linguServices, filterDictionaryMatches, false);
+  }
+
+  /**
+   * @param deferSpellingSuggestions if true, spelling rules don't compute suggestions for misspelled words,
+   *                                 as the caller will ask for them separately if needed
+   * @since 4.7
+   */
+  public UserConfig(List<String> userSpecificSpellerWords, Map<String, Integer> ruleValues,
+                    int maxSpellingSuggestions, String userDictName,
+                    LinguServices linguServices, boolean filterDictionaryMatches, boolean deferSpellingSuggestions) {
     this.userSpecificSpellerWords = Objects.requireNonNull(userSpecificSpellerWords);
     for (Map.Entry<String, Integer> entry : ruleValues.entrySet()) {
       this.configurableRuleValues.put(entry.getKey(), entry.getValue());
@@ -89,6 +110,7 @@ public class UserConfig {
     this.userDictName = userDictName == null ? "default" : userDictName;
     this.linguServices = linguServices;
     this.filterDictionaryMatches = filterDictionaryMatches;
+    this.deferSpellingSuggestions = deferSpellingSuggestions;
   }
 
   public List<String> getAcceptedWords() {
@@ -131,6 +153,35 @@ public class UserConfig {
     return userDictName;
   }
 
+  /**
+   * Add everything {@link #equals(Object)} compares to {@code hasher}.
+   * @since 4.7
+   */
+  void putSettings(Hasher hasher) {
+    List<String> words = userSpecificSpellerWords;
+    HashCode wordsHash = this.wordsHash;
+    if (hashedWords != words || wordsHash == null) {
+      Hasher wordsHasher = Hashing.sha256().newHasher();
+      for (String word : words) {
+        InputSentence.putString(wordsHasher, word);
+      }
+      wordsHash = wordsHasher.hash();
+      this.wordsHash = wordsHash;
+      hashedWords = words;
+    }
+    hasher.putBytes(wordsHash.asBytes());
+    hasher.putInt(maxSpellingSuggestions);
+    for (Map.Entry<String, Integer> entry : new TreeMap<>(configurableRuleValues).entrySet()) {
+      InputSentence.putString(hasher, entry.getKey());
+      hasher.putInt(entry.getValue());
+    }
+    InputSentence.putString(hasher, userDictName);
+    hasher.putBoolean(filterDictionaryMatches);
+    hasher.putBoolean(deferSpellingSuggestions);
+    InputSentence.putString(hasher, abTest);
+    hasher.putLong(textSessionId % 2);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -144,6 +195,7 @@ public class UserConfig {
       .append(userDictName, other.userDictName)
       .append(userSpecificSpellerWords, other.userSpecificSpellerWords)
       .append(filterDictionaryMatches, other.filterDictionaryMatches)
+      .append(deferSpellingSuggestions, other.deferSpellingSuggestions)
       // omitting these distorts A/B tests, as UserConfig is cached by the pipeline pool
       // -> (cached) textSessionId on server may say group A, but ID on client (relevant for saved correction) says B
       // only group must match; keeps hit rate of pipeline cache up
@@ -160,6 +212,7 @@ public class UserConfig {
       .append(userDictName)
       .append(configurableRuleValues)
       .append(filterDictionaryMatches)
+      .append(deferSpellingSuggestions)
       // skipping abTest and textSessionId on purpose - not relevant for caching
       .toHashCode();
   }
@@ -183,4 +236,11 @@ public class UserConfig {
   public boolean filterDictionaryMatches() {
     return filterDictionaryMatches;
   }
+
+  /**
+   * @since 4.7
+   */
+  public boolean deferSpellingSuggestions() {
+    return deferSpellingSuggestions;
+  }
 }
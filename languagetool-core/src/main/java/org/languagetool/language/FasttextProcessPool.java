@@ -0,0 +1,239 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.language;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed number of external fastText processes that answer one line of input with one line
+ * of output each. Requests go to the least busy running process, processes that die or fail
+ * are restarted in the background.
+ * @since 4.7
+ */
+class FasttextProcessPool {
+
+  private static final Logger logger = LoggerFactory.getLogger(FasttextProcessPool.class);
+  private static final long HEALTH_CHECK_INTERVAL_MILLIS = 5_000;
+  // don't try to restart a process more often than this, starting fastText means loading its model:
+  private static final long RESTART_BACKOFF_MILLIS = 10_000;
+
+  private final List<String> command;
+  private final FasttextProcess[] processes;
+  private final AtomicInteger nextIndex = new AtomicInteger();
+  private final ScheduledExecutorService healthChecker;
+
+  /**
+   * @param command the command that starts one process, e.g. {@code fasttext predict-prob model.bin - 5}
+   * @param size number of processes to start
+   * @throws IOException if one of the processes cannot be started
+   */
+  FasttextProcessPool(List<String> command, int size) throws IOException {
+    if (size < 1) {
+      throw new IllegalArgumentException("Number of fasttext processes must be >= 1: " + size);
+    }
+    this.command = Objects.requireNonNull(command);
+    this.processes = new FasttextProcess[size];
+    try {
+      for (int i = 0; i < size; i++) {
+        processes[i] = new FasttextProcess(i);
+        processes[i].start();
+      }
+    } catch (IOException e) {
+      destroyProcesses();
+      throw e;
+    }
+    healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "lt-fasttext-health-check");
+      thread.setDaemon(true);
+      return thread;
+    });
+    healthChecker.scheduleWithFixedDelay(this::checkHealth, HEALTH_CHECK_INTERVAL_MILLIS, HEALTH_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Send one line to a process and return its answer.
+   * @throws IOException if no process is running or the process failed (it will then be restarted in the background)
+   */
+  String predict(String line) throws IOException {
+    FasttextProcess process = getLeastBusyProcess();
+    if (process == null) {
+      throw new IOException("No fasttext process running");
+    }
+    try {
+      return process.predict(line);
+    } catch (IOException e) {
+      healthChecker.execute(this::checkHealth);
+      throw e;
+    }
+  }
+
+  boolean hasRunningProcess() {
+    for (FasttextProcess process : processes) {
+      if (process.isRunning()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  List<FasttextStats> getStats() {
+    List<FasttextStats> stats = new ArrayList<>(processes.length);
+    for (FasttextProcess process : processes) {
+      stats.add(process.getStats());
+    }
+    return stats;
+  }
+
+  void destroy() {
+    healthChecker.shutdownNow();
+    destroyProcesses();
+  }
+
+  private void destroyProcesses() {
+    for (FasttextProcess process : processes) {
+      if (process != null) {
+        process.stop();
+      }
+    }
+  }
+
+  private FasttextProcess getLeastBusyProcess() {
+    // start at a rotating offset so that idle processes are used round-robin:
+    int offset = Math.floorMod(nextIndex.getAndIncrement(), processes.length);
+    FasttextProcess best = null;
+    int bestPending = Integer.MAX_VALUE;
+    for (int i = 0; i < processes.length; i++) {
+      FasttextProcess process = processes[(offset + i) % processes.length];
+      if (process.isRunning()) {
+        int pending = process.pending.get();
+        if (pending == 0) {
+          return process;
+        }
+        if (pending < bestPending) {
+          best = process;
+          bestPending = pending;
+        }
+      }
+    }
+    return best;
+  }
+
+  private void checkHealth() {
+    for (FasttextProcess process : processes) {
+      if (!process.isRunning() && System.currentTimeMillis() - process.lastStartAttempt >= RESTART_BACKOFF_MILLIS) {
+        try {
+          process.restart();
+          logger.info("Restarted fasttext process #" + process.index);
+        } catch (IOException e) {
+          logger.warn("Could not restart fasttext process #" + process.index + ", will try again later", e);
+        }
+      }
+    }
+  }
+
+  private class FasttextProcess {
+
+    private final int index;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong restarts = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+
+    private Process process;
+    private BufferedReader in;
+    private BufferedWriter out;
+    private volatile boolean running;
+    private volatile long lastStartAttempt;
+
+    FasttextProcess(int index) {
+      this.index = index;
+    }
+
+    synchronized void start() throws IOException {
+      lastStartAttempt = System.currentTimeMillis();
+      process = new ProcessBuilder(command).start();
+      in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+      out = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+      running = true;
+    }
+
+    synchronized void restart() throws IOException {
+      stop();
+      restarts.incrementAndGet();
+      start();
+    }
+
+    synchronized void stop() {
+      running = false;
+      if (process != null) {
+        process.destroy();
+      }
+    }
+
+    boolean isRunning() {
+      return running && process.isAlive();
+    }
+
+    String predict(String line) throws IOException {
+      pending.incrementAndGet();
+      long startTime = System.nanoTime();
+      try {
+        String result;
+        synchronized (this) {
+          if (!running) {
+            throw new IOException("fasttext process #" + index + " is not running");
+          }
+          out.write(line);
+          out.newLine();
+          out.flush();
+          result = in.readLine();
+        }
+        if (result == null) {
+          throw new IOException("fasttext process #" + index + " closed its output");
+        }
+        requests.incrementAndGet();
+        totalLatencyNanos.addAndGet(System.nanoTime() - startTime);
+        return result;
+      } catch (IOException e) {
+        failures.incrementAndGet();
+        stop();
+        throw e;
+      } finally {
+        pending.decrementAndGet();
+      }
+    }
+
+    FasttextStats getStats() {
+      return new FasttextStats(index, isRunning(), pending.get(), requests.get(), failures.get(), restarts.get(), totalLatencyNanos.get());
+    }
+  }
+}
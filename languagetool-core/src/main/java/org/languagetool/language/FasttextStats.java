@@ -0,0 +1,87 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.language;
+
+import org.languagetool.Experimental;
+
+/**
+ * Snapshot of the usage statistics of one fastText process used by {@link LanguageIdentifier}.
+ * @since 4.7
+ */
+@Experimental
+public class FasttextStats {
+
+  private final int processIndex;
+  private final boolean alive;
+  private final int pendingRequests;
+  private final long requests;
+  private final long failures;
+  private final long restarts;
+  private final long totalLatencyNanos;
+
+  FasttextStats(int processIndex, boolean alive, int pendingRequests, long requests, long failures, long restarts, long totalLatencyNanos) {
+    this.processIndex = processIndex;
+    this.alive = alive;
+    this.pendingRequests = pendingRequests;
+    this.requests = requests;
+    this.failures = failures;
+    this.restarts = restarts;
+    this.totalLatencyNanos = totalLatencyNanos;
+  }
+
+  /** Index of the process in the pool, starting at 0. */
+  public int getProcessIndex() {
+    return processIndex;
+  }
+
+  /** Whether the process is running and can serve requests. */
+  public boolean isAlive() {
+    return alive;
+  }
+
+  /** Number of requests waiting for or being served by this process. */
+  public int getPendingRequests() {
+    return pendingRequests;
+  }
+
+  /** Number of successfully answered requests. */
+  public long getRequests() {
+    return requests;
+  }
+
+  public long getFailures() {
+    return failures;
+  }
+
+  public long getRestarts() {
+    return restarts;
+  }
+
+  /** Sum of the latencies of all successful requests, including the time spent waiting for the process. */
+  public long getTotalLatencyNanos() {
+    return totalLatencyNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "fasttext#" + processIndex + "[alive=" + alive + ", pending=" + pendingRequests + ", requests=" + requests +
+      ", failures=" + failures + ", restarts=" + restarts + ", avgLatencyMillis=" +
+      (requests > 0 ? totalLatencyNanos / requests / 1_000_000.0 : 0) + "]";
+  }
+}
@@ -31,7 +31,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.regex.Pattern;
@@ -72,10 +71,8 @@ public class LanguageIdentifier {
   private final TextObjectFactory textObjectFactory;
   private final int maxLength;
 
-  private boolean fasttextEnabled = false;
-  private Process fasttextProcess;
-  private BufferedReader fasttextIn;
-  private BufferedWriter fasttextOut;
+  private volatile boolean fasttextEnabled = false;
+  private FasttextProcessPool fasttextPool;
 
   public LanguageIdentifier() {
     this(1000);
@@ -112,10 +109,18 @@ public class LanguageIdentifier {
   }
 
   public void enableFasttext(File fasttextBinary, File fasttextModel) {
+    enableFasttext(fasttextBinary, fasttextModel, 1);
+  }
+
+  /**
+   * @param processes number of fasttext processes to start, requests are sent to the least busy one
+   * @since 4.7
+   */
+  public void enableFasttext(File fasttextBinary, File fasttextModel, int processes) {
     if (fasttextBinary != null && fasttextModel != null) {
       try {
-        startFasttext(fasttextModel, fasttextBinary);
-        logger.info("Started fasttext process for language identification: Binary " + fasttextBinary + " with model @ " + fasttextModel);
+        startFasttext(fasttextModel, fasttextBinary, processes);
+        logger.info("Started " + processes + " fasttext process(es) for language identification: Binary " + fasttextBinary + " with model @ " + fasttextModel);
         fasttextEnabled = true;
       } catch (IOException e) {
         fasttextEnabled = false;
@@ -202,7 +207,8 @@ public class LanguageIdentifier {
     shortText = textObjectFactory.forText(shortText).toString();
     shortText = shortText.replaceAll("\uFEFF+", " ");  // used by the browser add-on to filter HTML etc. (_ignoreText() in validator.js)
     Map.Entry<String,Double> result = null;
-    if (fasttextEnabled) {
+    boolean usedFasttext = false;
+    if (fasttextEnabled && fasttextPool.hasRunningProcess()) {
       try {
         Map<String, Double> scores = runFasttext(shortText, noopLangs);
         result = getHighestScoringResult(scores);
@@ -235,15 +241,15 @@ public class LanguageIdentifier {
         //System.out.println("fasttext  : " + result);
         //System.out.println("newScore  : " + newScore);
         result = new AbstractMap.SimpleImmutableEntry<>(result.getKey(), newScore);
+        usedFasttext = true;
       } catch (Exception e) {
-        fasttextEnabled = false;
+        // the failed process gets restarted by the pool, use the n-gram detector for this text:
         RuleLoggerMessage msg = new RuleErrorNotification(this.getClass().getSimpleName(), "-",
-          String.format("Fasttext disabled, failed on '%s': %s", text, ExceptionUtils.getStackTrace(e)));
+          String.format("Fasttext failed on '%s', falling back to n-gram detection: %s", text, ExceptionUtils.getStackTrace(e)));
         RuleLoggerManager.getInstance().log(msg, Level.WARNING);
-        fasttextProcess.destroy();
       }
     }
-    if (!fasttextEnabled) { // no else, value can change in if clause
+    if (!usedFasttext) {
       result = detectLanguageCode(shortText);
       if (noopLangs.size() > 0) {
         logger.warn("Cannot consider noopLanguages because not in fastText mode: " + noopLangs);
@@ -262,10 +268,20 @@ public class LanguageIdentifier {
     return Languages.isLanguageSupported(langCode) || additionalLanguageCodes.contains(langCode);
   }
 
-  private void startFasttext(File modelPath, File binaryPath) throws IOException {
-    fasttextProcess = new ProcessBuilder(binaryPath.getPath(), "predict-prob", modelPath.getPath(), "-", "" + K_HIGHEST_SCORES).start();
-    fasttextIn = new BufferedReader(new InputStreamReader(fasttextProcess.getInputStream(), StandardCharsets.UTF_8));
-    fasttextOut = new BufferedWriter(new OutputStreamWriter(fasttextProcess.getOutputStream(), StandardCharsets.UTF_8));
+  private void startFasttext(File modelPath, File binaryPath, int processes) throws IOException {
+    if (fasttextPool != null) {
+      fasttextPool.destroy();
+    }
+    fasttextPool = new FasttextProcessPool(Arrays.asList(binaryPath.getPath(), "predict-prob", modelPath.getPath(), "-", "" + K_HIGHEST_SCORES), processes);
+  }
+
+  /**
+   * Usage statistics of the fasttext processes, empty if fasttext is not enabled.
+   * @since 4.7
+   */
+  @Experimental
+  public List<FasttextStats> getFasttextStats() {
+    return fasttextEnabled ? fasttextPool.getStats() : Collections.emptyList();
   }
 
   private Map.Entry<String, Double> getHighestScoringResult(Map<String, Double> probs) {
@@ -283,13 +299,7 @@ public class LanguageIdentifier {
   private Map<String, Double> runFasttext(String text, List<String> additionalLanguageCodes) throws IOException {
     Map<String, Double> probabilities = new HashMap<>();
     String joined = text.replace("\n", " ");
-    String buffer;
-    synchronized(this) {
-      fasttextOut.write(joined);
-      fasttextOut.newLine();
-      fasttextOut.flush();
-      buffer = fasttextIn.readLine();
-    }
+    String buffer = fasttextPool.predict(joined);
     String[] values = buffer.split(" ");
     if (values.length % 2 != 0) {
       throw new RuntimeException("Error while parsing fasttext output: " + buffer);
@@ -20,6 +20,7 @@ package org.languagetool.markup;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -42,13 +43,25 @@ public class AnnotatedText {
   }
 
   private final List<TextPart> parts;
-  private final Map<Integer,Integer> mapping;  // plain text position to original text (with markup) position
+  // plain text position to original text (with markup) position, both sorted ascending,
+  // plainPositions without duplicates:
+  private final int[] plainPositions;
+  private final int[] originalPositions;
   private final Map<MetaDataKey, String> metaData;
   private final Map<String, String> customMetaData;
 
-  AnnotatedText(List<TextPart> parts, Map<Integer, Integer> mapping, Map<MetaDataKey, String> metaData, Map<String, String> customMetaData) {
+  // index of the last mapping entry found, lookups usually come in text order so this
+  // lets us avoid the binary search most of the time (a stale value is harmless):
+  private int lastIndex;
+
+  AnnotatedText(List<TextPart> parts, int[] plainPositions, int[] originalPositions, Map<MetaDataKey, String> metaData, Map<String, String> customMetaData) {
     this.parts = Objects.requireNonNull(parts);
-    this.mapping = Objects.requireNonNull(mapping);
+    this.plainPositions = Objects.requireNonNull(plainPositions);
+    this.originalPositions = Objects.requireNonNull(originalPositions);
+    if (plainPositions.length != originalPositions.length || plainPositions.length == 0) {
+      throw new IllegalArgumentException("Position arrays must be non-empty and of the same length: " +
+              plainPositions.length + ", " + originalPositions.length);
+    }
     this.metaData = Objects.requireNonNull(metaData);
     this.customMetaData = Objects.requireNonNull(customMetaData);
   }
@@ -103,29 +116,38 @@ public class AnnotatedText {
     if (plainTextPosition < 0) {
       throw new IllegalArgumentException("plainTextPosition must be >= 0: " + plainTextPosition);
     }
-    Integer origPosition = mapping.get(plainTextPosition);
-    if (origPosition != null) {
-      return origPosition;
+    int idx = findClosestLowerIndex(plainTextPosition);
+    if (idx < 0) {
+      throw new RuntimeException("Could not map " + plainTextPosition + " to original position");
     }
-    int minDiff = Integer.MAX_VALUE;
-    Integer bestMatch = null;
-    // algorithm: find the closest lower position
-    for (Map.Entry<Integer, Integer> entry : mapping.entrySet()) {
-      int maybeClosePosition = entry.getKey();
-      if (plainTextPosition > maybeClosePosition) {
-        int diff = plainTextPosition - maybeClosePosition;
-        if (diff >= 0 && diff < minDiff) {
-          bestMatch = entry.getValue();
-          minDiff = diff;
-        }
+    // we assume that when we have found the closest match there's a one-to-one mapping
+    // in this region, thus we can add the difference to get the exact position:
+    return originalPositions[idx] + (plainTextPosition - plainPositions[idx]);
+  }
+
+  /**
+   * Index of the largest plain text position that is {@code <= plainTextPosition}, or -1.
+   */
+  private int findClosestLowerIndex(int plainTextPosition) {
+    int hint = lastIndex;
+    if (plainPositions[hint] <= plainTextPosition) {
+      // fast path for in-order lookups: same or next entry as the previous lookup
+      if (hint + 1 >= plainPositions.length || plainTextPosition < plainPositions[hint + 1]) {
+        return hint;
+      }
+      if (hint + 2 >= plainPositions.length || plainTextPosition < plainPositions[hint + 2]) {
+        lastIndex = hint + 1;
+        return hint + 1;
       }
     }
-    if (bestMatch == null) {
-      throw new RuntimeException("Could not map " + plainTextPosition + " to original position");
+    int idx = Arrays.binarySearch(plainPositions, plainTextPosition);
+    if (idx < 0) {
+      idx = -idx - 2;  // insertion point minus one = closest lower position
     }
-    // we assume that when we have found the closest match there's a one-to-one mapping
-    // in this region, thus we can add 'minDiff' to get the exact position:
-    return bestMatch + minDiff;
+    if (idx >= 0) {
+      lastIndex = idx;
+    }
+    return idx;
   }
 
   /**
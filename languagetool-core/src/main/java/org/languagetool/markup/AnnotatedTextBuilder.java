@@ -19,6 +19,7 @@
 package org.languagetool.markup;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -113,8 +114,10 @@ public class AnnotatedTextBuilder {
   public AnnotatedText build() {
     int plainTextPosition = 0;
     int totalPosition = 0;
-    Map<Integer,Integer> mapping = new HashMap<>();
-    mapping.put(0, 0);
+    // plain text positions only ever grow, so the arrays come out sorted:
+    int[] plainPositions = new int[parts.size() + 1];
+    int[] originalPositions = new int[parts.size() + 1];
+    int size = 1;  // position 0 maps to 0
     for (TextPart part : parts) {
       if (part.getType() == TextPart.Type.TEXT) {
         plainTextPosition += part.getPart().length();
@@ -124,9 +127,16 @@ public class AnnotatedTextBuilder {
       } else if (part.getType() == TextPart.Type.FAKE_CONTENT) {
         plainTextPosition += part.getPart().length();
       }
-      mapping.put(plainTextPosition, totalPosition);
+      if (plainPositions[size - 1] == plainTextPosition) {
+        // later parts win for the same plain text position (e.g. markup after text)
+        originalPositions[size - 1] = totalPosition;
+      } else {
+        plainPositions[size] = plainTextPosition;
+        originalPositions[size] = totalPosition;
+        size++;
+      }
     }
-    return new AnnotatedText(parts, mapping, metaData, customMetaData);
+    return new AnnotatedText(parts, Arrays.copyOf(plainPositions, size), Arrays.copyOf(originalPositions, size), metaData, customMetaData);
   }
   
 }
@@ -20,16 +20,13 @@ package org.languagetool.rules;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Queue;
 import java.util.ResourceBundle;
-import java.util.concurrent.ArrayBlockingQueue;
 
 import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
-import org.languagetool.AnalyzedToken;
 import org.languagetool.AnalyzedTokenReadings;
 import org.languagetool.JLanguageTool;
 import org.languagetool.tools.StringTools;
@@ -100,111 +97,122 @@ public abstract class AbstractCompoundRule extends Rule {
   @Override
   public RuleMatch[] match(AnalyzedSentence sentence) {
     List<RuleMatch> ruleMatches = new ArrayList<>();
-    AnalyzedTokenReadings[] tokens = getSentenceWithImmunization(sentence).getTokensWithoutWhitespace();
-
+    AnalyzedTokenReadings[] tokens = withoutImmunizedTokens(getSentenceWithImmunization(sentence).getTokensWithoutWhitespace());
+    PhraseTrie<String> trie = getCompoundRuleData().getIncorrectCompoundTrie();
     RuleMatch prevRuleMatch = null;
-    Queue<AnalyzedTokenReadings> prevTokens = new ArrayBlockingQueue<>(MAX_TERMS);
-    for (int i = 0; i < tokens.length + MAX_TERMS-1; i++) {
-      AnalyzedTokenReadings token;
-      // we need to extend the token list so we find matches at the end of the original list:
-      if (i >= tokens.length) {
-        token = new AnalyzedTokenReadings(new AnalyzedToken("", "", null), prevTokens.peek().getStartPos());
-      } else {
-        token = tokens[i];
-      }
-      if (i == 0) {
-        addToQueue(token, prevTokens);
-        continue;
-      } else if (token.isImmunized()) {
-        continue;
-      }
-
-      AnalyzedTokenReadings firstMatchToken = prevTokens.peek();
-      List<String> stringsToCheck = new ArrayList<>();
-      List<String> origStringsToCheck = new ArrayList<>();    // original upper/lowercase spelling
-      Map<String, AnalyzedTokenReadings> stringToToken =
-              getStringToTokenMap(prevTokens, stringsToCheck, origStringsToCheck);
-      // iterate backwards over all potentially incorrect strings to make
-      // sure we match longer strings first:
-      for (int k = stringsToCheck.size()-1; k >= 0; k--) {
-        String stringToCheck = stringsToCheck.get(k);
-        String origStringToCheck = origStringsToCheck.get(k);
-        if (getCompoundRuleData().getIncorrectCompounds().contains(stringToCheck)) {
-          AnalyzedTokenReadings atr = stringToToken.get(stringToCheck);
-          String msg = null;
-          List<String> replacement = new ArrayList<>();
-          if (!getCompoundRuleData().getNoDashSuggestion().contains(stringToCheck)) {
-            replacement.add(origStringToCheck.replace(' ', '-'));
-            msg = withHyphenMessage;
-          }
-          if (isNotAllUppercase(origStringToCheck) && !getCompoundRuleData().getOnlyDashSuggestion().contains(stringToCheck)) {
-            replacement.add(mergeCompound(origStringToCheck, getCompoundRuleData().getNoDashLowerCaseSuggestion().stream().anyMatch(s -> origStringsToCheck.contains(s))));
-            msg = withoutHyphenMessage;
-          }
-          String[] parts = stringToCheck.split(" ");
-          if (parts.length > 0 && parts[0].length() == 1) {
-            replacement.clear();
-            replacement.add(origStringToCheck.replace(' ', '-'));
-            msg = withHyphenMessage;
-          } else if (replacement.isEmpty() || replacement.size() == 2) {     // isEmpty shouldn't happen
-            msg = withOrWithoutHyphenMessage;
+    // start 0 is the sentence start: for it, the compounds starting at the first word are found with the
+    // first word uncapitalized if needed, and the shortest compound is used:
+    for (int start = 0; start < tokens.length - 1; start++) {
+      boolean atSentenceStart = start == 0;
+      int first = atSentenceStart ? 1 : start;
+      int maxTokens = atSentenceStart ? MAX_TERMS - 1 : MAX_TERMS;
+      boolean uncapitalize = atSentenceStart && sentenceStartsWithUpperCase && tokens[0].hasPosTag(JLanguageTool.SENTENCE_START_TAGNAME);
+      int end = -1;
+      String stringToCheck = null;
+      PhraseTrie.Node<String> node = trie.getRoot();
+      boolean prevWasSkippedHyphen = false;
+      for (int i = first; i < first + maxTokens && i < tokens.length && node != null; i++) {
+        String token = uncapitalize && i == first ? StringUtils.uncapitalize(tokens[i].getToken()) : tokens[i].getToken();
+        if (isHyphenIgnored()) {
+          // e.g. "E-Mail Adresse" -> "E Mail Adresse" so the error can be detected:
+          node = getNodeForHyphenatedToken(node, token, i > first);
+        } else if (i > first && "-".equals(token)) {
+          // "a - b" is checked as "a b", a compound can't end with "-" or contain "- -":
+          if (prevWasSkippedHyphen) {
+            break;
           }
-          RuleMatch ruleMatch = new RuleMatch(this, sentence, firstMatchToken.getStartPos(), atr.getEndPos(), msg, shortDesc);
-          ruleMatch.setSuggestedReplacements(replacement);
-          // avoid duplicate matches:
-          if (prevRuleMatch != null && prevRuleMatch.getFromPos() == ruleMatch.getFromPos()) {
-            prevRuleMatch = ruleMatch;
+          prevWasSkippedHyphen = true;
+          continue;
+        } else {
+          prevWasSkippedHyphen = false;
+          node = node.getChild(token, i > first);
+        }
+        if (node != null && i > first && node.getValue() != null) {
+          end = i;
+          stringToCheck = node.getValue();
+          if (atSentenceStart) {
             break;
           }
-          prevRuleMatch = ruleMatch;
-          ruleMatches.add(ruleMatch);
-          break;
         }
       }
-      addToQueue(token, prevTokens);
+      if (end == -1) {
+        continue;
+      }
+      String origStringToCheck = joinTokens(tokens, first, end);   // original upper/lowercase spelling
+      List<String> origStringsToCheck = new ArrayList<>();
+      int lastWindowToken = atSentenceStart ? end : Math.min(start + MAX_TERMS, tokens.length) - 1;
+      for (int i = atSentenceStart ? first : first + 1; i <= lastWindowToken; i++) {
+        origStringsToCheck.add(joinTokens(tokens, first, i));
+      }
+      String msg = null;
+      List<String> replacement = new ArrayList<>();
+      if (!getCompoundRuleData().getNoDashSuggestion().contains(stringToCheck)) {
+        replacement.add(origStringToCheck.replace(' ', '-'));
+        msg = withHyphenMessage;
+      }
+      if (isNotAllUppercase(origStringToCheck) && !getCompoundRuleData().getOnlyDashSuggestion().contains(stringToCheck)) {
+        replacement.add(mergeCompound(origStringToCheck, getCompoundRuleData().getNoDashLowerCaseSuggestion().stream().anyMatch(s -> origStringsToCheck.contains(s))));
+        msg = withoutHyphenMessage;
+      }
+      String[] parts = stringToCheck.split(" ");
+      if (parts.length > 0 && parts[0].length() == 1) {
+        replacement.clear();
+        replacement.add(origStringToCheck.replace(' ', '-'));
+        msg = withHyphenMessage;
+      } else if (replacement.isEmpty() || replacement.size() == 2) {     // isEmpty shouldn't happen
+        msg = withOrWithoutHyphenMessage;
+      }
+      RuleMatch ruleMatch = new RuleMatch(this, sentence, tokens[start].getStartPos(), tokens[end].getEndPos(), msg, shortDesc);
+      ruleMatch.setSuggestedReplacements(replacement);
+      // avoid duplicate matches:
+      if (prevRuleMatch != null && prevRuleMatch.getFromPos() == ruleMatch.getFromPos()) {
+        prevRuleMatch = ruleMatch;
+        continue;
+      }
+      prevRuleMatch = ruleMatch;
+      ruleMatches.add(ruleMatch);
     }
     return toRuleMatchArray(ruleMatches);
   }
 
-  private Map<String, AnalyzedTokenReadings> getStringToTokenMap(Queue<AnalyzedTokenReadings> prevTokens,
-                                                                 List<String> stringsToCheck, List<String> origStringsToCheck) {
-    StringBuilder sb = new StringBuilder();
-    Map<String, AnalyzedTokenReadings> stringToToken = new HashMap<>();
-    int j = 0;
-    boolean isFirstSentStart = false;
-    for (AnalyzedTokenReadings atr : prevTokens) {
-      sb.append(' ');
-      sb.append(atr.getToken());
-      if (j == 0) {
-        isFirstSentStart = atr.hasPosTag(JLanguageTool.SENTENCE_START_TAGNAME);
+  private static AnalyzedTokenReadings[] withoutImmunizedTokens(AnalyzedTokenReadings[] tokens) {
+    List<AnalyzedTokenReadings> result = null;
+    for (int i = 1; i < tokens.length; i++) {
+      if (tokens[i].isImmunized() && result == null) {
+        result = new ArrayList<>(Arrays.asList(tokens).subList(0, i));
+      } else if (!tokens[i].isImmunized() && result != null) {
+        result.add(tokens[i]);
       }
-      if (j >= 1) {
-        String stringToCheck = normalize(sb.toString());
-        if (sentenceStartsWithUpperCase && isFirstSentStart) {
-          stringToCheck = StringUtils.uncapitalize(stringToCheck);
-        }
-        stringsToCheck.add(stringToCheck);
-        origStringsToCheck.add(sb.toString().trim());
-        if (!stringToToken.containsKey(stringToCheck)) {
-          stringToToken.put(stringToCheck, atr);
-        }
-      }
-      j++;
     }
-    return stringToToken;
+    return result == null ? tokens : result.toArray(new AnalyzedTokenReadings[0]);
   }
 
-  private String normalize(String inStr) {
-    String str = inStr.trim();
-    if (str.indexOf('-') != -1 && str.indexOf(' ') != -1) {
-      if (isHyphenIgnored()) {
-        // e.g. "E-Mail Adresse" -> "E Mail Adresse" so the error can be detected:
-        str = str.replace('-', ' ');
-      } else {
-        str = str.replace(" - ", " ");
+  @Nullable
+  private static PhraseTrie.Node<String> getNodeForHyphenatedToken(PhraseTrie.Node<String> node, String token, boolean spaceBefore) {
+    int hyphenPos = token.indexOf('-');
+    if (hyphenPos == -1) {
+      return node.getChild(token, spaceBefore);
+    }
+    int partStart = 0;
+    while (node != null) {
+      String part = hyphenPos == -1 ? token.substring(partStart) : token.substring(partStart, hyphenPos);
+      node = node.getChild(part, spaceBefore);
+      if (hyphenPos == -1) {
+        break;
       }
+      spaceBefore = true;
+      partStart = hyphenPos + 1;
+      hyphenPos = token.indexOf('-', partStart);
     }
-    return str;
+    return node;
+  }
+
+  private static String joinTokens(AnalyzedTokenReadings[] tokens, int first, int last) {
+    StringBuilder sb = new StringBuilder(tokens[first].getToken());
+    for (int i = first + 1; i <= last; i++) {
+      sb.append(' ').append(tokens[i].getToken());
+    }
+    return sb.toString();
   }
 
   private boolean isNotAllUppercase(String str) {
@@ -234,12 +242,4 @@ public abstract class AbstractCompoundRule extends Rule {
     return sb.toString();
   }
 
-  private void addToQueue(AnalyzedTokenReadings token, Queue<AnalyzedTokenReadings> prevTokens) {
-    boolean inserted = prevTokens.offer(token);
-    if (!inserted) {
-      prevTokens.poll();
-      prevTokens.offer(token);
-    }
-  }
-
 }
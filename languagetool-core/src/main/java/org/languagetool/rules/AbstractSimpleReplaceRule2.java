@@ -34,7 +34,6 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -81,6 +80,14 @@ public abstract class AbstractSimpleReplaceRule2 extends Rule {
               return loadWords(lap.path, lap.lang);
             }
           });
+  private static final LoadingCache<PathAndLanguage, PhraseTrie<String>> trieCache = CacheBuilder.newBuilder()
+          .expireAfterWrite(30, TimeUnit.MINUTES)
+          .build(new CacheLoader<PathAndLanguage, PhraseTrie<String>>() {
+            @Override
+            public PhraseTrie<String> load(@NotNull PathAndLanguage lap) throws ExecutionException {
+              return buildTrie(cache.get(lap), lap.lang);
+            }
+          });
 
   public AbstractSimpleReplaceRule2(ResourceBundle messages, Language language) {
     super(messages);
@@ -159,70 +166,91 @@ public abstract class AbstractSimpleReplaceRule2 extends Rule {
     return Collections.unmodifiableList(result);
   }
 
-  private void addToQueue(AnalyzedTokenReadings token,
-                          Queue<AnalyzedTokenReadings> prevTokens) {
-    boolean inserted = prevTokens.offer(token);
-    if (!inserted) {
-      prevTokens.poll();
-      prevTokens.offer(token);
+  /**
+   * Build a trie of the wrong words, tokenized like the sentences they will be matched against.
+   */
+  private static PhraseTrie<String> buildTrie(List<Map<String, String>> wrongWords, Language lang) {
+    PhraseTrie<String> trie = new PhraseTrie<>();
+    for (Map<String, String> map : wrongWords) {
+      for (Map.Entry<String, String> entry : map.entrySet()) {
+        // phrases that don't tokenize to a single-space separated sequence could never match anyway:
+        trie.add(lang.getWordTokenizer().tokenize(entry.getKey()), entry.getValue());
+      }
     }
+    return trie;
   }
 
   @Override
   public RuleMatch[] match(AnalyzedSentence sentence) {
     List<RuleMatch> ruleMatches = new ArrayList<>();
     AnalyzedTokenReadings[] tokens = sentence.getTokensWithoutWhitespace();
-
-    List<Map<String, String>> wrongWords = getWrongWords();
-    Queue<AnalyzedTokenReadings> prevTokens = new ArrayBlockingQueue<>(wrongWords.size());
-
+    PhraseTrie<String> trie;
+    try {
+      trie = trieCache.get(new PathAndLanguage(getFileName(), language));
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e);
+    }
+    String[] tokenStrings = new String[tokens.length];
     for (int i = 1; i < tokens.length; i++) {
-      addToQueue(tokens[i], prevTokens);
-      StringBuilder sb = new StringBuilder();
-      List<String> variants = new ArrayList<>();
-      List<AnalyzedTokenReadings> prevTokensList =
-              Arrays.asList(prevTokens.toArray(new AnalyzedTokenReadings[0]));
-      for (int j = prevTokensList.size() - 1; j >= 0; j--) {
-        if (j != prevTokensList.size() - 1 && prevTokensList.get(j + 1).isWhitespaceBefore()) {
-          sb.insert(0, " ");
+      tokenStrings[i] = isCaseSensitive() ? tokens[i].getToken() : tokens[i].getToken().toLowerCase(getLocale());
+    }
+    // for each token, the start and the replacements of the longest phrase ending at that token:
+    int[] phraseStarts = new int[tokens.length];
+    String[] phraseReplacements = new String[tokens.length];
+    for (int start = 1; start < tokens.length; start++) {  // 0 is the sentence start
+      PhraseTrie.Node<String> node = trie.getRoot();
+      for (int end = start; end < tokens.length; end++) {
+        node = node.getChild(tokenStrings[end], end > start && tokens[end].isWhitespaceBefore());
+        if (node == null) {
+          break;
+        }
+        if (node.getValue() != null && phraseReplacements[end] == null) {
+          phraseStarts[end] = start;
+          phraseReplacements[end] = node.getValue();
         }
-        sb.insert(0, prevTokensList.get(j).getToken());
-        variants.add(0, sb.toString());
       }
-      int len = variants.size(); // prevTokensList and variants have now the same length
-      for (int j = 0; j < len; j++) { // longest words first
-        String crt = variants.get(j);
-        int crtWordCount = len - j;
-        String crtMatch = isCaseSensitive() ? wrongWords.get(crtWordCount - 1).get(crt) : wrongWords.get(crtWordCount- 1).get(crt.toLowerCase(getLocale()));
-        if (crtMatch != null) {
-          List<String> replacements = Arrays.asList(crtMatch.split("\\|"));
-          String msgSuggestions = "";
-          for (int k = 0; k < replacements.size(); k++) {
-            if (k > 0) {
-              msgSuggestions += (k == replacements.size() - 1 ? getSuggestionsSeparator(): ", ");
-            }
-            msgSuggestions += "<suggestion>" + replacements.get(k) + "</suggestion>";
-          }
-          String msg = getSuggestion().replaceFirst("\\$match", crt).replaceFirst("\\$suggestions", msgSuggestions);
-          int startPos = prevTokensList.get(len - crtWordCount).getStartPos();
-          int endPos = prevTokensList.get(len - 1).getEndPos();
-          RuleMatch ruleMatch = new RuleMatch(this, sentence, startPos, endPos, msg, getShort());
-          if (!isCaseSensitive() && StringTools.startsWithUppercase(crt)) {
-            for (int k = 0; k < replacements.size(); k++) {
-              replacements.set(k, StringTools.uppercaseFirstChar(replacements.get(k)));
-            }
+    }
+    for (int end = 1; end < tokens.length; end++) {
+      String crtMatch = phraseReplacements[end];
+      if (crtMatch != null) {
+        String crt = getPhrase(tokens, phraseStarts[end], end);
+        List<String> replacements = Arrays.asList(crtMatch.split("\\|"));
+        String msgSuggestions = "";
+        for (int k = 0; k < replacements.size(); k++) {
+          if (k > 0) {
+            msgSuggestions += (k == replacements.size() - 1 ? getSuggestionsSeparator(): ", ");
           }
-          ruleMatch.setSuggestedReplacements(replacements);
-          if (!isException(sentence.getText().substring(startPos, endPos))) {
-            ruleMatches.add(ruleMatch);
+          msgSuggestions += "<suggestion>" + replacements.get(k) + "</suggestion>";
+        }
+        String msg = getSuggestion().replaceFirst("\\$match", crt).replaceFirst("\\$suggestions", msgSuggestions);
+        int startPos = tokens[phraseStarts[end]].getStartPos();
+        int endPos = tokens[end].getEndPos();
+        RuleMatch ruleMatch = new RuleMatch(this, sentence, startPos, endPos, msg, getShort());
+        if (!isCaseSensitive() && StringTools.startsWithUppercase(crt)) {
+          for (int k = 0; k < replacements.size(); k++) {
+            replacements.set(k, StringTools.uppercaseFirstChar(replacements.get(k)));
           }
-          break;
+        }
+        ruleMatch.setSuggestedReplacements(replacements);
+        if (!isException(sentence.getText().substring(startPos, endPos))) {
+          ruleMatches.add(ruleMatch);
         }
       }
     }
     return toRuleMatchArray(ruleMatches);
   }
 
+  private static String getPhrase(AnalyzedTokenReadings[] tokens, int start, int end) {
+    StringBuilder sb = new StringBuilder(tokens[start].getToken());
+    for (int i = start + 1; i <= end; i++) {
+      if (tokens[i].isWhitespaceBefore()) {
+        sb.append(' ');
+      }
+      sb.append(tokens[i].getToken());
+    }
+    return sb.toString();
+  }
+
   protected boolean isException(String matchedText) {
     return false;
   }
@@ -22,9 +22,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 
 import org.languagetool.JLanguageTool;
 
@@ -39,6 +37,8 @@ public class CompoundRuleData {
   private final Set<String> noDashSuggestion = new HashSet<>();
   private final Set<String> noDashLowerCaseSuggestion = new HashSet<>();
   private final Set<String> onlyDashSuggestion = new HashSet<>();
+  // the incorrect compounds, with their parts as edges:
+  private final PhraseTrie<String> incorrectCompoundTrie = new PhraseTrie<>();
 
   public CompoundRuleData(String path) {
     this(new String[] {path});
@@ -52,12 +52,30 @@ public class CompoundRuleData {
         throw new RuntimeException("Could not load compound data from " + path, e);
       }
     }
+    for (String incorrectCompound : incorrectCompounds) {
+      List<String> tokens = new ArrayList<>();
+      for (String part : incorrectCompound.split(" ", -1)) {
+        if (!tokens.isEmpty()) {
+          tokens.add(" ");
+        }
+        tokens.add(part);
+      }
+      incorrectCompoundTrie.add(tokens, incorrectCompound);
+    }
   }
 
   Set<String> getIncorrectCompounds() {
     return Collections.unmodifiableSet(incorrectCompounds);
   }
 
+  /**
+   * The incorrect compounds, the value of each phrase is the compound as in {@link #getIncorrectCompounds()}.
+   * @since 4.7
+   */
+  PhraseTrie<String> getIncorrectCompoundTrie() {
+    return incorrectCompoundTrie;
+  }
+
   Set<String> getNoDashSuggestion() {
     return Collections.unmodifiableSet(noDashSuggestion);
   }
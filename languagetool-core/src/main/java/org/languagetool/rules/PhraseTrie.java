@@ -0,0 +1,110 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.tools.StringTools;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A trie of phrases with tokens as edges, so that rules can find the phrases
+ * starting at a token by walking the following tokens, without building strings.
+ * Tokens are either directly attached to the previous token or separated by
+ * one space. Build it once per data file, it's not thread-safe while being built.
+ * @since 4.7
+ */
+final class PhraseTrie<V> {
+
+  private final Node<V> root = new Node<>();
+
+  /**
+   * Add a phrase.
+   * @param tokens the tokens of the phrase, a single space token means the following token is separated by a space
+   * @return false if the phrase could not be added because it starts or ends with whitespace or contains whitespace
+   *   other than single spaces - sentence tokens never get joined like that, so such a phrase could never match
+   */
+  boolean add(List<String> tokens, V value) {
+    Node<V> node = root;
+    boolean spaceBefore = false;
+    for (String token : tokens) {
+      if (!token.isEmpty() && StringTools.isWhitespace(token)) {
+        if (!token.equals(" ") || spaceBefore || node == root) {
+          return false;
+        }
+        spaceBefore = true;
+      } else {
+        node = node.getOrCreateChild(token, spaceBefore);
+        spaceBefore = false;
+      }
+    }
+    if (spaceBefore || node == root) {
+      return false;
+    }
+    node.value = value;
+    return true;
+  }
+
+  Node<V> getRoot() {
+    return root;
+  }
+
+  static final class Node<V> {
+
+    private Map<String, Node<V>> children;            // tokens attached directly
+    private Map<String, Node<V>> childrenAfterSpace;  // tokens after a space
+    private V value;
+
+    /**
+     * @param spaceBefore whether the token is separated from the previous one by a space, must be
+     *   {@code false} for the first token of a phrase
+     */
+    @Nullable
+    Node<V> getChild(String token, boolean spaceBefore) {
+      Map<String, Node<V>> map = spaceBefore ? childrenAfterSpace : children;
+      return map != null ? map.get(token) : null;
+    }
+
+    /**
+     * @return the value of the phrase ending at this node, {@code null} if no phrase ends here
+     */
+    @Nullable
+    V getValue() {
+      return value;
+    }
+
+    private Node<V> getOrCreateChild(String token, boolean spaceBefore) {
+      Map<String, Node<V>> map;
+      if (spaceBefore) {
+        if (childrenAfterSpace == null) {
+          childrenAfterSpace = new HashMap<>();
+        }
+        map = childrenAfterSpace;
+      } else {
+        if (children == null) {
+          children = new HashMap<>();
+        }
+        map = children;
+      }
+      return map.computeIfAbsent(token, k -> new Node<>());
+    }
+  }
+}
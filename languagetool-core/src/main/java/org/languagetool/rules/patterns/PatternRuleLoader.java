@@ -24,10 +24,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
 
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
-
-import org.languagetool.tools.Tools;
 import org.xml.sax.helpers.DefaultHandler;
 
 /**
@@ -66,11 +62,7 @@ public class PatternRuleLoader extends DefaultHandler {
     try {
       PatternRuleHandler handler = new PatternRuleHandler(filename);
       handler.setRelaxedMode(relaxedMode);
-      SAXParserFactory factory = SAXParserFactory.newInstance();
-      SAXParser saxParser = factory.newSAXParser();
-      Tools.setPasswordAuthenticator();
-      saxParser.getXMLReader().setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-      saxParser.parse(is, handler);
+      RuleFileSnapshot.parse(is, "grammar", false, handler);
       return handler.getRules();
     } catch (Exception e) {
       throw new IOException("Cannot load or parse input stream of '" + filename + "'", e);
@@ -0,0 +1,422 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import com.google.common.io.ByteStreams;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.Experimental;
+import org.languagetool.tools.Tools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A binary snapshot of the SAX events of a rule XML file (e.g. {@code grammar.xml} or
+ * {@code disambiguation.xml}), taken after entities have been resolved. Replaying a snapshot
+ * into a {@link PatternRuleHandler} or a disambiguation rule handler creates the same rules as
+ * parsing the XML, but without scanning the XML and its DTD. Snapshots are written to the
+ * directory set with {@link #setCacheDirectory(File)} (or the system property
+ * {@code languagetool.ruleSnapshotDir}) when a rule file is parsed the first time, and are only
+ * used if the checksum of the XML they were created from still matches.
+ * @since 4.7
+ */
+@Experimental
+public final class RuleFileSnapshot {
+
+  /** System property with the directory where snapshots are stored. */
+  public static final String CACHE_DIR_PROPERTY = "languagetool.ruleSnapshotDir";
+
+  private static final Logger logger = LoggerFactory.getLogger(RuleFileSnapshot.class);
+
+  private static final int MAGIC = 0x4C545253;  // "LTRS"
+  private static final int VERSION = 1;
+  private static final String FILE_SUFFIX = ".ltrs";
+
+  private static final int END_OF_DOCUMENT = 0;
+  private static final int START_ELEMENT = 1;
+  private static final int END_ELEMENT = 2;
+  private static final int CHARACTERS = 3;
+
+  private static volatile File cacheDir = getDefaultCacheDir();
+
+  private RuleFileSnapshot() {
+  }
+
+  /**
+   * @return the directory snapshots are read from and written to, or {@code null} if snapshots are not used
+   */
+  @Nullable
+  public static File getCacheDirectory() {
+    return cacheDir;
+  }
+
+  /**
+   * Set the directory snapshots are read from and written to. Use {@code null} to always parse the XML.
+   */
+  public static void setCacheDirectory(@Nullable File dir) {
+    cacheDir = dir;
+  }
+
+  @Nullable
+  private static File getDefaultCacheDir() {
+    String dir = System.getProperty(CACHE_DIR_PROPERTY);
+    return dir != null && !dir.isEmpty() ? new File(dir) : null;
+  }
+
+  /**
+   * Feed the rules in {@code xml} to {@code handler}, from a snapshot if there's a valid one in the
+   * cache directory, otherwise by parsing the XML (and then storing a snapshot).
+   * @param kind a short name for the type of rule file, used in the snapshot file name
+   * @param loadExternalDtd whether the parser should load the external DTD (it may add default attribute values)
+   */
+  public static void parse(InputStream xml, String kind, boolean loadExternalDtd, DefaultHandler handler)
+      throws IOException, SAXException, ParserConfigurationException {
+    byte[] xmlBytes = ByteStreams.toByteArray(xml);
+    File dir = cacheDir;
+    if (dir == null) {
+      parse(xmlBytes, loadExternalDtd, handler);
+      return;
+    }
+    long checksum = getChecksum(xmlBytes);
+    File snapshotFile = new File(dir, kind + "-" + Long.toHexString(checksum) + "-" + xmlBytes.length + FILE_SUFFIX);
+    if (snapshotFile.isFile()) {
+      try (InputStream in = new BufferedInputStream(new FileInputStream(snapshotFile))) {
+        if (replay(in, checksum, xmlBytes.length, handler)) {
+          return;
+        }
+      }
+      logger.warn("Ignoring outdated or incomplete rule snapshot " + snapshotFile);
+    }
+    Recorder recorder = new Recorder(handler);
+    parse(xmlBytes, loadExternalDtd, recorder);
+    try {
+      write(recorder, checksum, xmlBytes.length, snapshotFile);
+    } catch (IOException e) {
+      logger.warn("Could not write rule snapshot " + snapshotFile, e);
+    }
+  }
+
+  /**
+   * Create a snapshot of {@code xml} without creating any rules.
+   */
+  public static void write(InputStream xml, boolean loadExternalDtd, OutputStream out) throws IOException {
+    byte[] xmlBytes = ByteStreams.toByteArray(xml);
+    Recorder recorder = new Recorder(new DefaultHandler());
+    try {
+      parse(xmlBytes, loadExternalDtd, recorder);
+    } catch (SAXException | ParserConfigurationException e) {
+      throw new IOException("Cannot parse rule file", e);
+    }
+    recorder.write(new DataOutputStream(out), getChecksum(xmlBytes), xmlBytes.length);
+  }
+
+  /**
+   * Feed the events of a snapshot to {@code handler}.
+   * @return {@code false} if the snapshot is incomplete or was created from a different XML file or
+   *   with another snapshot version, in which case {@code handler} didn't get any events
+   */
+  static boolean replay(InputStream in, long expectedChecksum, long expectedLength, DefaultHandler handler) throws IOException, SAXException {
+    byte[] payload;
+    try {
+      DataInputStream header = new DataInputStream(in);
+      if (header.readInt() != MAGIC || header.readInt() != VERSION || header.readLong() != expectedChecksum || header.readLong() != expectedLength) {
+        return false;
+      }
+      payload = new byte[header.readInt()];
+      header.readFully(payload);
+    } catch (EOFException e) {
+      return false;
+    }
+    DataInputStream data = new DataInputStream(new ByteArrayInputStream(payload));
+    String[] strings = new String[readVarInt(data)];
+    for (int i = 0; i < strings.length; i++) {
+      byte[] bytes = new byte[readVarInt(data)];
+      data.readFully(bytes);
+      strings[i] = new String(bytes, StandardCharsets.UTF_8);
+    }
+    ReplayLocator locator = new ReplayLocator();
+    handler.setDocumentLocator(locator);
+    handler.startDocument();
+    AttributesImpl attrs = new AttributesImpl();
+    char[] buf = new char[256];
+    int event;
+    while ((event = data.readUnsignedByte()) != END_OF_DOCUMENT) {
+      switch (event) {
+        case START_ELEMENT:
+          locator.line = readVarInt(data);
+          locator.column = readVarInt(data);
+          String uri = strings[readVarInt(data)];
+          String localName = strings[readVarInt(data)];
+          String qName = strings[readVarInt(data)];
+          attrs.clear();
+          int attrCount = readVarInt(data);
+          for (int i = 0; i < attrCount; i++) {
+            attrs.addAttribute(strings[readVarInt(data)], strings[readVarInt(data)], strings[readVarInt(data)],
+                strings[readVarInt(data)], strings[readVarInt(data)]);
+          }
+          handler.startElement(uri, localName, qName, attrs);
+          break;
+        case END_ELEMENT:
+          locator.line = readVarInt(data);
+          locator.column = readVarInt(data);
+          handler.endElement(strings[readVarInt(data)], strings[readVarInt(data)], strings[readVarInt(data)]);
+          break;
+        case CHARACTERS:
+          String text = strings[readVarInt(data)];
+          if (text.length() > buf.length) {
+            buf = new char[text.length()];
+          }
+          text.getChars(0, text.length(), buf, 0);
+          handler.characters(buf, 0, text.length());
+          break;
+        default:
+          throw new IOException("Unknown event " + event + " in rule snapshot");
+      }
+    }
+    handler.endDocument();
+    return true;
+  }
+
+  private static void parse(byte[] xmlBytes, boolean loadExternalDtd, DefaultHandler handler)
+      throws ParserConfigurationException, SAXException, IOException {
+    SAXParserFactory factory = SAXParserFactory.newInstance();
+    SAXParser saxParser = factory.newSAXParser();
+    Tools.setPasswordAuthenticator();
+    if (!loadExternalDtd) {
+      saxParser.getXMLReader().setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+    }
+    saxParser.parse(new ByteArrayInputStream(xmlBytes), handler);
+  }
+
+  private static void write(Recorder recorder, long checksum, long length, File snapshotFile) throws IOException {
+    File dir = snapshotFile.getParentFile();
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      throw new IOException("Could not create directory " + dir);
+    }
+    // write to a temporary file first so other processes never see an incomplete snapshot:
+    File tmpFile = File.createTempFile(snapshotFile.getName(), ".tmp", dir);
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+        recorder.write(out, checksum, length);
+      }
+      Files.move(tmpFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmpFile.toPath());
+    }
+  }
+
+  private static long getChecksum(byte[] bytes) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes, 0, bytes.length);
+    return crc.getValue();
+  }
+
+  private static int readVarInt(DataInputStream in) throws IOException {
+    int value = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+
+  private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  /**
+   * Passes all events on to the real handler and keeps them for the snapshot.
+   */
+  private static class Recorder extends DefaultHandler {
+
+    private final DefaultHandler handler;
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final ByteArrayOutputStream eventBytes = new ByteArrayOutputStream();
+    private final DataOutputStream events = new DataOutputStream(eventBytes);
+
+    private Locator locator;
+
+    Recorder(DefaultHandler handler) {
+      this.handler = handler;
+    }
+
+    @Override
+    public void setDocumentLocator(Locator locator) {
+      this.locator = locator;
+      handler.setDocumentLocator(locator);
+    }
+
+    @Override
+    public void startDocument() throws SAXException {
+      handler.startDocument();
+    }
+
+    @Override
+    public void endDocument() throws SAXException {
+      handler.endDocument();
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attrs) throws SAXException {
+      try {
+        events.writeByte(START_ELEMENT);
+        writePosition();
+        writeString(uri);
+        writeString(localName);
+        writeString(qName);
+        writeVarInt(events, attrs.getLength());
+        for (int i = 0; i < attrs.getLength(); i++) {
+          writeString(attrs.getURI(i));
+          writeString(attrs.getLocalName(i));
+          writeString(attrs.getQName(i));
+          writeString(attrs.getType(i));
+          writeString(attrs.getValue(i));
+        }
+      } catch (IOException e) {
+        throw new SAXException(e);
+      }
+      handler.startElement(uri, localName, qName, attrs);
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+      try {
+        events.writeByte(END_ELEMENT);
+        writePosition();
+        writeString(uri);
+        writeString(localName);
+        writeString(qName);
+      } catch (IOException e) {
+        throw new SAXException(e);
+      }
+      handler.endElement(uri, localName, qName);
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+      try {
+        events.writeByte(CHARACTERS);
+        writeString(new String(ch, start, length));
+      } catch (IOException e) {
+        throw new SAXException(e);
+      }
+      handler.characters(ch, start, length);
+    }
+
+    @Override
+    public void warning(org.xml.sax.SAXParseException e) throws SAXException {
+      handler.warning(e);
+    }
+
+    @Override
+    public void error(org.xml.sax.SAXParseException e) throws SAXException {
+      handler.error(e);
+    }
+
+    @Override
+    public void fatalError(org.xml.sax.SAXParseException e) throws SAXException {
+      handler.fatalError(e);
+    }
+
+    private void writePosition() throws IOException {
+      writeVarInt(events, locator != null ? Math.max(locator.getLineNumber(), 0) : 0);
+      writeVarInt(events, locator != null ? Math.max(locator.getColumnNumber(), 0) : 0);
+    }
+
+    private void writeString(@Nullable String s) throws IOException {
+      String str = s == null ? "" : s;
+      Integer id = stringIds.get(str);
+      if (id == null) {
+        id = strings.size();
+        stringIds.put(str, id);
+        strings.add(str);
+      }
+      writeVarInt(events, id);
+    }
+
+    void write(DataOutputStream out, long checksum, long length) throws IOException {
+      events.writeByte(END_OF_DOCUMENT);
+      events.flush();
+      ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+      DataOutputStream stringTable = new DataOutputStream(stringBytes);
+      writeVarInt(stringTable, strings.size());
+      for (String s : strings) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(stringTable, bytes.length);
+        stringTable.write(bytes);
+      }
+      stringTable.flush();
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(checksum);
+      out.writeLong(length);
+      out.writeInt(stringBytes.size() + eventBytes.size());
+      stringBytes.writeTo(out);
+      eventBytes.writeTo(out);
+      out.flush();
+    }
+  }
+
+  private static class ReplayLocator implements Locator {
+    private int line;
+    private int column;
+    @Override
+    public String getPublicId() {
+      return null;
+    }
+    @Override
+    public String getSystemId() {
+      return null;
+    }
+    @Override
+    public int getLineNumber() {
+      return line;
+    }
+    @Override
+    public int getColumnNumber() {
+      return column;
+    }
+  }
+
+}
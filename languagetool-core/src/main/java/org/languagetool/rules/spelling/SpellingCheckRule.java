@@ -208,6 +208,15 @@ public abstract class SpellingCheckRule extends Rule {
   @Override
   public abstract RuleMatch[] match(AnalyzedSentence sentence) throws IOException;
 
+  /**
+   * Whether suggestions for misspelled words are left out of the matches, because the
+   * caller asks for them separately (see {@link UserConfig#deferSpellingSuggestions()}).
+   * @since 4.7
+   */
+  public boolean defersSuggestions() {
+    return userConfig != null && userConfig.deferSpellingSuggestions();
+  }
+
   @Override
   public boolean isDictionaryBasedSpellingRule() {
     return true;
@@ -185,33 +185,7 @@ public class HunspellRule extends SpellingCheckRule {
             messages.getString("desc_spelling_short"));
           ruleMatch.setType(RuleMatch.Type.UnknownWord);
           if (userConfig == null || userConfig.getMaxSpellingSuggestions() == 0 || ruleMatches.size() <= userConfig.getMaxSpellingSuggestions()) {
-            List<String> suggestions = getSuggestions(cleanWord);
-            if (word.endsWith(".")) {
-              int pos = 1;
-              for (String suggestion : getSuggestions(word)) {
-                if (!suggestions.contains(suggestion)) {
-                  suggestions.add(Math.min(pos, suggestions.size()), suggestion.substring(0, suggestion.length()-1));
-                  pos += 2;  // we mix the lists, as we don't know which one is the better one
-                }
-              }
-            }
-            List<String> additionalTopSuggestions = getAdditionalTopSuggestions(suggestions, cleanWord);
-            if (additionalTopSuggestions.isEmpty() && word.endsWith(".")) {
-              additionalTopSuggestions = getAdditionalTopSuggestions(suggestions, word).
-                stream().map(k -> k.endsWith(".") ? k : k + ".").collect(Collectors.toList());
-            }
-            Collections.reverse(additionalTopSuggestions);
-            for (String additionalTopSuggestion : additionalTopSuggestions) {
-              if (!cleanWord.equals(additionalTopSuggestion)) {
-                suggestions.add(0, additionalTopSuggestion);
-              }
-            }
-            List<String> additionalSuggestions = getAdditionalSuggestions(suggestions, cleanWord);
-            for (String additionalSuggestion : additionalSuggestions) {
-              if (!cleanWord.equals(additionalSuggestion)) {
-                suggestions.addAll(additionalSuggestions);
-              }
-            }
+            List<String> suggestions = defersSuggestions() ? new ArrayList<>() : collectSuggestions(word, cleanWord);
             Language acceptingLanguage = acceptedInAlternativeLanguage(cleanWord);
             boolean isSpecialCase = cleanWord.matches(".+-[A-ZÖÄÜ].*");
             if (acceptingLanguage != null && !isSpecialCase) {
@@ -229,7 +203,9 @@ public class HunspellRule extends SpellingCheckRule {
 
             // TODO user suggestions
             // use suggestionsOrderer only w/ A/B - Testing or manually enabled experiments
-            if (runningExperiment) {
+            if (defersSuggestions()) {
+              // the client will ask for the suggestions if needed
+            } else if (runningExperiment) {
               addSuggestionsToRuleMatch(cleanWord, Collections.emptyList(), suggestions,
                 suggestionsOrderer, ruleMatch);
             } else if (userConfig != null && userConfig.getAbTest() != null &&
@@ -264,6 +240,37 @@ public class HunspellRule extends SpellingCheckRule {
     return toRuleMatchArray(ruleMatches);
   }
 
+  private List<String> collectSuggestions(String word, String cleanWord) throws IOException {
+    List<String> suggestions = getSuggestions(cleanWord);
+    if (word.endsWith(".")) {
+      int pos = 1;
+      for (String suggestion : getSuggestions(word)) {
+        if (!suggestions.contains(suggestion)) {
+          suggestions.add(Math.min(pos, suggestions.size()), suggestion.substring(0, suggestion.length()-1));
+          pos += 2;  // we mix the lists, as we don't know which one is the better one
+        }
+      }
+    }
+    List<String> additionalTopSuggestions = getAdditionalTopSuggestions(suggestions, cleanWord);
+    if (additionalTopSuggestions.isEmpty() && word.endsWith(".")) {
+      additionalTopSuggestions = getAdditionalTopSuggestions(suggestions, word).
+        stream().map(k -> k.endsWith(".") ? k : k + ".").collect(Collectors.toList());
+    }
+    Collections.reverse(additionalTopSuggestions);
+    for (String additionalTopSuggestion : additionalTopSuggestions) {
+      if (!cleanWord.equals(additionalTopSuggestion)) {
+        suggestions.add(0, additionalTopSuggestion);
+      }
+    }
+    List<String> additionalSuggestions = getAdditionalSuggestions(suggestions, cleanWord);
+    for (String additionalSuggestion : additionalSuggestions) {
+      if (!cleanWord.equals(additionalSuggestion)) {
+        suggestions.addAll(additionalSuggestions);
+      }
+    }
+    return suggestions;
+  }
+
   private String cutOffDot(String s) {
     return s.endsWith(".") ? s.substring(0, s.length()-1) : s;
   }
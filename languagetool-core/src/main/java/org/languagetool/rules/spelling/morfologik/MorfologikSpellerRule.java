@@ -339,7 +339,9 @@ public abstract class MorfologikSpellerRule extends SpellingCheckRule {
         (boolean) SuggestionsChanges.getInstance().getCurrentExperiment()
           .parameters.getOrDefault("fullSuggestionCandidates", Boolean.FALSE);
 
-      if (userConfig == null || userConfig.getMaxSpellingSuggestions() == 0 || ruleMatchesSoFar.size() <= userConfig.getMaxSpellingSuggestions()) {
+      if (defersSuggestions()) {
+        // the client will ask for the suggestions if needed
+      } else if (userConfig == null || userConfig.getMaxSpellingSuggestions() == 0 || ruleMatchesSoFar.size() <= userConfig.getMaxSpellingSuggestions()) {
         List<String> defaultSuggestions = speller1.getSuggestionsFromDefaultDicts(word);
         List<String> userSuggestions = speller1.getSuggestionsFromUserDicts(word);
         //System.out.println("speller1: " + suggestions);
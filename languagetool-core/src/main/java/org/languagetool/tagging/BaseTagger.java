@@ -47,6 +47,7 @@ public abstract class BaseTagger implements Tagger {
   private final boolean tagLowercaseWithUppercase;
   private final String dictionaryPath;
   private final Dictionary dictionary;
+  private final PosTagTable posTags = new PosTagTable();
 
   /**
    * Get the filename for manual additions, e.g., {@code /en/added.txt}, or {@code null}.
@@ -109,7 +110,7 @@ public abstract class BaseTagger implements Tagger {
   }
 
   private WordTagger initWordTagger() {
-    MorfologikTagger morfologikTagger = new MorfologikTagger(dictionary);
+    MorfologikTagger morfologikTagger = new MorfologikTagger(dictionary, posTags);
     try {
       String manualRemovalFileName = getManualRemovalsFileName();
       ManualTagger removalTagger = null;
@@ -205,13 +206,8 @@ public abstract class BaseTagger implements Tagger {
   }
 
   protected AnalyzedToken asAnalyzedToken(String word, WordData wd) {
-    String tag = StringTools.asString(wd.getTag());
-    // Remove frequency data from tags (if exists)
-    // The frequency data is in the last byte (without a separator)
-    if (dictionary.metadata.isFrequencyIncluded() && tag.length() > 1) {
-      tag = tag.substring(0, tag.length() - 1);
-    }
-    return new AnalyzedToken( word, tag, StringTools.asString(wd.getStem()));
+    String tag = MorfologikTagger.getTag(wd.getTag(), dictionary, posTags);
+    return new AnalyzedToken(word, tag, MorfologikTagger.getLemma(word, wd.getStem()));
   }
 
   private AnalyzedToken asAnalyzedToken(String word, TaggedWord taggedWord) {
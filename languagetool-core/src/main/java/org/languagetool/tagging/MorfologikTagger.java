@@ -22,6 +22,7 @@ import morfologik.stemming.Dictionary;
 import morfologik.stemming.DictionaryLookup;
 import morfologik.stemming.IStemmer;
 import morfologik.stemming.WordData;
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.JLanguageTool;
 
 import java.io.IOException;
@@ -37,15 +38,18 @@ import java.util.Objects;
 public class MorfologikTagger implements WordTagger {
 
   private final URL dictUrl;
+  private final PosTagTable posTags;
 
   private Dictionary dictionary;
 
   public MorfologikTagger(String dictPath) {
     dictUrl = JLanguageTool.getDataBroker().getFromResourceDirAsUrl(Objects.requireNonNull(dictPath));
+    posTags = new PosTagTable();
   }
 
   MorfologikTagger(URL dictUrl) {
     this.dictUrl = Objects.requireNonNull(dictUrl);
+    this.posTags = new PosTagTable();
   }
   
   /**
@@ -53,8 +57,16 @@ public class MorfologikTagger implements WordTagger {
    * @since 3.4
    */
   public MorfologikTagger(Dictionary dictionary) {
+    this(dictionary, new PosTagTable());
+  }
+
+  /**
+   * @param posTags the tags of {@code dictionary}, shared with the caller
+   */
+  MorfologikTagger(Dictionary dictionary, PosTagTable posTags) {
     this.dictUrl = null;
     this.dictionary = dictionary;
+    this.posTags = Objects.requireNonNull(posTags);
   }
 
   private synchronized Dictionary getDictionary() throws IOException {
@@ -71,13 +83,8 @@ public class MorfologikTagger implements WordTagger {
       IStemmer dictLookup = new DictionaryLookup(getDictionary());
       List<WordData> lookup = dictLookup.lookup(word);
       for (WordData wordData : lookup) {
-        String tag = wordData.getTag() == null ? null : wordData.getTag().toString();
-        // Remove frequency data from tags (if exists)
-        // The frequency data is in the last byte (without a separator)
-        if (dictionary.metadata.isFrequencyIncluded() && tag != null && tag.length() > 1) {
-          tag = tag.substring(0, tag.length() - 1);
-        }
-        String stem = wordData.getStem() == null ? null : wordData.getStem().toString();
+        String tag = getTag(wordData.getTag(), dictionary, posTags);
+        String stem = getLemma(word, wordData.getStem());
         TaggedWord taggedWord = new TaggedWord(stem, tag);
         result.add(taggedWord);
       }
@@ -87,4 +94,32 @@ public class MorfologikTagger implements WordTagger {
     return result;
   }
 
+  /**
+   * @return the tag as a string from {@code posTags}, so that equal tags share one object
+   */
+  @Nullable
+  static String getTag(@Nullable CharSequence tag, Dictionary dictionary, PosTagTable posTags) {
+    if (tag == null) {
+      return null;
+    }
+    // Remove frequency data from tags (if exists)
+    // The frequency data is in the last byte (without a separator)
+    int length = tag.length();
+    if (dictionary.metadata.isFrequencyIncluded() && length > 1) {
+      length--;
+    }
+    return posTags.get(tag, length);
+  }
+
+  /**
+   * @return the lemma, using {@code word} itself if it's the same, so that no new string needs to be created
+   */
+  @Nullable
+  static String getLemma(String word, @Nullable CharSequence stem) {
+    if (stem == null) {
+      return null;
+    }
+    return word.contentEquals(stem) ? word : stem.toString();
+  }
+
 }
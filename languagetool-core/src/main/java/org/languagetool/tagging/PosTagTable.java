@@ -0,0 +1,117 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The part-of-speech tags of one dictionary, so that each tag is kept as a single string object
+ * instead of creating a new string for every word that gets tagged. A dictionary has at most a few
+ * thousand different tags, so the table stays small. Lookups don't create objects and don't lock.
+ * @since 4.7
+ */
+final class PosTagTable {
+
+  // open addressing with linear probing, at most half full:
+  private volatile String[] table = new String[256];
+  private int size;
+
+  /**
+   * @return a string with the same content as {@code tag}, the same object for all equal tags
+   */
+  @Nullable
+  String get(@Nullable CharSequence tag) {
+    return tag == null ? null : get(tag, tag.length());
+  }
+
+  /**
+   * @param length use only the first {@code length} characters of {@code tag}
+   */
+  String get(CharSequence tag, int length) {
+    int hash = hash(tag, length);
+    String[] t = table;
+    int mask = t.length - 1;
+    for (int i = hash & mask; t[i] != null; i = (i + 1) & mask) {
+      if (t[i].hashCode() == hash && contentEquals(t[i], tag, length)) {
+        return t[i];
+      }
+    }
+    return add(tag.subSequence(0, length).toString());
+  }
+
+  private synchronized String add(String tag) {
+    String[] t = table;
+    int mask = t.length - 1;
+    int i = tag.hashCode() & mask;
+    for (; t[i] != null; i = (i + 1) & mask) {
+      if (t[i].equals(tag)) {
+        return t[i];  // added by another thread in the meantime
+      }
+    }
+    if (2 * (size + 1) > t.length) {
+      String[] bigger = new String[2 * t.length];
+      for (String s : t) {
+        if (s != null) {
+          insert(bigger, s);
+        }
+      }
+      insert(bigger, tag);
+      table = bigger;
+    } else {
+      t[i] = tag;
+    }
+    size++;
+    return tag;
+  }
+
+  private static void insert(String[] t, String tag) {
+    int mask = t.length - 1;
+    int i = tag.hashCode() & mask;
+    while (t[i] != null) {
+      i = (i + 1) & mask;
+    }
+    t[i] = tag;
+  }
+
+  synchronized int size() {
+    return size;
+  }
+
+  // the same as String.hashCode(), but without creating a string:
+  private static int hash(CharSequence s, int length) {
+    int hash = 0;
+    for (int i = 0; i < length; i++) {
+      hash = 31 * hash + s.charAt(i);
+    }
+    return hash;
+  }
+
+  private static boolean contentEquals(String s, CharSequence other, int length) {
+    if (s.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (s.charAt(i) != other.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
@@ -22,6 +22,7 @@ package org.languagetool.tagging.disambiguation;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.AnalyzedToken;
 import org.languagetool.AnalyzedTokenReadings;
+import org.languagetool.DisambiguationTrace;
 import org.languagetool.JLanguageTool;
 import org.languagetool.tools.StringTools;
 
@@ -225,22 +226,16 @@ public class MultiWordChunker extends AbstractDisambiguator {
   }
 
   private AnalyzedTokenReadings setAndAnnotate(AnalyzedTokenReadings oldReading, AnalyzedToken newReading) {
-    String old = oldReading.toString();
-    String prevAnot = oldReading.getHistoricalAnnotations();
+    String old = DisambiguationTrace.isEnabled() ? oldReading.toString() : null;
     AnalyzedTokenReadings newAtr = new AnalyzedTokenReadings(oldReading.getReadings(),
             oldReading.getStartPos());
     newAtr.setWhitespaceBefore(oldReading.isWhitespaceBefore());
     newAtr.addReading(newReading);
-    newAtr.setHistoricalAnnotations(
-            annotateToken(prevAnot, old, newAtr.toString()));
+    newAtr.addDisambiguationChange(oldReading, "MULTIWORD_CHUNKER", old);
     newAtr.setChunkTags(oldReading.getChunkTags());
     return newAtr;
   }
   
-  private String annotateToken(String prevAnot, String oldReading, String newReading) {
-    return prevAnot + "\nMULTIWORD_CHUNKER: " + oldReading + " -> " + newReading;
-  }
-
   private List<String> loadWords(InputStream stream) {
     List<String> lines = new ArrayList<>();
     try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
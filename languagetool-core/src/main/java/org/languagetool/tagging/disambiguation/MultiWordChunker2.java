@@ -23,6 +23,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.AnalyzedToken;
 import org.languagetool.AnalyzedTokenReadings;
+import org.languagetool.DisambiguationTrace;
 import org.languagetool.JLanguageTool;
 import org.languagetool.tools.StringTools;
 
@@ -218,8 +219,7 @@ public class MultiWordChunker2 extends AbstractDisambiguator {
   }
 
   private AnalyzedTokenReadings setAndAnnotate(AnalyzedTokenReadings oldReading, AnalyzedToken newReading) {
-    String old = oldReading.toString();
-    String prevAnot = oldReading.getHistoricalAnnotations();
+    String old = DisambiguationTrace.isEnabled() ? oldReading.toString() : null;
 
     List<AnalyzedToken> initialNewReadings = removeOtherReadings ? Arrays.asList(newReading) : oldReading.getReadings();
     AnalyzedTokenReadings newAtr = new AnalyzedTokenReadings(initialNewReadings, oldReading.getStartPos());
@@ -227,16 +227,12 @@ public class MultiWordChunker2 extends AbstractDisambiguator {
     if( ! removeOtherReadings ) {
       newAtr.addReading(newReading);
     }
-    newAtr.setHistoricalAnnotations(annotateToken(prevAnot, old, newAtr.toString()));
+    newAtr.addDisambiguationChange(oldReading, "MULTIWORD_CHUNKER", old);
     newAtr.setChunkTags(oldReading.getChunkTags());
     
     return newAtr;
   }
   
-  private String annotateToken(String prevAnot, String oldReading, String newReading) {
-    return prevAnot + "\nMULTIWORD_CHUNKER: " + oldReading + " -> " + newReading;
-  }
-
   private List<String> loadWords(InputStream stream) {
     List<String> lines = new ArrayList<>();
     try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, "UTF-8"))) {
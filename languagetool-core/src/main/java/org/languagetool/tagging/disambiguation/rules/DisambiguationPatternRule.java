@@ -21,8 +21,10 @@ package org.languagetool.tagging.disambiguation.rules;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
@@ -31,6 +33,7 @@ import org.languagetool.Language;
 import org.languagetool.rules.patterns.AbstractPatternRule;
 import org.languagetool.rules.patterns.PatternToken;
 import org.languagetool.rules.patterns.Match;
+import org.languagetool.tools.StringTools;
 
 /**
  * A Rule that describes a pattern of words or part-of-speech tags used for
@@ -48,6 +51,9 @@ public class DisambiguationPatternRule extends AbstractPatternRule {
   private final String disambiguatedPOS;
   private final Match matchElement;
   private final DisambiguatorAction disAction;
+  // case-folded tokens and lemmas that must occur in a sentence for the rule to match:
+  private final Set<String> anchorTokens;
+  private final Set<String> anchorLemmas;
 
   private AnalyzedToken[] newTokenReadings;
   private List<DisambiguatedExample> examples = new ArrayList<>();
@@ -78,6 +84,8 @@ public class DisambiguationPatternRule extends AbstractPatternRule {
     this.disambiguatedPOS = disambiguatedPOS;
     this.matchElement = posSelect;
     this.disAction = Objects.requireNonNull(disambAction);
+    this.anchorTokens = getAnchorSet(false);
+    this.anchorLemmas = getAnchorSet(true);
   }
 
   /**
@@ -97,8 +105,52 @@ public class DisambiguationPatternRule extends AbstractPatternRule {
    * @return {@link AnalyzedSentence} Disambiguated sentence (might be unchanged).
    */
   public final AnalyzedSentence replace(AnalyzedSentence sentence) throws IOException {
+    DisambiguationWorkspace workspace = new DisambiguationWorkspace(sentence);
+    replace(workspace);
+    return workspace.toSentence();
+  }
+
+  /**
+   * Performs disambiguation on the tokens of the workspace, changing them in place.
+   * @since 4.7
+   */
+  final void replace(DisambiguationWorkspace workspace) throws IOException {
+    if (canBeIgnoredFor(workspace)) {
+      return;
+    }
     DisambiguationPatternRuleReplacer replacer = new DisambiguationPatternRuleReplacer(this);
-    return replacer.replace(sentence);
+    replacer.replace(workspace);
+    workspace.finishRule();
+  }
+
+  /**
+   * A fast check whether this rule can be ignored for the sentence because
+   * it can never match, as one of the words of the pattern is missing.
+   */
+  private boolean canBeIgnoredFor(DisambiguationWorkspace workspace) {
+    return (!anchorTokens.isEmpty() && !workspace.mayContainTokens(anchorTokens))
+        || (!anchorLemmas.isEmpty() && !workspace.mayContainLemmas(anchorLemmas));
+  }
+
+  // tokens that just refer to a word - no regex, negation etc. - and which every match must contain
+  private Set<String> getAnchorSet(boolean isInflected) {
+    Set<String> set = new HashSet<>();
+    for (PatternToken patternToken : patternTokens) {
+      if (patternToken.getMinOccurrence() == 0) {
+        // optional tokens make the replacer accept matches that are shorter than the pattern
+        return Collections.emptySet();
+      }
+    }
+    for (PatternToken patternToken : patternTokens) {
+      if (patternToken.isInflected() == isInflected && !patternToken.getNegation() && !patternToken.isRegularExpression()
+          && !patternToken.isReferenceElement() && !patternToken.hasOrGroup()) {
+        String str = patternToken.getString();
+        if (!StringTools.isEmpty(str)) {
+          set.add(DisambiguationWorkspace.foldCase(str));
+        }
+      }
+    }
+    return Collections.unmodifiableSet(set);
   }
 
   public void setExamples(List<DisambiguatedExample> examples) {
@@ -26,9 +26,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.AnalyzedToken;
 import org.languagetool.AnalyzedTokenReadings;
+import org.languagetool.DisambiguationTrace;
 import org.languagetool.chunking.ChunkTag;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.patterns.*;
@@ -46,18 +48,17 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
     pTokensMatched = new ArrayList<>(rule.getPatternTokens().size());
   }
 
-  public final AnalyzedSentence replace(AnalyzedSentence sentence)
-      throws IOException {
+  /**
+   * Applies the rule to the tokens of the workspace, changing them in place.
+   */
+  final void replace(DisambiguationWorkspace workspace) throws IOException {
     List<PatternTokenMatcher> patternTokenMatchers = createElementMatchers();
 
-    AnalyzedTokenReadings[] tokens = sentence.getTokensWithoutWhitespace();
-    AnalyzedTokenReadings[] preDisambigTokens = sentence.getTokens();
-    AnalyzedTokenReadings[] whTokens = sentence.getTokens();
+    AnalyzedTokenReadings[] tokens = workspace.getTokensWithoutWhitespace();
     int[] tokenPositions = new int[tokens.length + 1];
     int patternSize = patternTokenMatchers.size();
     int limit = Math.max(0, tokens.length - patternSize + 1);
     PatternTokenMatcher pTokenMatcher = null;
-    boolean changed = false;
 
     pTokensMatched.clear();
     // the list has exactly the same number of elements as the list of ElementMatchers:
@@ -145,17 +146,12 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
           }
           tokenCount++;
         }
-        if (keepDespiteFilter(tokens, tokenPositions, firstMatchToken, lastMatchToken) && keepByDisambig(sentence, ruleMatchFromPos, ruleMatchToPos)) {
-          whTokens = executeAction(sentence, whTokens, unifiedTokens, firstMatchToken, lastMarkerMatchToken, matchingTokens, tokenPositions);
-          changed = true;
+        if (keepDespiteFilter(tokens, tokenPositions, firstMatchToken, lastMatchToken) && keepByDisambig(workspace.getSentence(), ruleMatchFromPos, ruleMatchToPos)) {
+          executeAction(workspace, unifiedTokens, firstMatchToken, lastMarkerMatchToken, matchingTokens, tokenPositions);
         }
       }
       i++;
     }
-    if (changed) {
-      return new AnalyzedSentence(whTokens, preDisambigTokens);
-    }
-    return sentence;
   }
 
   private boolean keepByDisambig(AnalyzedSentence sentence, int ruleMatchFromPos, int ruleMatchToPos) throws IOException {
@@ -211,12 +207,11 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
   }
 
 
-  private AnalyzedTokenReadings[] executeAction(AnalyzedSentence sentence,
-                                                AnalyzedTokenReadings[] whiteTokens,
-                                                AnalyzedTokenReadings[] unifiedTokens,
-                                                int firstMatchToken, int lastMatchToken,
-                                                int matchingTokens, int[] tokenPositions) {
-    AnalyzedTokenReadings[] whTokens = whiteTokens.clone();
+  private void executeAction(DisambiguationWorkspace workspace,
+                             AnalyzedTokenReadings[] unifiedTokens,
+                             int firstMatchToken, int lastMatchToken,
+                             int matchingTokens, int[] tokenPositions) {
+    AnalyzedTokenReadings[] whTokens = workspace.getTokensForChange();
     DisambiguationPatternRule rule = (DisambiguationPatternRule) this.rule;
 
     int correctedStPos = 0;
@@ -263,7 +258,7 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
       matchingTokensWithCorrection += maxPosCorrection;
     }
 
-    int fromPos = sentence.getOriginalPosition(firstMatchToken + correctedStPos);
+    int fromPos = workspace.getOriginalPosition(firstMatchToken + correctedStPos);
 
     boolean spaceBefore = whTokens[fromPos].isWhitespaceBefore();
     DisambiguationPatternRule.DisambiguatorAction disAction = rule.getAction();
@@ -277,19 +272,19 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
       if (unifiedTokens != null &&
           unifiedTokens.length == matchingTokensWithCorrection - startPositionCorrection + endPositionCorrection) {
         //TODO: unifiedTokens.length is larger > matchingTokensWithCorrection in cases where there are no markers...
-        if (whTokens[sentence.getOriginalPosition(firstMatchToken
+        if (whTokens[workspace.getOriginalPosition(firstMatchToken
             + correctedStPos + unifiedTokens.length - 1)].isSentenceEnd()) {
           unifiedTokens[unifiedTokens.length - 1].setSentEnd();
         }
         for (int i = 0; i < unifiedTokens.length; i++) {
-          int position = sentence.getOriginalPosition(firstMatchToken + correctedStPos + i);
+          int position = workspace.getOriginalPosition(firstMatchToken + correctedStPos + i);
           unifiedTokens[i].setStartPos(whTokens[position].getStartPos());
-          String prevValue = whTokens[position].toString();
-          String prevAnot = whTokens[position].getHistoricalAnnotations();
+          AnalyzedTokenReadings prevToken = whTokens[position];
+          String prevValue = getTraceValue(prevToken);
           List<ChunkTag> chTags = whTokens[position].getChunkTags();
           whTokens[position] = unifiedTokens[i];
           whTokens[position].setChunkTags(chTags);
-          annotateChange(whTokens[position], prevValue, prevAnot);
+          annotateChange(whTokens[position], prevToken, prevValue);
         }
       }
       break;
@@ -298,11 +293,11 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
         if (newTokenReadings.length == matchingTokensWithCorrection
             - startPositionCorrection + endPositionCorrection) {
           for (int i = 0; i < newTokenReadings.length; i++) {
-            int position = sentence.getOriginalPosition(firstMatchToken + correctedStPos + i);
-            String prevValue = whTokens[position].toString();
-            String prevAnot = whTokens[position].getHistoricalAnnotations();
+            int position = workspace.getOriginalPosition(firstMatchToken + correctedStPos + i);
+            AnalyzedTokenReadings prevToken = whTokens[position];
+            String prevValue = getTraceValue(prevToken);
             whTokens[position].removeReading(newTokenReadings[i]);
-            annotateChange(whTokens[position], prevValue, prevAnot);
+            annotateChange(whTokens[position], prevToken, prevValue);
           }
         }
       } else if (!StringTools.isEmpty(disambiguatedPOS)) { // negative filtering
@@ -311,11 +306,11 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
             whTokens[fromPos].getStartPos());
         for (AnalyzedToken analyzedToken : tmp) {
           if (analyzedToken.getPOSTag() != null && p.matcher(analyzedToken.getPOSTag()).matches()) {
-            int position = sentence.getOriginalPosition(firstMatchToken + correctedStPos);
-            String prevValue = whTokens[position].toString();
-            String prevAnot = whTokens[position].getHistoricalAnnotations();
+            int position = workspace.getOriginalPosition(firstMatchToken + correctedStPos);
+            AnalyzedTokenReadings prevToken = whTokens[position];
+            String prevValue = getTraceValue(prevToken);
             whTokens[position].removeReading(analyzedToken);
-            annotateChange(whTokens[position], prevValue, prevAnot);
+            annotateChange(whTokens[position], prevToken, prevValue);
           }
         }
       }
@@ -325,7 +320,7 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
             - startPositionCorrection + endPositionCorrection) {
         for (int i = 0; i < newTokenReadings.length; i++) {
           String token;
-          int position = sentence.getOriginalPosition(firstMatchToken + correctedStPos + i);
+          int position = workspace.getOriginalPosition(firstMatchToken + correctedStPos + i);
           if (newTokenReadings[i].getToken().isEmpty()) {
             token = whTokens[position].getToken();
           } else {
@@ -339,16 +334,16 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
           }
           AnalyzedToken newTok = new AnalyzedToken(token,
               newTokenReadings[i].getPOSTag(), lemma);
-          String prevValue = whTokens[position].toString();
-          String prevAnot = whTokens[position].getHistoricalAnnotations();
+          AnalyzedTokenReadings prevToken = whTokens[position];
+          String prevValue = getTraceValue(prevToken);
           whTokens[position].addReading(newTok);
-          annotateChange(whTokens[position], prevValue, prevAnot);
+          annotateChange(whTokens[position], prevToken, prevValue);
         }
       }
       break;
     case FILTERALL:
       for (int i = 0; i < matchingTokensWithCorrection - startPositionCorrection + endPositionCorrection; i++) {
-        int position = sentence.getOriginalPosition(firstMatchToken + correctedStPos + i);
+        int position = workspace.getOriginalPosition(firstMatchToken + correctedStPos + i);
         PatternToken pToken;
         if (pTokensMatched.get(i + startPositionCorrection)) {
           pToken = rule.getPatternTokens().get(i + startPositionCorrection);
@@ -367,20 +362,20 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
             Match.IncludeRange.NONE);
 
         MatchState matchState = tmpMatchToken.createState(rule.getLanguage().getSynthesizer(), whTokens[position]);
-        String prevValue = whTokens[position].toString();
-        String prevAnot = whTokens[position].getHistoricalAnnotations();
+        AnalyzedTokenReadings prevToken = whTokens[position];
+        String prevValue = getTraceValue(prevToken);
         whTokens[position] = matchState.filterReadings();
-        annotateChange(whTokens[position], prevValue, prevAnot);
+        annotateChange(whTokens[position], prevToken, prevValue);
       }
       break;
     case IMMUNIZE:
       for (int i = 0; i < matchingTokensWithCorrection - startPositionCorrection + endPositionCorrection; i++) {
-        whTokens[sentence.getOriginalPosition(firstMatchToken + correctedStPos + i)].immunize();
+        whTokens[workspace.getOriginalPosition(firstMatchToken + correctedStPos + i)].immunize();
       }
       break;
     case IGNORE_SPELLING:
       for (int i = 0; i < matchingTokensWithCorrection - startPositionCorrection + endPositionCorrection; i++) {
-        whTokens[sentence.getOriginalPosition(firstMatchToken + correctedStPos + i)].ignoreSpelling();
+        whTokens[workspace.getOriginalPosition(firstMatchToken + correctedStPos + i)].ignoreSpelling();
       }
       break;
     case FILTER:
@@ -402,10 +397,10 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
         }
         if (newPOSmatches) {
           MatchState matchState = tmpMatchToken.createState(rule.getLanguage().getSynthesizer(), whTokens[fromPos]);
-          String prevValue = whTokens[fromPos].toString();
-          String prevAnot = whTokens[fromPos].getHistoricalAnnotations();
+          AnalyzedTokenReadings prevToken = whTokens[fromPos];
+          String prevValue = getTraceValue(prevToken);
           whTokens[fromPos] = matchState.filterReadings();
-          annotateChange(whTokens[fromPos], prevValue, prevAnot);
+          annotateChange(whTokens[fromPos], prevToken, prevValue);
         }
         break;
       }
@@ -416,7 +411,7 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
           if (newTokenReadings.length == matchingTokensWithCorrection - startPositionCorrection + endPositionCorrection) {
             for (int i = 0; i < newTokenReadings.length; i++) {
               String token;
-              int position = sentence.getOriginalPosition(firstMatchToken + correctedStPos + i);
+              int position = workspace.getOriginalPosition(firstMatchToken + correctedStPos + i);
               if ("".equals(newTokenReadings[i].getToken())) { // empty token
                 token = whTokens[position].getToken();
               } else {
@@ -455,27 +450,30 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
         } else {
           // using the match element
           MatchState matchElementState = matchElement.createState(rule.getLanguage().getSynthesizer(), whTokens[fromPos]);
-          String prevValue = whTokens[fromPos].toString();
-          String prevAnot = whTokens[fromPos].getHistoricalAnnotations();
+          AnalyzedTokenReadings prevToken = whTokens[fromPos];
+          String prevValue = getTraceValue(prevToken);
           whTokens[fromPos] = matchElementState.filterReadings();
           whTokens[fromPos].setWhitespaceBefore(spaceBefore);
-          annotateChange(whTokens[fromPos], prevValue, prevAnot);
+          annotateChange(whTokens[fromPos], prevToken, prevValue);
         }
       }
+  }
 
-    return whTokens;
+  @Nullable
+  private static String getTraceValue(AnalyzedTokenReadings atr) {
+    return DisambiguationTrace.isEnabled() ? atr.toString() : null;
   }
 
   private void annotateChange(AnalyzedTokenReadings atr,
-      String prevValue, String prevAnot) {
-    atr.setHistoricalAnnotations(prevAnot + "\n" + rule.getFullId() + ": "
-        + prevValue + " -> " + atr);
+      AnalyzedTokenReadings prevToken, @Nullable String prevValue) {
+    if (prevValue != null) {
+      atr.addDisambiguationChange(prevToken, rule.getFullId(), prevValue);
+    }
   }
 
   private AnalyzedTokenReadings replaceTokens(AnalyzedTokenReadings oldAtr,
       AnalyzedTokenReadings newAtr) {
-    String prevValue = oldAtr.toString();
-    String prevAnot = oldAtr.getHistoricalAnnotations();
+    String prevValue = getTraceValue(oldAtr);
     boolean isSentEnd = oldAtr.isSentenceEnd();
     boolean isParaEnd = oldAtr.isParagraphEnd();
     boolean spaceBefore = oldAtr.isWhitespaceBefore();
@@ -493,7 +491,7 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
     if (oldAtr.isImmunized()) {
       newAtr.immunize();
     }
-    annotateChange(newAtr, prevValue, prevAnot);
+    annotateChange(newAtr, oldAtr, prevValue);
     return newAtr;
   }
 }
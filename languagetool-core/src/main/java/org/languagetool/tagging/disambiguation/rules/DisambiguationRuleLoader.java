@@ -18,13 +18,11 @@
  */
 package org.languagetool.tagging.disambiguation.rules;
 
-import org.languagetool.tools.Tools;
+import org.languagetool.rules.patterns.RuleFileSnapshot;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
@@ -40,10 +38,7 @@ public class DisambiguationRuleLoader extends DefaultHandler {
   public final List<DisambiguationPatternRule> getRules(InputStream stream)
       throws ParserConfigurationException, SAXException, IOException {
     DisambiguationRuleHandler handler = new DisambiguationRuleHandler();
-    SAXParserFactory factory = SAXParserFactory.newInstance();
-    SAXParser saxParser = factory.newSAXParser();
-    Tools.setPasswordAuthenticator();
-    saxParser.parse(stream, handler);
+    RuleFileSnapshot.parse(stream, "disambiguation", true, handler);
     return handler.getDisambRules();
   }
 
@@ -0,0 +1,203 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging.disambiguation.rules;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.AnalyzedToken;
+import org.languagetool.AnalyzedTokenReadings;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The tokens of a sentence while disambiguation rules are applied to it. The rules
+ * change the tokens in place and the {@link AnalyzedSentence} is only built once
+ * all rules have been applied. Rules match against the state the tokens had when
+ * the rule started, like they did when each rule created a new sentence.
+ * @since 4.7
+ */
+final class DisambiguationWorkspace {
+
+  private final AnalyzedSentence input;
+  // case-folded tokens and lemmas of all readings the sentence has had so far, so
+  // they might contain more than the current readings, but never less:
+  private final Set<String> tokenSet = new HashSet<>();
+  private final Set<String> lemmaSet = new HashSet<>();
+
+  private AnalyzedTokenReadings[] tokens;          // current tokens, including whitespace
+  private AnalyzedTokenReadings[] previousTokens;  // tokens before the last rule that changed them
+  private AnalyzedTokenReadings[] olderTokens;     // tokens before the rule that created previousTokens
+  private boolean changedByCurrentRule;
+  private boolean setsOutdated = true;
+
+  // the state when the current rule started, created on demand:
+  private AnalyzedTokenReadings[] nonBlankTokens;
+  private int[] whPositions;
+  private AnalyzedSentence sentence;
+
+  DisambiguationWorkspace(AnalyzedSentence input) {
+    this.input = input;
+    this.tokens = input.getTokens();
+    this.previousTokens = input.getPreDisambigTokens();
+    this.sentence = input;
+  }
+
+  /**
+   * The tokens without whitespace as they were when the current rule started. Don't modify the array.
+   */
+  AnalyzedTokenReadings[] getTokensWithoutWhitespace() {
+    if (nonBlankTokens == null) {
+      initNonBlankTokens();
+    }
+    return nonBlankTokens;
+  }
+
+  /**
+   * Like {@link AnalyzedSentence#getOriginalPosition(int)}, for the state when the current rule started.
+   */
+  int getOriginalPosition(int nonWhPosition) {
+    if (getRuleStartTokens() == input.getTokens()) {
+      return input.getOriginalPosition(nonWhPosition);
+    }
+    if (whPositions == null) {
+      initNonBlankTokens();
+    }
+    return whPositions[nonWhPosition];
+  }
+
+  /**
+   * The sentence as it was when the current rule started.
+   */
+  AnalyzedSentence getSentence() {
+    if (sentence == null) {
+      sentence = changedByCurrentRule ? new AnalyzedSentence(previousTokens, olderTokens) : new AnalyzedSentence(tokens, previousTokens);
+    }
+    return sentence;
+  }
+
+  /**
+   * The current tokens, including whitespace, to be changed by the current rule.
+   */
+  AnalyzedTokenReadings[] getTokensForChange() {
+    if (!changedByCurrentRule) {
+      olderTokens = previousTokens;
+      previousTokens = tokens;
+      tokens = tokens.clone();
+      changedByCurrentRule = true;
+    }
+    return tokens;
+  }
+
+  /**
+   * Called after each rule, so the next rule sees the changes.
+   */
+  void finishRule() {
+    if (changedByCurrentRule) {
+      changedByCurrentRule = false;
+      setsOutdated = true;
+      nonBlankTokens = null;
+      whPositions = null;
+      sentence = null;
+    }
+  }
+
+  /**
+   * Whether the given tokens (case-folded with {@link #foldCase(String)}) might occur in the tokens
+   * the current rule matches against. {@code false} means that at least one of them doesn't occur
+   * as a token of any reading.
+   */
+  boolean mayContainTokens(Set<String> foldedTokens) {
+    updateSets();
+    return tokenSet.containsAll(foldedTokens);
+  }
+
+  /**
+   * Like {@link #mayContainTokens(Set)}, but for lemmas (or tokens for readings without a lemma).
+   */
+  boolean mayContainLemmas(Set<String> foldedLemmas) {
+    updateSets();
+    return lemmaSet.containsAll(foldedLemmas);
+  }
+
+  /**
+   * The disambiguated sentence, which is the input sentence itself if no rule has changed it.
+   */
+  AnalyzedSentence toSentence() {
+    if (tokens == input.getTokens()) {
+      return input;
+    }
+    return new AnalyzedSentence(tokens, previousTokens);
+  }
+
+  /**
+   * Case-folds the string so that strings that are equal ignoring case
+   * (see {@link String#equalsIgnoreCase(String)}) get the same result.
+   */
+  static String foldCase(String s) {
+    StringBuilder sb = new StringBuilder(s.length());
+    for (int i = 0; i < s.length(); ) {
+      int cp = s.codePointAt(i);
+      sb.appendCodePoint(Character.toLowerCase(Character.toUpperCase(cp)));
+      i += Character.charCount(cp);
+    }
+    return sb.toString();
+  }
+
+  private AnalyzedTokenReadings[] getRuleStartTokens() {
+    return changedByCurrentRule ? previousTokens : tokens;
+  }
+
+  private void initNonBlankTokens() {
+    AnalyzedTokenReadings[] ruleStartTokens = getRuleStartTokens();
+    if (ruleStartTokens == input.getTokens()) {
+      // not necessarily the same as computing them from the tokens, as the tokens might
+      // have been replaced in the array after the sentence was created:
+      nonBlankTokens = input.getTokensWithoutWhitespace();
+      return;
+    }
+    AnalyzedTokenReadings[] nonBlank = new AnalyzedTokenReadings[ruleStartTokens.length];
+    int[] mapping = new int[ruleStartTokens.length + 1];
+    int nonWhCounter = 0;
+    for (int i = 0; i < ruleStartTokens.length; i++) {
+      AnalyzedTokenReadings token = ruleStartTokens[i];
+      if (!token.isWhitespace() || token.isSentenceStart() || token.isSentenceEnd() || token.isParagraphEnd()) {
+        nonBlank[nonWhCounter] = token;
+        mapping[nonWhCounter] = i;
+        nonWhCounter++;
+      }
+    }
+    AnalyzedTokenReadings[] result = new AnalyzedTokenReadings[nonWhCounter];
+    System.arraycopy(nonBlank, 0, result, 0, nonWhCounter);
+    nonBlankTokens = result;
+    whPositions = mapping;
+  }
+
+  private void updateSets() {
+    if (setsOutdated) {
+      for (AnalyzedTokenReadings token : getTokensWithoutWhitespace()) {
+        for (AnalyzedToken reading : token) {
+          tokenSet.add(foldCase(reading.getToken()));
+          lemmaSet.add(foldCase(reading.getLemma() != null ? reading.getLemma() : reading.getToken()));
+        }
+      }
+      setsOutdated = false;
+    }
+  }
+
+}
@@ -55,11 +55,11 @@ public class XmlRuleDisambiguator extends AbstractDisambiguator {
 
   @Override
   public AnalyzedSentence disambiguate(AnalyzedSentence input) throws IOException {
-    AnalyzedSentence sentence = input;
+    DisambiguationWorkspace workspace = new DisambiguationWorkspace(input);
     for (DisambiguationPatternRule patternRule : disambiguationRules) {
-      sentence = patternRule.replace(sentence);
+      patternRule.replace(workspace);
     }
-    return sentence;
+    return workspace.toSentence();
   }
 
   /**
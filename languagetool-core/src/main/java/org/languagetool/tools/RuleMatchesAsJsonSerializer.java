@@ -27,6 +27,7 @@ import org.languagetool.markup.AnnotatedText;
 import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.*;
 import org.languagetool.rules.patterns.AbstractPatternRule;
+import org.languagetool.rules.spelling.SpellingCheckRule;
 
 import java.io.IOException;
 import java.io.StringWriter;
@@ -79,6 +80,16 @@ public class RuleMatchesAsJsonSerializer {
    */
   public String ruleMatchesToJson(List<RuleMatch> matches, List<RuleMatch> hiddenMatches, AnnotatedText text, int contextSize,
                                   DetectedLanguage detectedLang, String incompleteResultsReason) {
+    return ruleMatchesToJson(matches, hiddenMatches, text, contextSize, detectedLang, incompleteResultsReason, -1);
+  }
+
+  /**
+   * @param incompleteResultsCheckedUpTo if results are incomplete because checking stopped in the middle of the text
+   *        (see {@link org.languagetool.CheckDeadline}), the position up to which the text has been checked, {@code -1} otherwise
+   * @since 4.7
+   */
+  public String ruleMatchesToJson(List<RuleMatch> matches, List<RuleMatch> hiddenMatches, AnnotatedText text, int contextSize,
+                                  DetectedLanguage detectedLang, String incompleteResultsReason, int incompleteResultsCheckedUpTo) {
     ContextTools contextTools = new ContextTools();
     contextTools.setEscapeHtml(false);
     contextTools.setContextSize(contextSize);
@@ -89,7 +100,7 @@ public class RuleMatchesAsJsonSerializer {
       try (JsonGenerator g = factory.createGenerator(sw)) {
         g.writeStartObject();
         writeSoftwareSection(g);
-        writeWarningsSection(g, incompleteResultsReason);
+        writeWarningsSection(g, incompleteResultsReason, incompleteResultsCheckedUpTo);
         writeLanguageSection(g, detectedLang);
         writeMatchesSection("matches", g, matches, text, contextTools, detectedLang.getGivenLanguage());
         if (hiddenMatches != null && hiddenMatches.size() > 0) {
@@ -120,7 +131,7 @@ public class RuleMatchesAsJsonSerializer {
     g.writeEndObject();
   }
 
-  private void writeWarningsSection(JsonGenerator g, String incompleteResultsReason) throws IOException {
+  private void writeWarningsSection(JsonGenerator g, String incompleteResultsReason, int incompleteResultsCheckedUpTo) throws IOException {
     if (compactMode == 1 && incompleteResultsReason == null) {
       return;
     }
@@ -128,6 +139,9 @@ public class RuleMatchesAsJsonSerializer {
     if (incompleteResultsReason != null) {
       g.writeBooleanField("incompleteResults", true);
       g.writeStringField("incompleteResultsReason", incompleteResultsReason);
+      if (incompleteResultsCheckedUpTo >= 0) {
+        g.writeNumberField("incompleteResultsCheckedUpTo", incompleteResultsCheckedUpTo);
+      }
     } else {
       g.writeBooleanField("incompleteResults", false);
     }
@@ -161,6 +175,7 @@ public class RuleMatchesAsJsonSerializer {
         g.writeStringField("shortMessage", cleanSuggestion(match.getShortMessage()));
       }
       writeReplacements(g, match);
+      writeSuggestionToken(g, match, text);
       g.writeNumberField("offset", match.getFromPos());
       g.writeNumberField("length", match.getToPos()-match.getFromPos());
       writeContext(g, match, text, contextTools);
@@ -204,6 +219,17 @@ public class RuleMatchesAsJsonSerializer {
     g.writeEndArray();
   }
 
+  /**
+   * For spelling matches whose suggestions have not been computed, the token the suggestions
+   * can be requested with later. For now, this is simply the misspelled word.
+   */
+  private void writeSuggestionToken(JsonGenerator g, RuleMatch match, AnnotatedText text) throws IOException {
+    if (match.getRule() instanceof SpellingCheckRule && ((SpellingCheckRule) match.getRule()).defersSuggestions()
+        && match.getSuggestedReplacementObjects().isEmpty()) {
+      g.writeStringField("suggestionToken", text.getTextWithMarkup().substring(match.getFromPos(), match.getToPos()));
+    }
+  }
+
   private void writeContext(JsonGenerator g, RuleMatch match, AnnotatedText text, ContextTools contextTools) throws IOException {
     String context = contextTools.getContext(match.getFromPos(), match.getToPos(), text.getTextWithMarkup());
     int contextOffset = context.indexOf(START_MARKER);
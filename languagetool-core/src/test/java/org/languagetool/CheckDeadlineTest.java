@@ -0,0 +1,96 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class CheckDeadlineTest {
+
+  private static final int SENTENCES = 30;
+
+  @Test
+  public void testCheckStopsAtSentenceBoundary() throws IOException {
+    JLanguageTool lt = new JLanguageTool(new FakeLanguage());
+    lt.addRule(new SlowRule());
+    String text = getText();
+    CheckDeadline deadline = new CheckDeadline(100);
+    List<RuleMatch> matches = lt.check(new AnnotatedTextBuilder().addText(text).build(), true,
+      JLanguageTool.ParagraphHandling.NORMAL, null, JLanguageTool.Mode.ALL, deadline);
+    assertTrue(deadline.isIncomplete());
+    int checkedUpTo = deadline.getCheckedUpTo();
+    assertTrue(checkedUpTo > 0 && checkedUpTo < text.length());
+    assertTrue(text.startsWith("Sentence", checkedUpTo));
+    // one match for each sentence before the position, none after it:
+    assertThat(matches.size(), is(text.substring(0, checkedUpTo).split("Sentence").length - 1));
+    for (RuleMatch match : matches) {
+      assertTrue(match.getToPos() <= checkedUpTo);
+    }
+  }
+
+  @Test
+  public void testCheckBeforeDeadline() throws IOException {
+    JLanguageTool lt = new JLanguageTool(new FakeLanguage());
+    lt.addRule(new SlowRule());
+    CheckDeadline deadline = new CheckDeadline(60_000);
+    List<RuleMatch> matches = lt.check(new AnnotatedTextBuilder().addText(getText()).build(), true,
+      JLanguageTool.ParagraphHandling.NORMAL, null, JLanguageTool.Mode.ALL, deadline);
+    assertFalse(deadline.isIncomplete());
+    assertThat(deadline.getCheckedUpTo(), is(-1));
+    assertThat(matches.size(), is(SENTENCES));
+  }
+
+  private String getText() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < SENTENCES; i++) {
+      sb.append("Sentence number ").append(i).append(". ");
+    }
+    return sb.toString();
+  }
+
+  private static class SlowRule extends Rule {
+    @Override
+    public String getId() {
+      return "SLOW_RULE";
+    }
+    @Override
+    public String getDescription() {
+      return "Marks the first word of each sentence, slowly";
+    }
+    @Override
+    public RuleMatch[] match(AnalyzedSentence sentence) throws IOException {
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      AnalyzedTokenReadings token = sentence.getTokensWithoutWhitespace()[1];
+      return new RuleMatch[]{new RuleMatch(this, sentence, token.getStartPos(), token.getEndPos(), "slow match")};
+    }
+  }
+
+}
@@ -0,0 +1,74 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.After;
+import org.junit.Test;
+import org.languagetool.language.Demo;
+import org.languagetool.rules.patterns.PatternToken;
+import org.languagetool.tagging.disambiguation.rules.DisambiguationPatternRule;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class DisambiguationTraceTest {
+
+  @After
+  public void tearDown() {
+    DisambiguationTrace.setEnabled(true);
+  }
+
+  @Test
+  public void testTrace() throws IOException {
+    AnalyzedTokenReadings token = disambiguate("A foo bar.");
+    assertEquals("\nMY_ID: foo[foo/null] -> foo[foo/NN]\nMY_ID: foo[foo/NN] -> foo[foo/VB]", token.getHistoricalAnnotations());
+    DisambiguationTrace trace = token.getDisambiguationTrace();
+    assertNotNull(trace);
+    assertEquals("MY_ID", trace.getSource());
+    assertEquals("foo[foo/NN]", trace.getBefore());
+    assertEquals("foo[foo/VB]", trace.getAfter());
+    assertEquals(2, trace.getChanges().size());
+    assertSame(trace.getPrevious(), trace.getChanges().get(0));
+  }
+
+  @Test
+  public void testDisabledTrace() throws IOException {
+    DisambiguationTrace.setEnabled(false);
+    AnalyzedTokenReadings token = disambiguate("A foo bar.");
+    assertEquals("foo[foo/VB]", token.toString());
+    assertEquals("", token.getHistoricalAnnotations());
+    assertNull(token.getDisambiguationTrace());
+  }
+
+  private AnalyzedTokenReadings disambiguate(String text) throws IOException {
+    Demo demo = new Demo();
+    JLanguageTool lt = new JLanguageTool(demo);
+    DisambiguationPatternRule rule1 = new DisambiguationPatternRule("MY_ID", "desc", demo,
+        Arrays.asList(new PatternToken("foo", false, false, false)),
+        "NN", null, DisambiguationPatternRule.DisambiguatorAction.REPLACE);
+    DisambiguationPatternRule rule2 = new DisambiguationPatternRule("MY_ID", "desc", demo,
+        Arrays.asList(new PatternToken("foo", false, false, false), new PatternToken("bar", false, false, false)),
+        "VB", null, DisambiguationPatternRule.DisambiguatorAction.REPLACE);
+    AnalyzedSentence sentence = rule2.replace(rule1.replace(lt.getRawAnalyzedSentence(text)));
+    return sentence.getTokensWithoutWhitespace()[2];
+  }
+
+}
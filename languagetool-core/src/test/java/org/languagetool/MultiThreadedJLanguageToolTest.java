@@ -52,6 +52,29 @@ public class MultiThreadedJLanguageToolTest {
     assertEquals(ruleMatchIds1, ruleMatchIds2);
   }
   
+  @Test
+  public void testCheckWithCache() throws IOException {
+    ResultCache cache = new ResultCache(100);
+    MultiThreadedJLanguageTool lt1 = new MultiThreadedJLanguageTool(new Demo(), null, 2, null, cache);
+    lt1.setCleanOverlappingMatches(false);
+    String input = "A small toast. No error here. Foo go bar.\nFirst goes last there, please!";
+    List<RuleMatch> matches1 = lt1.check(input);
+    List<RuleMatch> matches2 = lt1.check(input);
+    assertThat(cache.hitCount(), is(8L));  // 4 sentences, each analyzed and checked
+    lt1.shutdown();
+
+    JLanguageTool lt2 = new JLanguageTool(new Demo());
+    lt2.setCleanOverlappingMatches(false);
+    List<RuleMatch> matches3 = lt2.check(input);
+    assertEquals(matches3.toString(), matches1.toString());
+    assertEquals(matches3.toString(), matches2.toString());
+    for (int i = 0; i < matches3.size(); i++) {
+      assertThat(matches1.get(i).getLine(), is(matches3.get(i).getLine()));
+      assertThat(matches1.get(i).getColumn(), is(matches3.get(i).getColumn()));
+      assertThat(matches2.get(i).getEndColumn(), is(matches3.get(i).getEndColumn()));
+    }
+  }
+
   @Test
   public void testShutdownException() throws IOException {
     MultiThreadedJLanguageTool tool = new MultiThreadedJLanguageTool(new Demo());
@@ -0,0 +1,73 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.After;
+import org.junit.Test;
+import org.languagetool.language.Demo;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.*;
+
+public class RuleTimingStatsTest {
+
+  @After
+  public void tearDown() {
+    RuleTimingStats.setSampleInterval(0);
+    RuleTimingStats.reset();
+  }
+
+  @Test
+  public void testRecord() {
+    RuleTimingStats.record("xx", "RULE", 5_000);
+    RuleTimingStats.record("xx", "RULE", 20_000);
+    RuleTimingStats.record("xx", "RULE", 5_000_000_000L);
+    List<RuleTimingStats.Histogram> histograms = RuleTimingStats.getHistograms();
+    assertEquals(1, histograms.size());
+    RuleTimingStats.Histogram histogram = histograms.get(0);
+    assertEquals("xx", histogram.getLanguage());
+    assertEquals("RULE", histogram.getRuleId());
+    long[] counts = histogram.getBucketCounts();
+    assertEquals(RuleTimingStats.getBucketBounds().length + 1, counts.length);
+    assertEquals(1, counts[0]);
+    assertEquals(1, counts[1]);
+    assertEquals(1, counts[counts.length - 1]);
+    assertEquals(5_000_025_000L, histogram.getSumNanos());
+  }
+
+  @Test
+  public void testSampling() throws IOException {
+    JLanguageTool lt = new JLanguageTool(new Demo());
+    lt.check("A sentence.");
+    assertTrue(RuleTimingStats.getHistograms().isEmpty());
+
+    RuleTimingStats.setSampleInterval(1);
+    lt.check("A sentence.");
+    List<RuleTimingStats.Histogram> histograms = RuleTimingStats.getHistograms();
+    assertFalse(histograms.isEmpty());
+    for (RuleTimingStats.Histogram histogram : histograms) {
+      assertEquals("xx-XX", histogram.getLanguage());
+      assertEquals(1, LongStream.of(histogram.getBucketCounts()).sum());
+    }
+  }
+
+}
@@ -0,0 +1,83 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.language;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class FasttextProcessPoolTest {
+
+  @Before
+  public void setUp() {
+    // we use 'cat' and the shell instead of a real fasttext binary:
+    assumeTrue(new File("/bin/sh").canExecute());
+  }
+
+  @Test
+  public void testPredict() throws IOException {
+    FasttextProcessPool pool = new FasttextProcessPool(Arrays.asList("/bin/sh", "-c", "cat"), 2);
+    try {
+      for (int i = 0; i < 10; i++) {
+        assertEquals("line " + i, pool.predict("line " + i));
+      }
+      List<FasttextStats> stats = pool.getStats();
+      assertEquals(2, stats.size());
+      // idle processes are used round-robin:
+      assertEquals(5, stats.get(0).getRequests());
+      assertEquals(5, stats.get(1).getRequests());
+      assertTrue(stats.get(0).isAlive());
+      assertEquals(0, stats.get(0).getFailures());
+    } finally {
+      pool.destroy();
+    }
+  }
+
+  @Test
+  public void testFailingProcess() throws IOException {
+    // reads one line, then exits without an answer:
+    FasttextProcessPool pool = new FasttextProcessPool(Arrays.asList("/bin/sh", "-c", "read l"), 1);
+    try {
+      assertTrue(pool.hasRunningProcess());
+      try {
+        pool.predict("foo");
+        fail();
+      } catch (IOException expected) {}
+      assertFalse(pool.hasRunningProcess());
+      FasttextStats stats = pool.getStats().get(0);
+      assertFalse(stats.isAlive());
+      assertEquals(0, stats.getRequests());
+      assertEquals(1, stats.getFailures());
+      try {
+        pool.predict("bar");
+        fail();
+      } catch (IOException expected) {}
+    } finally {
+      pool.destroy();
+    }
+  }
+
+}
@@ -56,6 +56,34 @@ public class AnnotatedTextTest {
     assertThat(text.getOriginalTextPositionFor(8), is(11));
   }
 
+  @Test
+  public void testPositionLookupOrder() {
+    AnnotatedText text = new AnnotatedTextBuilder().
+            // text:
+            // <p>a <b>bc</b></p><p>de</p>
+            addMarkup("<p>").
+            addText("a ").
+            addMarkup("<b>").
+            addText("bc").
+            addMarkup("</b>").
+            addMarkup("</p>").
+            addMarkup("<p>").
+            addText("de").
+            addMarkup("</p>").
+            build();
+    assertThat(text.getPlainText(), is("a bcde"));
+    int[] expected = {3, 4, 8, 9, 21, 22, 27};
+    for (int i = 0; i < expected.length; i++) {
+      assertThat(text.getOriginalTextPositionFor(i), is(expected[i]));
+    }
+    for (int i = expected.length - 1; i >= 0; i--) {
+      assertThat(text.getOriginalTextPositionFor(i), is(expected[i]));
+    }
+    assertThat(text.getOriginalTextPositionFor(5), is(22));
+    assertThat(text.getOriginalTextPositionFor(1), is(4));
+    assertThat(text.getOriginalTextPositionFor(4), is(21));
+  }
+
   @Test
   public void testIgnoreInterpretAs() {   // https://github.com/languagetool-org/languagetool/issues/1393
     AnnotatedText text = new AnnotatedTextBuilder().
@@ -0,0 +1,54 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class PhraseTrieTest {
+
+  @Test
+  public void testPhrases() {
+    PhraseTrie<String> trie = new PhraseTrie<>();
+    assertTrue(trie.add(Arrays.asList("foo"), "1"));
+    assertTrue(trie.add(Arrays.asList("foo", " ", "bar"), "2"));
+    assertTrue(trie.add(Arrays.asList("foo", ".", "bar"), "3"));
+    PhraseTrie.Node<String> foo = trie.getRoot().getChild("foo", false);
+    assertEquals("1", foo.getValue());
+    assertEquals("2", foo.getChild("bar", true).getValue());
+    assertNull(foo.getChild("bar", false));
+    assertEquals("3", foo.getChild(".", false).getChild("bar", false).getValue());
+    assertNull(foo.getChild(".", false).getValue());
+    assertNull(trie.getRoot().getChild("bar", false));
+  }
+
+  @Test
+  public void testPhrasesThatCannotMatch() {
+    PhraseTrie<String> trie = new PhraseTrie<>();
+    assertFalse(trie.add(Arrays.asList(" ", "foo"), "x"));
+    assertFalse(trie.add(Arrays.asList("foo", " "), "x"));
+    assertFalse(trie.add(Arrays.asList("foo", " ", " ", "bar"), "x"));
+    assertFalse(trie.add(Arrays.asList("foo", "\t", "bar"), "x"));
+    assertFalse(trie.add(Arrays.asList(), "x"));
+    assertNull(trie.getRoot().getChild("foo", false).getValue());
+  }
+}
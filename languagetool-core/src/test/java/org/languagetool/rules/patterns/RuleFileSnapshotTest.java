@@ -0,0 +1,112 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import com.google.common.io.ByteStreams;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.languagetool.JLanguageTool;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+public class RuleFileSnapshotTest {
+
+  private static final String NAME = "/xx/grammar.xml";
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @After
+  public void tearDown() {
+    RuleFileSnapshot.setCacheDirectory(null);
+  }
+
+  @Test
+  public void testSnapshotCreatesSameRules() throws IOException {
+    byte[] xml = getXml();
+    List<AbstractPatternRule> parsedRules = load(xml);
+
+    File dir = tempFolder.newFolder();
+    RuleFileSnapshot.setCacheDirectory(dir);
+    List<AbstractPatternRule> recordedRules = load(xml);
+    File[] snapshots = dir.listFiles();
+    assertNotNull(snapshots);
+    assertEquals(1, snapshots.length);
+    assertSameRules(parsedRules, recordedRules);
+
+    List<AbstractPatternRule> replayedRules = load(xml);
+    assertSameRules(parsedRules, replayedRules);
+    assertEquals(1, dir.listFiles().length);
+
+    // a modified XML file must not use the old snapshot:
+    byte[] modifiedXml = new String(xml, StandardCharsets.UTF_8).replace("id=\"DEMO_RULE\"", "id=\"DEMO_RULE_MODIFIED\"").getBytes(StandardCharsets.UTF_8);
+    List<AbstractPatternRule> modifiedRules = load(modifiedXml);
+    assertTrue(modifiedRules.stream().anyMatch(rule -> rule.getId().equals("DEMO_RULE_MODIFIED")));
+    assertEquals(2, dir.listFiles().length);
+  }
+
+  @Test
+  public void testReplayChecksVersionAndChecksum() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    RuleFileSnapshot.write(new ByteArrayInputStream(getXml()), false, out);
+    byte[] snapshot = out.toByteArray();
+    assertFalse(RuleFileSnapshot.replay(new ByteArrayInputStream(snapshot), 42, getXml().length, new DefaultHandler()));
+    byte[] truncated = new byte[snapshot.length / 2];
+    System.arraycopy(snapshot, 0, truncated, 0, truncated.length);
+    PatternRuleHandler handler = new PatternRuleHandler(NAME);
+    CRC32 crc = new CRC32();
+    crc.update(getXml());
+    assertFalse(RuleFileSnapshot.replay(new ByteArrayInputStream(truncated), crc.getValue(), getXml().length, handler));
+    assertTrue(handler.getRules().isEmpty());
+    assertTrue(RuleFileSnapshot.replay(new ByteArrayInputStream(snapshot), crc.getValue(), getXml().length, handler));
+    assertFalse(handler.getRules().isEmpty());
+  }
+
+  private byte[] getXml() throws IOException {
+    try (InputStream is = JLanguageTool.getDataBroker().getFromRulesDirAsStream(NAME)) {
+      return ByteStreams.toByteArray(is);
+    }
+  }
+
+  private List<AbstractPatternRule> load(byte[] xml) throws IOException {
+    return new PatternRuleLoader().getRules(new ByteArrayInputStream(xml), NAME);
+  }
+
+  private void assertSameRules(List<AbstractPatternRule> expected, List<AbstractPatternRule> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      AbstractPatternRule expectedRule = expected.get(i);
+      AbstractPatternRule actualRule = actual.get(i);
+      assertEquals(expectedRule.getFullId(), actualRule.getFullId());
+      assertEquals(expectedRule.toString(), actualRule.toString());
+      assertEquals(expectedRule.getSuggestionsOutMsg(), actualRule.getSuggestionsOutMsg());
+      assertEquals(String.valueOf(expectedRule.getPatternTokens()), String.valueOf(actualRule.getPatternTokens()));
+      assertEquals(expectedRule.getMessage(), actualRule.getMessage());
+    }
+  }
+
+}
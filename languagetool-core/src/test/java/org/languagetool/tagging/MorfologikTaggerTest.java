@@ -21,6 +21,7 @@ package org.languagetool.tagging;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 
 import java.io.IOException;
@@ -61,6 +62,16 @@ public class MorfologikTaggerTest {
     assertThat(noResult.size(), is(0));
   }
 
+  @Test
+  public void testTagsAreShared() {
+    URL url = MorfologikTaggerTest.class.getResource("/org/languagetool/tagging/test.dict");
+    MorfologikTagger tagger = new MorfologikTagger(url);
+    String tag1 = tagger.tag("lowercase").get(0).getPosTag();
+    String tag2 = tagger.tag("lowercase").get(0).getPosTag();
+    assertThat(tag1, is("POS1"));
+    assertSame(tag1, tag2);
+  }
+
   @Test
   public void testPositionWithIgnoredChars() throws IOException {
     Demo demoLanguage = new Demo();
@@ -0,0 +1,55 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging;
+
+import org.junit.Test;
+
+import java.nio.CharBuffer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class PosTagTableTest {
+
+  @Test
+  public void testGet() {
+    PosTagTable table = new PosTagTable();
+    assertNull(table.get(null));
+    String tag = table.get(CharBuffer.wrap("SUB:NOM:SIN:MAS"));
+    assertThat(tag, is("SUB:NOM:SIN:MAS"));
+    assertSame(tag, table.get(new StringBuilder("SUB:NOM:SIN:MAS")));
+    assertSame(tag, table.get("SUB:NOM:SIN:MASx", 15));
+    assertThat(table.get("SUB:NOM:SIN:MASx", 16), is("SUB:NOM:SIN:MASx"));
+    assertThat(table.size(), is(2));
+  }
+
+  @Test
+  public void testManyTags() {
+    PosTagTable table = new PosTagTable();
+    for (int i = 0; i < 10_000; i++) {
+      assertThat(table.get("TAG" + i), is("TAG" + i));
+    }
+    assertThat(table.size(), is(10_000));
+    for (int i = 0; i < 10_000; i++) {
+      assertSame(table.get("TAG" + i), table.get(new StringBuilder("TAG").append(i)));
+    }
+    assertThat(table.size(), is(10_000));
+  }
+
+}
@@ -0,0 +1,67 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging.disambiguation.rules;
+
+import org.junit.Test;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.language.Demo;
+import org.languagetool.rules.patterns.PatternToken;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class DisambiguationWorkspaceTest {
+
+  @Test
+  public void testFoldCase() {
+    assertEquals(DisambiguationWorkspace.foldCase("Foo"), DisambiguationWorkspace.foldCase("fOO"));
+    assertEquals(DisambiguationWorkspace.foldCase("ǅ"), DisambiguationWorkspace.foldCase("ǆ"));  // title case 'Dž'
+    assertNotEquals(DisambiguationWorkspace.foldCase("foo"), DisambiguationWorkspace.foldCase("bar"));
+  }
+
+  @Test
+  public void testRulesChangeTokensInPlace() throws IOException {
+    Demo demo = new Demo();
+    JLanguageTool lt = new JLanguageTool(demo);
+    DisambiguationPatternRule rule = new DisambiguationPatternRule("ID", "desc", demo,
+        Arrays.asList(new PatternToken("foo", false, false, false), new PatternToken("bar", false, false, false)),
+        null, null, DisambiguationPatternRule.DisambiguatorAction.IMMUNIZE);
+
+    AnalyzedSentence sentence = lt.getRawAnalyzedSentence("Foo bar.");
+    DisambiguationWorkspace workspace = new DisambiguationWorkspace(sentence);
+    assertTrue(workspace.mayContainTokens(Collections.singleton("bar")));
+    rule.replace(workspace);
+    AnalyzedSentence disambiguated = workspace.toSentence();
+    assertNotSame(sentence, disambiguated);
+    assertTrue(disambiguated.getTokensWithoutWhitespace()[1].isImmunized());
+    assertTrue(disambiguated.getTokensWithoutWhitespace()[2].isImmunized());
+    assertSame(sentence.getTokens(), disambiguated.getPreDisambigTokens());
+
+    AnalyzedSentence otherSentence = lt.getRawAnalyzedSentence("Foo baz.");
+    DisambiguationWorkspace otherWorkspace = new DisambiguationWorkspace(otherSentence);
+    assertFalse(otherWorkspace.mayContainTokens(Collections.singleton("bar")));
+    rule.replace(otherWorkspace);
+    assertSame(otherSentence, otherWorkspace.toSentence());
+  }
+
+}
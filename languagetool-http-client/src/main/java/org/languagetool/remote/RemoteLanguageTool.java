@@ -18,40 +18,64 @@
  */
 package org.languagetool.remote;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import javax.xml.stream.XMLStreamException;
 import java.io.*;
 import java.net.*;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Check a text using a <a href="http://wiki.languagetool.org/http-server">remote LanguageTool server</a> via HTTP or HTTPS.
  * Our public HTTPS API and its restrictions are documented
  * <a href="http://wiki.languagetool.org/public-http-api">in our wiki</a>.
+ * <p>Connections to the server are kept alive and re-used by later checks. Note that the JDK keeps
+ * at most {@code http.maxConnections} (default: 5) idle connections per server.
  * @since 3.4
  */
-@SuppressWarnings("unchecked")
 public class RemoteLanguageTool {
 
   private static final String V2_CHECK = "/v2/check";
   private static final String V2_MAXTEXTLENGTH = "/v2/maxtextlength";
-  
+  // as many as the JDK keeps connections alive by default:
+  private static final int ASYNC_THREADS = 5;
+
+  private static ExecutorService asyncExecutor;
+
   private final ObjectMapper mapper = new ObjectMapper();
   private final URL serverBaseUrl;
+  private final boolean gzipRequests;
 
   /**
    * @param serverBaseUrl for example {@code https://languagetool.org/api} (not ending in slash)
    */
   public RemoteLanguageTool(URL serverBaseUrl) {
+    this(serverBaseUrl, false);
+  }
+
+  /**
+   * @param serverBaseUrl for example {@code https://languagetool.org/api} (not ending in slash)
+   * @param gzipRequests whether to compress the texts sent to the server with gzip - only
+   *                     supported by servers since LanguageTool 4.7
+   * @since 4.7
+   */
+  public RemoteLanguageTool(URL serverBaseUrl, boolean gzipRequests) {
     if (serverBaseUrl.toString().endsWith("/")) {
       throw new IllegalArgumentException("Server base URL must not end with '/': " + serverBaseUrl);
     }
     this.serverBaseUrl = Objects.requireNonNull(serverBaseUrl);
+    this.gzipRequests = gzipRequests;
   }
 
   /**
@@ -70,6 +94,35 @@ public class RemoteLanguageTool {
     return check(getUrlParams(text, config));
   }
 
+  /**
+   * Like {@link #check(String, CheckConfiguration)}, but doesn't wait for the result. Several
+   * texts can be checked at the same time this way, each on its own connection to the server.
+   * @since 4.7
+   */
+  public CompletableFuture<RemoteResult> checkAsync(String text, CheckConfiguration config) {
+    return checkAsync(text, config, getAsyncExecutor());
+  }
+
+  /**
+   * Like {@link #checkAsync(String, CheckConfiguration)}, but running the check with the given executor.
+   * @since 4.7
+   */
+  public CompletableFuture<RemoteResult> checkAsync(String text, CheckConfiguration config, Executor executor) {
+    String urlParameters = getUrlParams(text, config);
+    return CompletableFuture.supplyAsync(() -> check(urlParameters), executor);
+  }
+
+  private static synchronized ExecutorService getAsyncExecutor() {
+    if (asyncExecutor == null) {
+      asyncExecutor = Executors.newFixedThreadPool(ASYNC_THREADS, r -> {
+        Thread thread = new Thread(r, "lt-remote-check");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return asyncExecutor;
+  }
+
   private String getUrlParams(String text, CheckConfiguration config) {
     StringBuilder params = new StringBuilder();
     append(params, "text", text);
@@ -116,55 +169,40 @@ public class RemoteLanguageTool {
   }
 
   private RemoteResult check(String urlParameters) {
-    byte[] postData = urlParameters.getBytes(StandardCharsets.UTF_8);
-    URL checkUrl;
-    try {
-      checkUrl = new URL(serverBaseUrl + V2_CHECK);
-    } catch (MalformedURLException e) {
-      throw new RuntimeException(e);
-    }
-    HttpURLConnection conn = getConnection(postData, checkUrl);
-    try {
-      if (conn.getResponseCode() == HttpURLConnection.HTTP_OK) {
-        try (InputStream inputStream = conn.getInputStream()) {
-          return parseJson(inputStream);
-        }
-      } else {
-        try (InputStream inputStream = conn.getErrorStream()) {
-          String error = readStream(inputStream, "utf-8");
-          throw new RuntimeException("Got error: " + error + " - HTTP response code " + conn.getResponseCode());
-        }
-      }
-    } catch (ConnectException e) {
-      throw new RuntimeException("Could not connect to server at " + serverBaseUrl, e);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    } finally {
-      conn.disconnect();
-    }
+    return post(V2_CHECK, urlParameters.getBytes(StandardCharsets.UTF_8), this::parseJson);
   }
 
   public int getMaxTextLength() {
     byte[] postData = { 0 };
-    URL checkUrl;
+    return post(V2_MAXTEXTLENGTH, postData, inputStream -> {
+      // not closing the reader, as that would close the stream before the connection can be re-used:
+      String line = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)).readLine();
+      return Integer.parseInt(line);
+    });
+  }
+
+  private <T> T post(String path, byte[] postData, ResponseParser<T> parser) {
+    URL url;
     try {
-      checkUrl = new URL(serverBaseUrl + V2_MAXTEXTLENGTH);
+      url = new URL(serverBaseUrl + path);
     } catch (MalformedURLException e) {
       throw new RuntimeException(e);
     }
-    HttpURLConnection conn = getConnection(postData, checkUrl);
+    HttpURLConnection conn = getConnection(postData, url);
+    boolean keepAlive = false;
     try {
       if (conn.getResponseCode() == HttpURLConnection.HTTP_OK) {
-        try (InputStream inputStream = conn.getInputStream()) {
-          StringBuilder sb = new StringBuilder();
-          try (InputStreamReader isr = new InputStreamReader(inputStream, "utf-8");
-               BufferedReader br = new BufferedReader(isr)) {
-            String line = br.readLine();
-            return Integer.parseInt(line);
+        try (InputStream inputStream = getResponseStream(conn, conn.getInputStream())) {
+          T result = parser.parse(inputStream);
+          // the connection can only be re-used if the response has been read completely:
+          while (inputStream.read() != -1) {
+            // skip trailing whitespace
           }
+          keepAlive = true;
+          return result;
         }
       } else {
-        try (InputStream inputStream = conn.getErrorStream()) {
+        try (InputStream inputStream = getResponseStream(conn, conn.getErrorStream())) {
           String error = readStream(inputStream, "utf-8");
           throw new RuntimeException("Got error: " + error + " - HTTP response code " + conn.getResponseCode());
         }
@@ -174,7 +212,9 @@ public class RemoteLanguageTool {
     } catch (Exception e) {
       throw new RuntimeException(e);
     } finally {
-      conn.disconnect();
+      if (!keepAlive) {
+        conn.disconnect();
+      }
     }
   }
 
@@ -186,9 +226,15 @@ public class RemoteLanguageTool {
       conn.setRequestMethod("POST");
       conn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
       conn.setRequestProperty("charset", "utf-8");
-      conn.setRequestProperty("Content-Length", Integer.toString(postData.length));
-      try (DataOutputStream wr = new DataOutputStream(conn.getOutputStream())) {
-        wr.write(postData);
+      conn.setRequestProperty("Accept-Encoding", "gzip");
+      byte[] data = postData;
+      if (gzipRequests) {
+        data = gzip(postData);
+        conn.setRequestProperty("Content-Encoding", "gzip");
+      }
+      conn.setFixedLengthStreamingMode(data.length);
+      try (OutputStream out = conn.getOutputStream()) {
+        out.write(data);
       }
       return conn;
     } catch (Exception e) {
@@ -196,6 +242,21 @@ public class RemoteLanguageTool {
     }
   }
 
+  private static byte[] gzip(byte[] data) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 2);
+    try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+      out.write(data);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static InputStream getResponseStream(HttpURLConnection conn, InputStream stream) throws IOException {
+    if (stream != null && "gzip".equalsIgnoreCase(conn.getContentEncoding())) {
+      return new GZIPInputStream(stream);
+    }
+    return stream;
+  }
+
   private String readStream(InputStream stream, String encoding) throws IOException {
     StringBuilder sb = new StringBuilder();
     try (InputStreamReader isr = new InputStreamReader(stream, encoding);
@@ -208,35 +269,53 @@ public class RemoteLanguageTool {
     return sb.toString();
   }
 
-  private RemoteResult parseJson(InputStream inputStream) throws XMLStreamException, IOException {
-    Map map = mapper.readValue(inputStream, Map.class);
-    Map<String, String> languageObj = (Map<String, String>) map.get("language");
-    String language = languageObj.get("name");
-    String languageCode = languageObj.get("code");
-    Map<String, String> detectedLanguageObj = (Map<String, String>) ((Map)languageObj).get("detectedLanguage");
+  /**
+   * Parse the response while reading it, one match at a time, so that the complete
+   * JSON never needs to be in memory.
+   */
+  private RemoteResult parseJson(InputStream inputStream) throws IOException {
+    JsonNode languageObj = null;
+    JsonNode software = null;
+    List<RemoteRuleMatch> result = new ArrayList<>();
+    JsonParser parser = mapper.getFactory().createParser(inputStream);
+    parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new RuntimeException("Expected JSON object in response, got " + parser.getCurrentToken());
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.getCurrentName();
+      parser.nextToken();
+      if ("language".equals(fieldName)) {
+        languageObj = mapper.readTree(parser);
+      } else if ("software".equals(fieldName)) {
+        software = mapper.readTree(parser);
+      } else if ("matches".equals(fieldName) && parser.getCurrentToken() == JsonToken.START_ARRAY) {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+          result.add(getMatch(mapper.readTree(parser)));
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+    String language = getRequiredString(languageObj, "name");
+    String languageCode = getRequiredString(languageObj, "code");
+    JsonNode detectedLanguageObj = languageObj.get("detectedLanguage");
     String languageDetectedCode = null, languageDetectedName = null;
     if (detectedLanguageObj != null) {
-      languageDetectedCode = detectedLanguageObj.get("code");
-      languageDetectedName = detectedLanguageObj.get("name");
-    }
-    Map<String, String> software = (Map<String, String>) map.get("software");
-    RemoteServer remoteServer = new RemoteServer(software.get("name"), software.get("version"), software.get("buildDate"));
-    List matches = (ArrayList) map.get("matches");
-    List<RemoteRuleMatch> result = new ArrayList<>();
-    for (Object match : matches) {
-      RemoteRuleMatch remoteMatch = getMatch((Map<String, Object>)match);
-      result.add(remoteMatch);
+      languageDetectedCode = getOrNull(detectedLanguageObj, "code");
+      languageDetectedName = getOrNull(detectedLanguageObj, "name");
     }
+    RemoteServer remoteServer = new RemoteServer(getOrNull(software, "name"), getOrNull(software, "version"), getOrNull(software, "buildDate"));
     return new RemoteResult(language, languageCode, languageDetectedCode, languageDetectedName, result, remoteServer);
   }
 
-  private RemoteRuleMatch getMatch(Map<String, Object> match) {
-    Map<String, Object> rule = (Map<String, Object>) match.get("rule");
-    int offset = (int) getRequired(match, "offset");
-    int errorLength = (int) getRequired(match, "length");
-    
-    Map<String, Object> context = (Map<String, Object>) match.get("context");
-    int contextOffset = (int) getRequired(context, "offset");
+  private RemoteRuleMatch getMatch(JsonNode match) {
+    JsonNode rule = getRequired(match, "rule");
+    int offset = getRequired(match, "offset").asInt();
+    int errorLength = getRequired(match, "length").asInt();
+
+    JsonNode context = getRequired(match, "context");
+    int contextOffset = getRequired(context, "offset").asInt();
     RemoteRuleMatch remoteMatch = new RemoteRuleMatch(getRequiredString(rule, "id"), getRequiredString(rule, "description"), getRequiredString(match, "message"),
             getRequiredString(context, "text"), contextOffset, offset, errorLength);
     remoteMatch.setShortMsg(getOrNull(match, "shortMessage"));
@@ -246,7 +325,7 @@ public class RemoteLanguageTool {
     if (urls.size() > 0) {
       remoteMatch.setUrl(urls.get(0));
     }
-    Map<String, Object> category = (Map<String, Object>) rule.get("category");
+    JsonNode category = rule.get("category");
     remoteMatch.setCategory(getOrNull(category, "name"));
     remoteMatch.setCategoryId(getOrNull(category, "id"));
 
@@ -254,36 +333,39 @@ public class RemoteLanguageTool {
     return remoteMatch;
   }
 
-  private Object getRequired(Map<String, Object> elem, String propertyName) {
-    Object val = elem.get(propertyName);
-    if (val != null) {
+  private JsonNode getRequired(JsonNode elem, String propertyName) {
+    JsonNode val = elem != null ? elem.get(propertyName) : null;
+    if (val != null && !val.isNull()) {
       return val;
     }
     throw new RuntimeException("JSON item " + elem + " doesn't contain required property '" + propertyName + "'");
   }
 
-  private String getRequiredString(Map<String, Object> elem, String propertyName) {
-    return (String) getRequired(elem, propertyName);
+  private String getRequiredString(JsonNode elem, String propertyName) {
+    return getRequired(elem, propertyName).asText();
   }
 
-  private String getOrNull(Map<String, Object> elem, String propertyName) {
-    Object val = elem.get(propertyName);
-    if (val != null) {
-      return (String) val;
+  private String getOrNull(JsonNode elem, String propertyName) {
+    JsonNode val = elem != null ? elem.get(propertyName) : null;
+    if (val != null && !val.isNull()) {
+      return val.asText();
     }
     return null;
   }
 
-  private List<String> getValueList(Map<String, Object> match, String propertyName) {
-    List<Object> matches = (List<Object>) match.get(propertyName);
+  private List<String> getValueList(JsonNode match, String propertyName) {
+    JsonNode matches = match.get(propertyName);
     List<String> l = new ArrayList<>();
     if (matches != null) {
-      for (Object o : matches) {
-        Map<String, Object> item = (Map<String, Object>) o;
-        l.add((String) item.get("value"));
+      for (JsonNode item : matches) {
+        l.add(getOrNull(item, "value"));
       }
     }
     return l;
   }
-  
+
+  private interface ResponseParser<T> {
+    T parse(InputStream inputStream) throws IOException;
+  }
+
 }
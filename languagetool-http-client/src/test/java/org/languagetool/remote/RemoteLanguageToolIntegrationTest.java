@@ -36,7 +36,10 @@ import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
@@ -110,6 +113,34 @@ public class RemoteLanguageToolIntegrationTest {
     }
   }
 
+  @Test
+  public void testClientWithGzipAndAsync() throws MalformedURLException {
+    HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    HTTPServer server = new HTTPServer(config);
+    try {
+      server.run();
+      RemoteLanguageTool lt = new RemoteLanguageTool(new URL(serverUrl), true);
+      StringBuilder longText = new StringBuilder();
+      for (int i = 0; i < 50; i++) {
+        longText.append("A sentence with a error. ");  // long enough for a compressed response
+      }
+      RemoteResult result = lt.check(longText.toString(), "en");
+      assertThat(result.getMatches().stream().filter(m -> m.getRuleId().equals("EN_A_VS_AN")).count(), is(50L));
+      assertThat(lt.check("Test escape: % and äöü", "en").getMatches().size(), is(0));
+
+      CheckConfiguration checkConfig = new CheckConfigurationBuilder("en").build();
+      List<CompletableFuture<RemoteResult>> futures = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        futures.add(lt.checkAsync(i % 2 == 0 ? "A sentence with a error." : "A correct sentence.", checkConfig));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        assertThat(futures.get(i).join().getMatches().size(), is(i % 2 == 0 ? 1 : 0));
+      }
+    } finally {
+      server.stop();
+    }
+  }
+
   @Test
   public void testClientWithHTTPS() throws MalformedURLException, KeyManagementException, NoSuchAlgorithmException {
     disableCertChecks();
@@ -23,11 +23,13 @@ import org.languagetool.tools.StringTools;
 import org.languagetool.tools.Tools;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.zip.GZIPOutputStream;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
@@ -47,6 +49,19 @@ public class RemoteLanguageToolTest {
     assertThat(result3.getMatches().get(0).getUrl().get(), is("https://fake.org/foo"));
   }
 
+  @Test
+  public void testGzipResultParsing() throws IOException {
+    RemoteLanguageTool lt = new FakeRemoteLanguageTool("response.json", true);
+    runAsserts(lt.check("some text, reply is hard-coded anyway", "en"));
+  }
+
+  @Test
+  public void testAsyncResultParsing() throws IOException {
+    RemoteLanguageTool lt = new FakeRemoteLanguageTool("response.json");
+    CheckConfiguration config = new CheckConfigurationBuilder("en").build();
+    runAsserts(lt.checkAsync("some text, reply is hard-coded anyway", config).join());
+  }
+
   private void runAsserts(RemoteResult result) {
     assertThat(result.getLanguage(), is("English (US)"));
     assertThat(result.getLanguageCode(), is("en-US"));
@@ -73,10 +88,16 @@ public class RemoteLanguageToolTest {
   private static class FakeRemoteLanguageTool extends RemoteLanguageTool {
 
     private final String jsonFile;
+    private final boolean gzip;
 
     FakeRemoteLanguageTool(String jsonFile) throws MalformedURLException {
+      this(jsonFile, false);
+    }
+
+    FakeRemoteLanguageTool(String jsonFile, boolean gzip) throws MalformedURLException {
       super(new URL("http://fake"));
       this.jsonFile = jsonFile;
+      this.gzip = gzip;
     }
 
     @Override
@@ -87,9 +108,17 @@ public class RemoteLanguageToolTest {
         @Override public boolean usingProxy() { return false; }
         @Override public void connect() throws IOException {}
         @Override public int getResponseCode() { return HTTP_OK; }
+        @Override public String getContentEncoding() { return gzip ? "gzip" : null; }
         @Override
         public InputStream getInputStream() throws IOException {
           String response = StringTools.readStream(RemoteLanguageToolTest.class.getResourceAsStream("/org/languagetool/remote/" + jsonFile), "utf-8");
+          if (gzip) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+              out.write(response.getBytes("utf-8"));
+            }
+            return new ByteArrayInputStream(bytes.toByteArray());
+          }
           return new ByteArrayInputStream(response.getBytes());
         }
       };
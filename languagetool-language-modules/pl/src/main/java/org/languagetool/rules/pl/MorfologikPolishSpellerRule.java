@@ -132,7 +132,9 @@ public final class MorfologikPolishSpellerRule extends MorfologikSpellerRule {
         ruleMatches.add(ruleMatch);
         return ruleMatches;
       }
-      if (createSuggestions) {
+      if (defersSuggestions()) {
+        // the client will ask for the suggestions if needed
+      } else if (createSuggestions) {
         List<String> suggestions = speller1.getSuggestions(word);
         suggestions.addAll(0, getAdditionalTopSuggestions(suggestions, word));
         suggestions.addAll(getAdditionalSuggestions(suggestions, word));
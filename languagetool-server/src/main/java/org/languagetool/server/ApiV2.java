@@ -32,6 +32,7 @@ import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.CorrectExample;
 import org.languagetool.rules.IncorrectExample;
 import org.languagetool.rules.Rule;
+import org.languagetool.tools.StringTools;
 
 import java.io.IOException;
 import java.io.StringWriter;
@@ -49,6 +50,7 @@ class ApiV2 {
   private static final String JSON_CONTENT_TYPE = "application/json";
   private static final String TEXT_CONTENT_TYPE = "text/plain";
   private static final String ENCODING = "UTF-8";
+  private static final int MAX_SUGGESTION_TOKENS = 100;
 
   private final TextChecker textChecker;
   private final String allowOriginUrl;
@@ -66,6 +68,10 @@ class ApiV2 {
       handleMaxTextLengthRequest(httpExchange, config);
     } else if (path.equals("check")) {
       handleCheckRequest(httpExchange, parameters, errorRequestLimiter, remoteAddress);
+    } else if (path.equals("check/batch")) {
+      handleBatchCheckRequest(httpExchange, parameters);
+    } else if (path.equals("suggestions")) {
+      handleSuggestionsRequest(httpExchange, parameters);
     } else if (path.equals("words")) {
       handleWordsRequest(httpExchange, parameters, config);
     } else if (path.equals("words/add")) {
@@ -125,6 +131,60 @@ class ApiV2 {
     textChecker.checkText(aText, httpExchange, parameters, errorRequestLimiter, remoteAddress);
   }
 
+  private void handleBatchCheckRequest(HttpExchange httpExchange, Map<String, String> parameters) throws Exception {
+    if (parameters.get("data") == null) {
+      throw new IllegalArgumentException("Missing 'data' parameter, e.g. {\"texts\": [{\"text\": \"...\", \"language\": \"en-US\"}]}");
+    }
+    JsonNode items = new ObjectMapper().readTree(parameters.get("data")).get("texts");
+    if (items == null || !items.isArray() || items.size() == 0) {
+      throw new IllegalArgumentException("'data' key in JSON requires a non-empty 'texts' array");
+    }
+    List<AnnotatedText> texts = new ArrayList<>();
+    List<String> langCodes = new ArrayList<>();
+    for (JsonNode item : items) {
+      if (item.get("text") == null) {
+        throw new IllegalArgumentException("Each item of 'texts' requires a 'text' key");
+      }
+      texts.add(new AnnotatedTextBuilder().addText(item.get("text").asText()).build());
+      langCodes.add(item.get("language") != null ? item.get("language").asText() : null);
+    }
+    textChecker.checkTexts(texts, langCodes, httpExchange, parameters);
+  }
+
+  private void handleSuggestionsRequest(HttpExchange httpExchange, Map<String, String> parameters) throws Exception {
+    if (StringTools.isEmpty(parameters.get("language"))) {
+      throw new IllegalArgumentException("Missing 'language' parameter, e.g. 'language=en-US' for American English or 'language=fr' for French");
+    }
+    if (StringTools.isEmpty(parameters.get("tokens"))) {
+      throw new IllegalArgumentException("Missing 'tokens' parameter, use the 'suggestionToken' values of the matches, separated by newlines");
+    }
+    Language lang = Languages.getLanguageForShortCode(parameters.get("language"));
+    List<String> tokens = Arrays.asList(parameters.get("tokens").split("\n"));
+    if (tokens.size() > MAX_SUGGESTION_TOKENS) {
+      throw new IllegalArgumentException("Too many tokens: " + tokens.size() + ", the maximum is " + MAX_SUGGESTION_TOKENS);
+    }
+    StringWriter sw = new StringWriter();
+    try (JsonGenerator g = factory.createGenerator(sw)) {
+      g.writeStartObject();
+      g.writeArrayFieldStart("suggestions");
+      for (String token : tokens) {
+        g.writeStartObject();
+        g.writeStringField("token", token);
+        g.writeArrayFieldStart("replacements");
+        for (String suggestion : textChecker.getSpellingSuggestions(lang, token)) {
+          g.writeStartObject();
+          g.writeStringField("value", suggestion);
+          g.writeEndObject();
+        }
+        g.writeEndArray();
+        g.writeEndObject();
+      }
+      g.writeEndArray();
+      g.writeEndObject();
+    }
+    sendJson(httpExchange, sw);
+  }
+
   private void handleWordsRequest(HttpExchange httpExchange, Map<String, String> params, HTTPServerConfig config) throws Exception {
     ensureGetMethod(httpExchange, "/words");
     UserLimits limits = getUserLimits(params, config);
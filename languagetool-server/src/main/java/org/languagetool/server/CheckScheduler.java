@@ -0,0 +1,218 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Decides when a check may run, based on an estimate of how long it will take. Checks are
+ * estimated from the text length and the time per character that checks with the same language
+ * and mode took recently. Short checks ("interactive") and long checks ("bulk") wait in separate lanes,
+ * and some of the slots can only be used by short checks, so a burst of long texts cannot block
+ * the short checks of interactive users. Requests are rejected when the estimated time of all
+ * admitted checks is too high, instead of when too many requests are waiting.
+ * @since 4.7
+ */
+class CheckScheduler {
+
+  /** Checks that are estimated to take at most this long use the interactive lane. */
+  static final long INTERACTIVE_MAX_MILLIS = 500;
+
+  // estimate used as long as no check has been measured for a language and mode:
+  private static final double DEFAULT_MILLIS_PER_CHAR = 0.1;
+  private static final double TEXT_LEVEL_FACTOR = 0.2;
+  private static final long BASE_MILLIS = 5;
+  // texts shorter than this are dominated by fixed overhead and are not used to update the estimates:
+  private static final int MIN_LEARN_CHARS = 200;
+  private static final double LEARN_RATE = 0.1;
+
+  private final int slots;
+  private final int bulkSlots;
+  private final long maxQueuedMillis;
+  private final ConcurrentMap<String, Double> millisPerChar = new ConcurrentHashMap<>();
+  private final Deque<Ticket> interactiveLane = new ArrayDeque<>();
+  private final Deque<Ticket> bulkLane = new ArrayDeque<>();
+  private int running;
+  private int runningBulk;
+  private long queuedMillis;
+
+  /**
+   * @param slots number of checks that may run at the same time
+   * @param maxQueuedMillis reject checks when the estimated time of all waiting and running checks would exceed this, {@code 0} to not reject checks
+   */
+  CheckScheduler(int slots, long maxQueuedMillis) {
+    if (slots < 1) {
+      throw new IllegalArgumentException("slots must be >= 1: " + slots);
+    }
+    this.slots = slots;
+    // keep a quarter of the slots for interactive checks:
+    this.bulkSlots = slots == 1 ? 1 : slots - Math.max(1, slots / 4);
+    this.maxQueuedMillis = maxQueuedMillis;
+  }
+
+  long estimateMillis(int textLength, Language lang, JLanguageTool.Mode mode) {
+    Double learned = millisPerChar.get(getKey(lang, mode));
+    double perChar;
+    if (learned != null) {
+      perChar = learned;
+    } else {
+      perChar = mode == JLanguageTool.Mode.TEXTLEVEL_ONLY ? DEFAULT_MILLIS_PER_CHAR * TEXT_LEVEL_FACTOR : DEFAULT_MILLIS_PER_CHAR;
+    }
+    return BASE_MILLIS + Math.round(textLength * perChar);
+  }
+
+  /**
+   * Wait until the check may run. {@link #release(Ticket, long)} must be called once the check has finished.
+   * @param maxWaitMillis maximum time to wait, or a negative value to wait without limit
+   * @throws ServerBusyException if the server has too much work already or the check had to wait too long
+   */
+  Ticket acquire(int textLength, Language lang, JLanguageTool.Mode mode, long maxWaitMillis) throws InterruptedException {
+    Ticket ticket = new Ticket(getKey(lang, mode), textLength, estimateMillis(textLength, lang, mode));
+    long deadline = System.currentTimeMillis() + maxWaitMillis;
+    synchronized (this) {
+      // a single large check is allowed if the server has nothing else to do:
+      if (maxQueuedMillis > 0 && queuedMillis > 0 && queuedMillis + ticket.estimatedMillis > maxQueuedMillis) {
+        throw new ServerBusyException("Estimated time of queued checks: " + queuedMillis + "ms, of this check: " +
+          ticket.estimatedMillis + "ms, maximum: " + maxQueuedMillis + "ms");
+      }
+      queuedMillis += ticket.estimatedMillis;
+      Deque<Ticket> lane = ticket.isInteractive() ? interactiveLane : bulkLane;
+      lane.addLast(ticket);
+      boolean acquired = false;
+      try {
+        grant();
+        while (!ticket.running) {
+          if (maxWaitMillis < 0) {
+            wait();
+          } else {
+            long waitMillis = deadline - System.currentTimeMillis();
+            if (waitMillis <= 0) {
+              throw new ServerBusyException("Check waited longer than " + maxWaitMillis + "ms to be run");
+            }
+            wait(waitMillis);
+          }
+        }
+        acquired = true;
+      } finally {
+        if (!acquired) {
+          if (ticket.running) {
+            // granted, but interrupted before we noticed:
+            finish(ticket);
+          } else {
+            lane.remove(ticket);
+            queuedMillis -= ticket.estimatedMillis;
+          }
+        }
+      }
+    }
+    return ticket;
+  }
+
+  /**
+   * Give free slots to waiting checks, interactive checks first.
+   */
+  private void grant() {
+    boolean granted = false;
+    while (running < slots) {
+      Ticket next = interactiveLane.pollFirst();
+      if (next == null && runningBulk < bulkSlots) {
+        next = bulkLane.pollFirst();
+        if (next != null) {
+          runningBulk++;
+        }
+      }
+      if (next == null) {
+        break;
+      }
+      next.running = true;
+      running++;
+      granted = true;
+    }
+    if (granted) {
+      notifyAll();
+    }
+  }
+
+  /**
+   * @param elapsedMillis how long the check took, used to improve the estimates
+   */
+  void release(Ticket ticket, long elapsedMillis) {
+    synchronized (this) {
+      if (!ticket.running) {
+        return;
+      }
+      finish(ticket);
+    }
+    if (ticket.textLength >= MIN_LEARN_CHARS) {
+      double measured = Math.max(0, elapsedMillis - BASE_MILLIS) / (double) ticket.textLength;
+      millisPerChar.merge(ticket.key, measured, (old, m) -> old + LEARN_RATE * (m - old));
+    }
+  }
+
+  private void finish(Ticket ticket) {
+    ticket.running = false;
+    running--;
+    if (!ticket.isInteractive()) {
+      runningBulk--;
+    }
+    queuedMillis -= ticket.estimatedMillis;
+    grant();
+  }
+
+  synchronized long getQueuedMillis() {
+    return queuedMillis;
+  }
+
+  synchronized int getWaitingCount() {
+    return interactiveLane.size() + bulkLane.size();
+  }
+
+  private static String getKey(Language lang, JLanguageTool.Mode mode) {
+    return lang.getShortCodeWithCountryAndVariant() + "/" + mode;
+  }
+
+  static final class Ticket {
+
+    private final String key;
+    private final int textLength;
+    private final long estimatedMillis;
+    private boolean running;
+
+    private Ticket(String key, int textLength, long estimatedMillis) {
+      this.key = key;
+      this.textLength = textLength;
+      this.estimatedMillis = estimatedMillis;
+    }
+
+    boolean isInteractive() {
+      return estimatedMillis <= INTERACTIVE_MAX_MILLIS;
+    }
+
+    long getEstimatedMillis() {
+      return estimatedMillis;
+    }
+  }
+
+}
@@ -81,7 +81,7 @@ class DatabaseAccess {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> ((PooledDataSource)sqlSessionFactory
           .getConfiguration().getEnvironment().getDataSource()).forceCloseAll()));
 
-        DatabaseLogger.init(sqlSessionFactory);
+        DatabaseLogger.init(sqlSessionFactory, config.getDatabaseLoggingThreads());
         if (!config.getDatabaseLogging()) {
           print("dbLogging not set to true, turning off logging");
           DatabaseLogger.getInstance().disableLogging();
@@ -22,6 +22,7 @@
 package org.languagetool.server;
 
 import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.Language;
 
 import java.text.SimpleDateFormat;
@@ -61,6 +62,11 @@ class DatabaseCheckLogEntry extends DatabaseLogEntry {
     ruleMatches = entry;
   }
 
+  @Nullable
+  DatabaseRuleMatchLogEntry getRuleMatches() {
+    return ruleMatches;
+  }
+
   @Override
   public Map<Object, Object> getMapping() {
     HashMap<Object, Object> map = new HashMap<>();
@@ -25,11 +25,16 @@ import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Writes log entries to the database asynchronously. Entries are kept in a bounded queue
+ * and written by one or more worker threads. Each worker collects a batch of entries and
+ * writes the check log entries and their rule matches as multi-row inserts.
  * @since 4.3
  */
 class DatabaseLogger {
@@ -45,7 +50,11 @@ class DatabaseLogger {
   static final int SQL_BATCH_WAITING_TIME = 10000; // milliseconds to wait until batch gets committed anyway
   
   private static final int POLLING_TIME = 1000;
-  private static final int MAX_QUEUE_SIZE = 50000; // drop entries after limit is reached, to avoid running out of memory
+  static final int MAX_QUEUE_SIZE = 50000; // drop entries after limit is reached, to avoid running out of memory
+  // when the queue is filled more than this, only the check itself is logged, not its rule matches:
+  static final int RULE_MATCH_LOGGING_LIMIT = MAX_QUEUE_SIZE / 2;
+  private static final int MAX_ROWS_PER_INSERT = 1000;
+  private static final long DROP_WARNING_INTERVAL = 60_000; // milliseconds
 
   /**
    * @return an instance that will be disabled until initialized by DatabaseAccess
@@ -60,67 +69,86 @@ class DatabaseLogger {
   /**
    * called by DatabaseAccess.init
    * @param factory shared factory from DatabaseAccess
+   * @param workerCount number of threads writing to the database
    */
-  static void init(SqlSessionFactory factory) {
-    getInstance().start(factory);
+  static void init(SqlSessionFactory factory, int workerCount) {
+    getInstance().start(factory, workerCount);
   }
 
   private class WorkerThread extends Thread {
+    WorkerThread() {
+      super("lt-db-logger");
+      setDaemon(true);
+    }
+
     @Override
     public void run() {
-      try (SqlSession session = sessionFactory.openSession(ExecutorType.BATCH, false)) {
+      try (SqlSession session = sessionFactory.openSession(ExecutorType.REUSE, false)) {
+        List<DatabaseLogEntry> batch = new ArrayList<>(SQL_BATCH_SIZE);
         while (!Thread.currentThread().isInterrupted()) {
-          int batchSize = 0;
           long batchTime = System.currentTimeMillis();
           // commit when batch size is reached or after waiting period elapsed
-          while(!Thread.currentThread().isInterrupted()
-            && batchSize < SQL_BATCH_SIZE
-            && System.currentTimeMillis() - batchTime < SQL_BATCH_WAITING_TIME)  {
-            if (messages.size() > SQL_BATCH_SIZE) {
-              ServerTools.print(String.format("Logging queue filling up: %d entries", messages.size()));
-            }
+          while (!Thread.currentThread().isInterrupted()
+            && batch.size() < SQL_BATCH_SIZE
+            && System.currentTimeMillis() - batchTime < SQL_BATCH_WAITING_TIME) {
             // polling to be able to react when waiting time has elapsed
             DatabaseLogEntry entry = messages.poll(POLLING_TIME, TimeUnit.MILLISECONDS);
-            if (entry == null) {
-              continue;
-            }
-            batchSize++;
-            session.insert(entry.getMappingIdentifier(), entry.getMapping());
-            DatabaseLogEntry followup = entry.followup();
-            if (followup != null) { // followup statements need to be inserted directly afterwards, dependant on e.g. generated primary keys
-              session.insert(followup.getMappingIdentifier(), followup.getMapping());
-              batchSize++;
+            if (entry != null) {
+              batch.add(entry);
+              messages.drainTo(batch, SQL_BATCH_SIZE - batch.size());
             }
           }
-          session.commit();
+          ServerMetricsCollector.getInstance().logDatabaseLogQueueSize(messages.size());
+          if (!batch.isEmpty()) {
+            write(session, batch);
+            batch.clear();
+          }
         }
+      } catch (InterruptedException e) {
+        // logging has been disabled
       } catch (Exception e) {
         e.printStackTrace();
-        if (!Thread.currentThread().isInterrupted()) {
-          new WorkerThread().start();
+        if (!Thread.currentThread().isInterrupted() && !disabled) {
+          replaceWorker(this);
         }
       }
     }
   }
 
-  private final BlockingQueue<DatabaseLogEntry> messages = new LinkedBlockingQueue<>();
+  private final BlockingQueue<DatabaseLogEntry> messages = new ArrayBlockingQueue<>(MAX_QUEUE_SIZE);
+  private final List<WorkerThread> workers = new ArrayList<>();
+  private final AtomicLong droppedEntries = new AtomicLong();
+  private final AtomicLong lastDropWarning = new AtomicLong();
   private SqlSessionFactory sessionFactory = null;
-  private WorkerThread worker = null;
-  private boolean disabled = true;
+  private volatile boolean disabled = true;
 
   private DatabaseLogger() {
   }
 
-  private void start(SqlSessionFactory factory) {
+  // package private for tests
+  DatabaseLogger(SqlSessionFactory factory, int workerCount) {
+    start(factory, workerCount);
+  }
+
+  private synchronized void start(SqlSessionFactory factory, int workerCount) {
     sessionFactory = factory;
     disabled = false;
-    worker = new WorkerThread();
+    for (int i = 0; i < workerCount; i++) {
+      WorkerThread worker = new WorkerThread();
+      workers.add(worker);
+      worker.start();
+    }
+  }
+
+  private synchronized void replaceWorker(WorkerThread oldWorker) {
+    WorkerThread worker = new WorkerThread();
+    workers.set(workers.indexOf(oldWorker), worker);
     worker.start();
   }
 
-  public void disableLogging() {
+  public synchronized void disableLogging() {
     this.disabled = true;
-    if (worker != null) {
+    for (WorkerThread worker : workers) {
       worker.interrupt();
     }
   }
@@ -130,16 +158,70 @@ class DatabaseLogger {
   }
 
   public void log(DatabaseLogEntry entry) {
-    try {
-      if (!disabled) {
-        if (messages.size() < MAX_QUEUE_SIZE) {
-          messages.put(entry);
-        } else {
-          ServerTools.print("Logging queue has reached size limit; discarding new messages.");
+    if (disabled) {
+      return;
+    }
+    if (entry instanceof DatabaseCheckLogEntry && messages.size() > RULE_MATCH_LOGGING_LIMIT) {
+      // the database can't keep up, so save the rows that are least useful on their own:
+      ((DatabaseCheckLogEntry) entry).setRuleMatches(new DatabaseRuleMatchLogEntry(Collections.emptyMap()));
+      ServerMetricsCollector.getInstance().logDroppedDatabaseLogEntry("rule_matches");
+    }
+    if (!messages.offer(entry)) {
+      long dropped = droppedEntries.incrementAndGet();
+      ServerMetricsCollector.getInstance().logDroppedDatabaseLogEntry("queue_full");
+      long lastWarning = lastDropWarning.get();
+      long now = System.currentTimeMillis();
+      if (now - lastWarning > DROP_WARNING_INTERVAL && lastDropWarning.compareAndSet(lastWarning, now)) {
+        ServerTools.print("Logging queue has reached size limit; discarding new messages (" + dropped + " discarded so far).");
+      }
+    }
+  }
+
+  /**
+   * @return the number of entries that have been discarded because the queue was full
+   */
+  long getDroppedEntries() {
+    return droppedEntries.get();
+  }
+
+  static void write(SqlSession session, List<DatabaseLogEntry> batch) {
+    List<Map<Object, Object>> checks = new ArrayList<>();
+    List<DatabaseRuleMatchLogEntry> checkRuleMatches = new ArrayList<>();
+    for (DatabaseLogEntry entry : batch) {
+      if (entry instanceof DatabaseCheckLogEntry) {
+        checks.add(entry.getMapping());
+        checkRuleMatches.add(((DatabaseCheckLogEntry) entry).getRuleMatches());
+      } else {
+        session.insert(entry.getMappingIdentifier(), entry.getMapping());
+        DatabaseLogEntry followup = entry.followup();
+        if (followup != null) { // followup statements need to be inserted directly afterwards, dependant on e.g. generated primary keys
+          session.insert(followup.getMappingIdentifier(), followup.getMapping());
         }
       }
-    } catch (InterruptedException e) {
-      e.printStackTrace();
+    }
+    // the generated ids of the check log rows are set in their mapping, so the rule matches can reference them:
+    insertRows(session, "org.languagetool.server.LogMapper.logChecks", checks);
+    List<DatabaseRuleMatchLogEntry.RuleMatchInfo> ruleMatches = new ArrayList<>();
+    for (int i = 0; i < checks.size(); i++) {
+      DatabaseRuleMatchLogEntry entry = checkRuleMatches.get(i);
+      Object checkId = checks.get(i).get("id");
+      if (entry == null || entry.getMatchCount() == 0) {
+        continue;
+      }
+      if (!(checkId instanceof Number)) {
+        throw new IllegalStateException("No generated id for check_log entry: " + checks.get(i));
+      }
+      for (DatabaseRuleMatchLogEntry.RuleMatchInfo match : entry.getMatches()) {
+        ruleMatches.add(match.withCheckId(((Number) checkId).longValue()));
+      }
+    }
+    insertRows(session, "org.languagetool.server.LogMapper.ruleMatches", ruleMatches);
+    session.commit();
+  }
+
+  private static void insertRows(SqlSession session, String statement, List<?> rows) {
+    for (int i = 0; i < rows.size(); i += MAX_ROWS_PER_INSERT) {
+      session.insert(statement, rows.subList(i, Math.min(rows.size(), i + MAX_ROWS_PER_INSERT)));
     }
   }
 
@@ -43,6 +43,10 @@ class DatabaseRuleMatchLogEntry extends DatabaseLogEntry {
     return matches.size();
   }
 
+  List<RuleMatchInfo> getMatches() {
+    return matches;
+  }
+
   @Override
   public Map<Object, Object> getMapping() {
     HashMap<Object, Object> map = new HashMap<>();
@@ -56,6 +60,7 @@ class DatabaseRuleMatchLogEntry extends DatabaseLogEntry {
   }
 
   static class RuleMatchInfo {
+    Long checkId;
     String ruleId;
     int matchCount;
 
@@ -63,5 +68,14 @@ class DatabaseRuleMatchLogEntry extends DatabaseLogEntry {
       this.ruleId = StringUtils.abbreviate(rule_id, 128);
       this.matchCount = match_count;
     }
+
+    /**
+     * @return a copy that references the given row of the check log explicitly
+     */
+    RuleMatchInfo withCheckId(long checkId) {
+      RuleMatchInfo info = new RuleMatchInfo(ruleId, matchCount);
+      info.checkId = checkId;
+      return info;
+    }
   }
 }
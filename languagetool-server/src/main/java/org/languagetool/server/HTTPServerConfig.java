@@ -66,6 +66,7 @@ public class HTTPServerConfig {
   protected int pipelineExpireTime;
   protected File fasttextModel = null;
   protected File fasttextBinary = null;
+  protected int fasttextProcesses = 1;
   protected File neuralNetworkModelDir = null;
   protected int requestLimit;
   protected int requestLimitInBytes;
@@ -74,9 +75,16 @@ public class HTTPServerConfig {
   protected int ipFingerprintFactor = 1;
   protected boolean trustXForwardForHeader;
   protected int maxWorkQueueSize;
+  protected long maxQueuedCheckMillis = 0;
   protected File rulesConfigFile = null;
   protected int cacheSize = 0;
   protected long cacheTTLSeconds = 300;
+  protected int offHeapCacheSizeMB = 0;
+  protected String remoteCacheStore = null;
+  protected int languageDetectionCacheSize = 10000;
+  protected boolean disambiguationTrace = false;
+  protected File ruleSnapshotDir = null;
+  protected File pipelineProfileFile = null;
   protected float maxErrorsPerWordRate = 0;
   protected int maxSpellingSuggestions = 0;
   protected List<String> blockedReferrers = new ArrayList<>();
@@ -89,6 +97,7 @@ public class HTTPServerConfig {
   protected String dbUsername = null;
   protected String dbPassword = null;
   protected boolean dbLogging;
+  protected int dbLoggingThreads = 1;
   protected boolean prometheusMonitoring = false;
   protected int prometheusPort = 9301;
   protected GlobalConfig globalConfig = new GlobalConfig();
@@ -98,6 +107,7 @@ public class HTTPServerConfig {
   protected boolean skipLoggingChecks = false;
 
   protected int slowRuleLoggingThreshold = -1; // threshold in milliseconds, used by SlowRuleLogger; < 0 - disabled
+  protected int ruleTimingSampleInterval = 0; // time one in n rule checks for RuleTimingStats; 0 - disabled
 
   protected String abTest = null;
   /**
@@ -203,6 +213,10 @@ public class HTTPServerConfig {
         if (maxWorkQueueSize < 0) {
           throw new IllegalArgumentException("maxWorkQueueSize must be >= 0: " + maxWorkQueueSize);
         }
+        maxQueuedCheckMillis = Long.parseLong(getOptionalProperty(props, "maxQueuedCheckMillis", "0"));
+        if (maxQueuedCheckMillis < 0) {
+          throw new IllegalArgumentException("maxQueuedCheckMillis must be >= 0: " + maxQueuedCheckMillis);
+        }
         String langModel = getOptionalProperty(props, "languageModel", null);
         if (langModel != null && loadLangModel) {
           setLanguageModelDirectory(langModel);
@@ -220,6 +234,10 @@ public class HTTPServerConfig {
         if (fasttextBinary != null && fasttextModel != null) {
           setFasttextPaths(fasttextModel, fasttextBinary);
         }
+        fasttextProcesses = Integer.parseInt(getOptionalProperty(props, "fasttextProcesses", "1"));
+        if (fasttextProcesses < 1) {
+          throw new IllegalArgumentException("Invalid value for fasttextProcesses, must be >= 1: " + fasttextProcesses);
+        }
         maxCheckThreads = Integer.parseInt(getOptionalProperty(props, "maxCheckThreads", "10"));
         if (maxCheckThreads < 1) {
           throw new IllegalArgumentException("Invalid value for maxCheckThreads, must be >= 1: " + maxCheckThreads);
@@ -239,10 +257,29 @@ public class HTTPServerConfig {
         if (cacheSize < 0) {
           throw new IllegalArgumentException("Invalid value for cacheSize: " + cacheSize + ", use 0 to deactivate cache");
         }
-        if (props.containsKey("cacheTTLSeconds") && !props.containsKey("cacheSize")) {
+        offHeapCacheSizeMB = Integer.parseInt(getOptionalProperty(props, "offHeapCacheSizeMB", "0"));
+        if (offHeapCacheSizeMB < 0) {
+          throw new IllegalArgumentException("Invalid value for offHeapCacheSizeMB: " + offHeapCacheSizeMB + ", use 0 to keep the cache on the heap");
+        }
+        remoteCacheStore = getOptionalProperty(props, "remoteCacheStore", null);
+        if (props.containsKey("cacheTTLSeconds") && !props.containsKey("cacheSize") && !props.containsKey("offHeapCacheSizeMB")
+                && !props.containsKey("remoteCacheStore")) {
           throw new IllegalArgumentException("Use of cacheTTLSeconds without also setting cacheSize has no effect.");
         }
         cacheTTLSeconds = Integer.parseInt(getOptionalProperty(props, "cacheTTLSeconds", "300"));
+        languageDetectionCacheSize = Integer.parseInt(getOptionalProperty(props, "languageDetectionCacheSize", "10000"));
+        if (languageDetectionCacheSize < 0) {
+          throw new IllegalArgumentException("Invalid value for languageDetectionCacheSize: " + languageDetectionCacheSize + ", use 0 to deactivate cache");
+        }
+        disambiguationTrace = Boolean.parseBoolean(getOptionalProperty(props, "disambiguationTrace", "false"));
+        String ruleSnapshotDirPath = getOptionalProperty(props, "ruleSnapshotDir", null);
+        if (ruleSnapshotDirPath != null) {
+          ruleSnapshotDir = new File(ruleSnapshotDirPath);
+        }
+        String pipelineProfilePath = getOptionalProperty(props, "pipelineProfileFile", null);
+        if (pipelineProfilePath != null) {
+          pipelineProfileFile = new File(pipelineProfilePath);
+        }
         if (props.containsKey("warmUp")) {
           System.err.println("Setting ignored: 'warmUp'. Look into using pipelineCaching and pipelinePrewarming instead.");
         }
@@ -263,6 +300,10 @@ public class HTTPServerConfig {
         dbUsername = getOptionalProperty(props, "dbUsername", null);
         dbPassword = getOptionalProperty(props, "dbPassword", null);
         dbLogging = Boolean.valueOf(getOptionalProperty(props, "dbLogging", "false"));
+        dbLoggingThreads = Integer.parseInt(getOptionalProperty(props, "dbLoggingThreads", "1"));
+        if (dbLoggingThreads < 1) {
+          throw new IllegalArgumentException("Invalid value for dbLoggingThreads: " + dbLoggingThreads + ", must be >= 1");
+        }
         prometheusMonitoring = Boolean.valueOf(getOptionalProperty(props, "prometheusMonitoring", "false"));
         prometheusPort = Integer.parseInt(getOptionalProperty(props, "prometheusPort", "9301"));
         skipLoggingRuleMatches = Boolean.valueOf(getOptionalProperty(props, "skipLoggingRuleMatches", "false"));
@@ -272,6 +313,10 @@ public class HTTPServerConfig {
         }
         slowRuleLoggingThreshold = Integer.valueOf(getOptionalProperty(props,
           "slowRuleLoggingThreshold", "-1"));
+        ruleTimingSampleInterval = Integer.parseInt(getOptionalProperty(props, "ruleTimingSampleInterval", "0"));
+        if (ruleTimingSampleInterval < 0) {
+          throw new IllegalArgumentException("Invalid value for ruleTimingSampleInterval: " + ruleTimingSampleInterval + ", use 0 to deactivate rule timing");
+        }
         disabledRuleIds = Arrays.asList(getOptionalProperty(props, "disabledRuleIds", "").split(",\\s*"));
         globalConfig.setGrammalecteServer(getOptionalProperty(props, "grammalecteServer", null));
         globalConfig.setGrammalecteUser(getOptionalProperty(props, "grammalecteUser", null));
@@ -544,6 +589,21 @@ public class HTTPServerConfig {
     fasttextBinary = Objects.requireNonNull(binary);
   }
 
+  /**
+   * Number of fasttext processes used in parallel for language detection.
+   * @since 4.7
+   */
+  public int getFasttextProcesses() {
+    return fasttextProcesses;
+  }
+
+  /**
+   * @since 4.7
+   */
+  public void setFasttextProcesses(int fasttextProcesses) {
+    this.fasttextProcesses = fasttextProcesses;
+  }
+
   /** @since 2.7 */
   Mode getMode() {
     return mode;
@@ -583,6 +643,22 @@ public class HTTPServerConfig {
     return maxWorkQueueSize;
   }
 
+  /**
+   * Reject checks when the estimated time of all waiting and running checks would be longer than this,
+   * {@code 0} to not reject checks because of their estimated time.
+   * @since 4.7
+   */
+  long getMaxQueuedCheckMillis() {
+    return maxQueuedCheckMillis;
+  }
+
+  /**
+   * @since 4.7
+   */
+  void setMaxQueuedCheckMillis(long maxQueuedCheckMillis) {
+    this.maxQueuedCheckMillis = maxQueuedCheckMillis;
+  }
+
 
   /**
    * @since 4.4
@@ -673,6 +749,104 @@ public class HTTPServerConfig {
     this.cacheTTLSeconds = cacheTTLSeconds;
   }
 
+  /**
+   * Size of the off-heap memory for cached rule matches (in megabytes), 0 means the
+   * matches are cached on the heap, as configured by {@link #getCacheSize()}.
+   * @since 4.7
+   */
+  int getOffHeapCacheSizeMB() {
+    return offHeapCacheSizeMB;
+  }
+
+  /**
+   * @since 4.7
+   */
+  void setOffHeapCacheSizeMB(int offHeapCacheSizeMB) {
+    this.offHeapCacheSizeMB = offHeapCacheSizeMB;
+  }
+
+  /**
+   * Class name of a {@link org.languagetool.RemoteResultStore} implementation with a public no-argument
+   * constructor, used as a second cache tier shared with other servers, or {@code null}.
+   * @since 4.7
+   */
+  @Nullable
+  String getRemoteCacheStore() {
+    return remoteCacheStore;
+  }
+
+  /**
+   * @since 4.7
+   */
+  void setRemoteCacheStore(@Nullable String remoteCacheStore) {
+    this.remoteCacheStore = remoteCacheStore;
+  }
+
+  /**
+   * Size of the language detection cache (in number of texts), 0 means no caching.
+   * @since 4.7
+   */
+  int getLanguageDetectionCacheSize() {
+    return languageDetectionCacheSize;
+  }
+
+  /**
+   * @since 4.7
+   */
+  void setLanguageDetectionCacheSize(int languageDetectionCacheSize) {
+    this.languageDetectionCacheSize = languageDetectionCacheSize;
+  }
+
+  /**
+   * Whether disambiguators record their changes to each token, which is only
+   * useful for debugging disambiguation rules.
+   * @since 4.7
+   */
+  boolean isDisambiguationTrace() {
+    return disambiguationTrace;
+  }
+
+  /**
+   * @since 4.7
+   */
+  void setDisambiguationTrace(boolean disambiguationTrace) {
+    this.disambiguationTrace = disambiguationTrace;
+  }
+
+  /**
+   * Directory for the binary snapshots of the XML rule files, which make loading
+   * the rules of a language faster after the first start.
+   * @since 4.7
+   */
+  @Nullable
+  File getRuleSnapshotDir() {
+    return ruleSnapshotDir;
+  }
+
+  /**
+   * @since 4.7
+   */
+  void setRuleSnapshotDir(File ruleSnapshotDir) {
+    this.ruleSnapshotDir = ruleSnapshotDir;
+  }
+
+  /**
+   * File in which the server keeps how often it has seen each pipeline setting, used to decide
+   * which pipelines to prewarm, or {@code null}.
+   * @since 4.7
+   */
+  @Nullable
+  File getPipelineProfileFile() {
+    return pipelineProfileFile;
+  }
+
+  /**
+   * @since 4.7
+   */
+  void setPipelineProfileFile(@Nullable File pipelineProfileFile) {
+    this.pipelineProfileFile = pipelineProfileFile;
+  }
+
   /**
    * Maximum errors per word rate, checking will stop if the rate is higher.
    * For example, with a rate of 0.33, the checking would stop if the user's
@@ -844,6 +1018,21 @@ public class HTTPServerConfig {
     return this.dbLogging;
   }
 
+  /**
+   * @since 4.7
+   * @return number of threads that write log entries to the database
+   */
+  int getDatabaseLoggingThreads() {
+    return dbLoggingThreads;
+  }
+
+  /**
+   * @since 4.7
+   */
+  void setDatabaseLoggingThreads(int dbLoggingThreads) {
+    this.dbLoggingThreads = dbLoggingThreads;
+  }
+
 
   /**
    * @since 4.6
@@ -870,6 +1059,21 @@ public class HTTPServerConfig {
     return slowRuleLoggingThreshold;
   }
 
+  /**
+   * @since 4.7
+   * @return {@code n} if one in {@code n} rule checks gets timed for the per-rule latency histograms, {@code 0} if disabled
+   */
+  int getRuleTimingSampleInterval() {
+    return ruleTimingSampleInterval;
+  }
+
+  /**
+   * @since 4.7
+   */
+  void setRuleTimingSampleInterval(int ruleTimingSampleInterval) {
+    this.ruleTimingSampleInterval = ruleTimingSampleInterval;
+  }
+
   /**
    * @since 4.5
    */
@@ -0,0 +1,153 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.DetectedLanguage;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caches results of the language detection. Clients re-send the same text many times
+ * while the user types, so the detection result is cached by a hash of the text. Also,
+ * if a text of the same text session has only grown a little since it was last detected,
+ * the previous result is re-used.
+ * @since 4.7
+ */
+class LanguageDetectionCache {
+
+  // texts shorter than this are not re-used for their session, detection is not stable enough yet:
+  private static final int MIN_LENGTH_FOR_SESSION_REUSE = 100;
+  // re-use the session's detection if the text grew by at most this factor:
+  private static final float MAX_SESSION_GROWTH = 1.1f;
+
+  private static final HashFunction HASH = Hashing.murmur3_128();
+
+  private final Cache<DetectionKey, Optional<DetectedLanguage>> detectionCache;
+  private final Cache<Long, SessionEntry> sessionCache;
+
+  /**
+   * @param maxSize maximum number of cached detection results (and of text sessions)
+   * @param expireAfter time to expire results from the cache after last read access
+   */
+  LanguageDetectionCache(long maxSize, long expireAfter, TimeUnit timeUnit) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("Language detection cache size must be >= 0: " + maxSize);
+    }
+    detectionCache = CacheBuilder.newBuilder().
+            maximumSize(maxSize).
+            recordStats().
+            expireAfterAccess(expireAfter, timeUnit).
+            build();
+    sessionCache = CacheBuilder.newBuilder().
+            maximumSize(maxSize).
+            expireAfterAccess(expireAfter, timeUnit).
+            build();
+  }
+
+  /**
+   * Get the detection result for the text from the cache or, if it's not cached, from {@code detector}.
+   * @param textSessionId the client's text session or {@code null}
+   * @return the detected language or {@code null}, if {@code detector} returned {@code null}
+   */
+  @Nullable
+  DetectedLanguage get(String text, List<String> noopLangs, List<String> preferredLangs, @Nullable Long textSessionId,
+                       Supplier<DetectedLanguage> detector) {
+    HashCode textHash = HASH.hashUnencodedChars(text);
+    DetectionKey key = new DetectionKey(textHash, text.length(), noopLangs, preferredLangs);
+    Optional<DetectedLanguage> result = detectionCache.getIfPresent(key);
+    if (result != null) {
+      return result.orElse(null);
+    }
+    SessionEntry session = textSessionId != null ? sessionCache.getIfPresent(textSessionId) : null;
+    if (session != null && session.canBeReusedFor(text, noopLangs, preferredLangs)) {
+      detectionCache.put(key, session.result);
+      return session.result.orElse(null);
+    }
+    result = Optional.ofNullable(detector.get());
+    detectionCache.put(key, result);
+    if (textSessionId != null) {
+      sessionCache.put(textSessionId, new SessionEntry(key, result));
+    }
+    return result.orElse(null);
+  }
+
+  Cache<DetectionKey, Optional<DetectedLanguage>> getCache() {
+    return detectionCache;
+  }
+
+  static class DetectionKey {
+    private final HashCode textHash;
+    private final int textLength;
+    private final List<String> noopLangs;
+    private final List<String> preferredLangs;
+
+    DetectionKey(HashCode textHash, int textLength, List<String> noopLangs, List<String> preferredLangs) {
+      this.textHash = textHash;
+      this.textLength = textLength;
+      this.noopLangs = noopLangs;
+      this.preferredLangs = preferredLangs;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      DetectionKey other = (DetectionKey) o;
+      return textLength == other.textLength &&
+             textHash.equals(other.textHash) &&
+             noopLangs.equals(other.noopLangs) &&
+             preferredLangs.equals(other.preferredLangs);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(textHash, textLength, noopLangs, preferredLangs);
+    }
+  }
+
+  private static class SessionEntry {
+    // describes the text that was actually detected, so re-use can't drift away from it:
+    private final DetectionKey key;
+    private final Optional<DetectedLanguage> result;
+
+    SessionEntry(DetectionKey key, Optional<DetectedLanguage> result) {
+      this.key = key;
+      this.result = result;
+    }
+
+    boolean canBeReusedFor(String text, List<String> noopLangs, List<String> preferredLangs) {
+      return key.textLength >= MIN_LENGTH_FOR_SESSION_REUSE &&
+             text.length() >= key.textLength &&
+             text.length() <= key.textLength * MAX_SESSION_GROWTH &&
+             key.noopLangs.equals(noopLangs) &&
+             key.preferredLangs.equals(preferredLangs) &&
+             HASH.hashUnencodedChars(text.subSequence(0, key.textLength)).equals(key.textHash);
+    }
+  }
+}
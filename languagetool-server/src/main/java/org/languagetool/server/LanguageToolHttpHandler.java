@@ -24,7 +24,9 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.languagetool.DisambiguationTrace;
 import org.languagetool.ErrorRateTooHighException;
+import org.languagetool.rules.patterns.RuleFileSnapshot;
 import org.languagetool.tools.StringTools;
 
 import java.io.IOException;
@@ -59,7 +61,12 @@ class LanguageToolHttpHandler implements HttpHandler {
     this.requestLimiter = requestLimiter;
     this.errorRequestLimiter = errorLimiter;
     this.workQueue = workQueue;
+    if (config.getRuleSnapshotDir() != null) {
+      RuleFileSnapshot.setCacheDirectory(config.getRuleSnapshotDir());
+    }
     this.textCheckerV2 = new V2TextChecker(config, internal, workQueue, reqCounter);
+    // nobody looks at the disambiguation history of tokens in the server, so don't build it for every check:
+    DisambiguationTrace.setEnabled(config.isDisambiguationTrace());
   }
 
   /** @since 2.6 */
@@ -186,6 +193,11 @@ class LanguageToolHttpHandler implements HttpHandler {
         errorCode = HttpURLConnection.HTTP_FORBIDDEN;
         response = e.getMessage();
         logStacktrace = false;
+      } else if (e instanceof ServerBusyException || rootCause instanceof ServerBusyException) {
+        errorCode = HTTP_UNAVAILABLE;
+        response = "There are currently too many parallel requests. Please try again later.";
+        logStacktrace = false;
+        ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.QUEUE_FULL);
       } else if (e instanceof IllegalArgumentException || rootCause instanceof IllegalArgumentException) {
         errorCode = HttpURLConnection.HTTP_BAD_REQUEST;
         response = e.getMessage();
@@ -379,7 +391,7 @@ class LanguageToolHttpHandler implements HttpHandler {
   private Map<String, String> getRequestQuery(HttpExchange httpExchange, URI requestedUri) throws IOException {
     Map<String, String> params = new HashMap<>();
     if ("post".equalsIgnoreCase(httpExchange.getRequestMethod())) {
-      try (InputStreamReader isr = new InputStreamReader(httpExchange.getRequestBody(), ENCODING)) {
+      try (InputStreamReader isr = new InputStreamReader(ServerTools.getRequestBody(httpExchange), ENCODING)) {
         params.putAll(parseQuery(readerToString(isr, config.getMaxTextHardLength()), httpExchange));
         params.putAll(parseQuery(requestedUri.getRawQuery(), httpExchange));  // POST requests can have query parameters, too
         return params;
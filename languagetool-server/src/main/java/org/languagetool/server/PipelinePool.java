@@ -63,6 +63,22 @@ class PipelinePool {
       this.globalConfig = globalConfig;
     }
 
+    Language getLanguage() {
+      return lang;
+    }
+
+    Language getMotherTongue() {
+      return motherTongue;
+    }
+
+    TextChecker.QueryParams getQuery() {
+      return query;
+    }
+
+    UserConfig getUser() {
+      return user;
+    }
+
     @Override
     public int hashCode() {
       return new HashCodeBuilder(17, 31)
@@ -0,0 +1,187 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.languagetool.*;
+import org.languagetool.rules.CategoryId;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Counts how often pipelines with each {@link PipelinePool.PipelineSettings} are requested, so that
+ * the server can prewarm the pipelines its traffic needs after a restart. Settings that contain
+ * a user's dictionary aren't counted, as they are specific to one user.
+ * @since 4.7
+ */
+class PipelineProfile {
+
+  /** Maximum number of different settings that are counted. */
+  static final int MAX_SETTINGS = 1000;
+
+  private final ConcurrentMap<PipelinePool.PipelineSettings, LongAdder> counts = new ConcurrentHashMap<>();
+
+  void record(PipelinePool.PipelineSettings settings) {
+    UserConfig user = settings.getUser();
+    if (!user.getAcceptedWords().isEmpty()) {
+      return;
+    }
+    LongAdder count = counts.get(settings);
+    if (count == null) {
+      if (counts.size() >= MAX_SETTINGS) {
+        return;
+      }
+      count = counts.computeIfAbsent(settings, k -> new LongAdder());
+    }
+    count.increment();
+  }
+
+  Map<PipelinePool.PipelineSettings, Long> getCounts() {
+    Map<PipelinePool.PipelineSettings, Long> result = new HashMap<>();
+    counts.forEach((settings, count) -> result.put(settings, count.sum()));
+    return result;
+  }
+
+  /**
+   * Distribute {@code maxPipelines} pipelines over the most frequent settings, in proportion to their
+   * counts, but with at least one and at most {@code maxPipelinesPerSetting} pipelines per setting.
+   * @param maxSettings the maximum number of settings to prewarm pipelines for
+   * @return the number of pipelines per setting, most frequent settings first
+   */
+  LinkedHashMap<PipelinePool.PipelineSettings, Integer> getPipelineCounts(int maxPipelines, int maxSettings, int maxPipelinesPerSetting) {
+    List<Map.Entry<PipelinePool.PipelineSettings, Long>> entries = new ArrayList<>(getCounts().entrySet());
+    entries.sort(Map.Entry.<PipelinePool.PipelineSettings, Long>comparingByValue().reversed());
+    long total = entries.stream().mapToLong(Map.Entry::getValue).sum();
+    LinkedHashMap<PipelinePool.PipelineSettings, Integer> result = new LinkedHashMap<>();
+    int pipelines = 0;
+    for (Map.Entry<PipelinePool.PipelineSettings, Long> entry : entries) {
+      if (pipelines >= maxPipelines || result.size() >= maxSettings || entry.getValue() == 0) {
+        break;
+      }
+      int n = (int) Math.round((double) maxPipelines * entry.getValue() / total);
+      n = Math.min(Math.max(n, 1), Math.min(maxPipelinesPerSetting, maxPipelines - pipelines));
+      result.put(entry.getKey(), n);
+      pipelines += n;
+    }
+    return result;
+  }
+
+  void save(File file) throws IOException {
+    List<Map<String, Object>> entries = new ArrayList<>();
+    getCounts().forEach((settings, count) -> {
+      Map<String, Object> entry = toMap(settings);
+      entry.put("count", count);
+      entries.add(entry);
+    });
+    // write to a temporary file first so a crash can't leave an incomplete profile:
+    File tmpFile = new File(file.getPath() + ".tmp");
+    new ObjectMapper().writeValue(tmpFile, entries);
+    Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Load a profile saved with {@link #save(File)}. The counts are halved, so that the profile follows
+   * changes in traffic over several restarts. Settings with languages that don't exist anymore are ignored.
+   */
+  static PipelineProfile load(File file, GlobalConfig globalConfig) throws IOException {
+    List<Map<String, Object>> entries = new ObjectMapper().readValue(file, new TypeReference<List<Map<String, Object>>>() {});
+    PipelineProfile profile = new PipelineProfile();
+    for (Map<String, Object> entry : entries) {
+      PipelinePool.PipelineSettings settings = fromMap(entry, globalConfig);
+      long count = ((Number) entry.get("count")).longValue() / 2;
+      if (settings != null && count > 0 && profile.counts.size() < MAX_SETTINGS) {
+        profile.counts.computeIfAbsent(settings, k -> new LongAdder()).add(count);
+      }
+    }
+    return profile;
+  }
+
+  private static Map<String, Object> toMap(PipelinePool.PipelineSettings settings) {
+    TextChecker.QueryParams query = settings.getQuery();
+    UserConfig user = settings.getUser();
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("language", settings.getLanguage().getShortCodeWithCountryAndVariant());
+    map.put("motherTongue", settings.getMotherTongue() != null ? settings.getMotherTongue().getShortCodeWithCountryAndVariant() : null);
+    map.put("altLanguages", query.altLanguages.stream().map(Language::getShortCodeWithCountryAndVariant).collect(Collectors.toList()));
+    map.put("enabledRules", query.enabledRules);
+    map.put("disabledRules", query.disabledRules);
+    map.put("enabledCategories", query.enabledCategories.stream().map(CategoryId::toString).collect(Collectors.toList()));
+    map.put("disabledCategories", query.disabledCategories.stream().map(CategoryId::toString).collect(Collectors.toList()));
+    map.put("useEnabledOnly", query.useEnabledOnly);
+    map.put("useQuerySettings", query.useQuerySettings);
+    map.put("allowIncompleteResults", query.allowIncompleteResults);
+    map.put("enableHiddenRules", query.enableHiddenRules);
+    map.put("mode", query.mode.name());
+    map.put("callback", query.callback);
+    map.put("ruleValues", user.getConfigValues());
+    map.put("maxSpellingSuggestions", user.getMaxSpellingSuggestions());
+    map.put("filterDictionaryMatches", user.filterDictionaryMatches());
+    map.put("deferSpellingSuggestions", user.deferSpellingSuggestions());
+    map.put("abTest", user.getAbTest());
+    // UserConfig.equals() compares the parity of the text session id:
+    map.put("textSessionIdParity", user.getTextSessionId() % 2);
+    return map;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static PipelinePool.PipelineSettings fromMap(Map<String, Object> map, GlobalConfig globalConfig) {
+    Language language = getLanguage((String) map.get("language"));
+    Language motherTongue = map.get("motherTongue") != null ? getLanguage((String) map.get("motherTongue")) : null;
+    if (language == null || map.get("motherTongue") != null && motherTongue == null) {
+      return null;
+    }
+    List<Language> altLanguages = new ArrayList<>();
+    for (String code : (List<String>) map.get("altLanguages")) {
+      Language altLanguage = getLanguage(code);
+      if (altLanguage == null) {
+        return null;
+      }
+      altLanguages.add(altLanguage);
+    }
+    TextChecker.QueryParams query = new TextChecker.QueryParams(altLanguages,
+      (List<String>) map.get("enabledRules"), (List<String>) map.get("disabledRules"),
+      getCategoryIds((List<String>) map.get("enabledCategories")), getCategoryIds((List<String>) map.get("disabledCategories")),
+      (Boolean) map.get("useEnabledOnly"), (Boolean) map.get("useQuerySettings"), (Boolean) map.get("allowIncompleteResults"),
+      (Boolean) map.get("enableHiddenRules"), JLanguageTool.Mode.valueOf((String) map.get("mode")), (String) map.get("callback"));
+    UserConfig user = new UserConfig(new ArrayList<>(), (Map<String, Integer>) map.get("ruleValues"),
+      ((Number) map.get("maxSpellingSuggestions")).intValue(), null, null,
+      (Boolean) map.get("filterDictionaryMatches"), (Boolean) map.get("deferSpellingSuggestions"));
+    user.setAbTest((String) map.get("abTest"));
+    user.setTextSessionId(((Number) map.get("textSessionIdParity")).longValue());
+    return new PipelinePool.PipelineSettings(language, motherTongue, query, globalConfig, user);
+  }
+
+  private static Language getLanguage(String code) {
+    return Languages.isLanguageSupported(code) ? Languages.getLanguageForShortCode(code) : null;
+  }
+
+  private static List<CategoryId> getCategoryIds(List<String> ids) {
+    return ids.stream().map(CategoryId::new).collect(Collectors.toList());
+  }
+
+}
@@ -19,6 +19,7 @@
 package org.languagetool.server;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.jetbrains.annotations.NotNull;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.AnalyzedTokenReadings;
@@ -55,7 +56,8 @@ class ResultExtender {
   private final URL url;
   private final int connectTimeoutMillis;
   private final ObjectMapper mapper = new ObjectMapper();
-  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private final ExecutorService executor = Executors.newCachedThreadPool(
+    new ThreadFactoryBuilder().setNameFormat("lt-hidden-matches-thread-%d").setDaemon(true).build());
 
   ResultExtender(String url, int connectTimeoutMillis) {
     this.url = Tools.getUrl(url);
@@ -83,11 +85,18 @@ class ResultExtender {
     return filteredExtMatches;
   }
 
+  /**
+   * Query the other server in the background, so that this can run at the same time as the local check.
+   */
   @NotNull
   Future<List<RemoteRuleMatch>> getExtensionMatchesFuture(String plainText, Map<String, String> params) {
     return executor.submit(() -> getExtensionMatches(plainText, params));
-  }  
-  
+  }
+
+  /**
+   * Query the other server. The connection is not closed afterwards on success, so that
+   * {@link HttpURLConnection} can keep it alive and use it again for the next request.
+   */
   @NotNull
   List<RemoteRuleMatch> getExtensionMatches(String plainText, Map<String, String> params) throws IOException {
     HttpURLConnection huc = (HttpURLConnection) url.openConnection();
@@ -118,18 +127,19 @@ class ResultExtender {
         byte[] postData = urlParameters.getBytes(StandardCharsets.UTF_8);
         wr.write(postData);
       }
-      InputStream input = huc.getInputStream();
-      return parseJson(input);
+      try (InputStream input = huc.getInputStream()) {
+        return parseJson(input);
+      }
     } catch (SSLHandshakeException | SocketTimeoutException e) {
       // "hard" errors that will probably not resolve themselves easily:
+      huc.disconnect();
       throw e;
     } catch (Exception e) {
       // These are issue that can be request-specific, like wrong parameters. We don't throw an
       // exception, as the calling code would otherwise assume this is a persistent error:
+      huc.disconnect();
       print("Warn: Failed to query hidden matches server at " + url + ": " + e.getClass() + ": " + e.getMessage() + ", input was " + plainText.length() + " characters");
       return Collections.emptyList();
-    } finally {
-      huc.disconnect();
     }
   }
 
@@ -128,6 +128,18 @@ abstract class Server {
                        "                                            affects Hunspell-based languages only)");
     System.out.println("                 'maxCheckThreads' - maximum number of threads working in parallel (optional)");
     System.out.println("                 'cacheSize' - size of internal cache in number of sentences (optional, default: 0)");
+    System.out.println("                 'offHeapCacheSizeMB' - keep cached rule matches serialized outside the Java heap, using this many megabytes (optional,\n" +
+                       "                                        default: 0 = on the heap); 'cacheSize' still limits the cached analyzed sentences.\n" +
+                       "                                        The JVM option -XX:MaxDirectMemorySize must be at least this large");
+    System.out.println("                 'remoteCacheStore' - class name of an org.languagetool.RemoteResultStore implementation that is used to share\n" +
+                       "                                      cached rule matches with other servers (optional)");
+    System.out.println("                 'languageDetectionCacheSize' - number of cached language detection results (optional, default: 10000, 0 deactivates the cache)");
+    System.out.println("                 'disambiguationTrace' - record the changes of disambiguation rules to each token, for debugging (optional, default: false)");
+    System.out.println("                 'ruleSnapshotDir' - directory for binary snapshots of the XML rule files, speeds up loading the rules after the first start (optional)");
+    System.out.println("                 'pipelineProfileFile' - file in which the server regularly saves which pipeline settings its requests use; with\n" +
+                       "                                         'pipelinePrewarming', pipelines are prewarmed according to this profile (optional)");
+    System.out.println("                 'ruleTimingSampleInterval' - time one in n rule checks and export per-rule latency histograms via Prometheus (optional, default: 0 = disabled)");
+    System.out.println("                 'dbLoggingThreads' - number of threads writing log entries to the database (optional, default: 1)");
     System.out.println("                 'requestLimit' - maximum number of requests per requestLimitPeriodInSeconds (optional)");
     System.out.println("                 'requestLimitInBytes' - maximum aggregated size of requests per requestLimitPeriodInSeconds (optional)");
     System.out.println("                 'timeoutRequestLimit' - maximum number of timeout request (optional)");
@@ -140,7 +152,10 @@ abstract class Server {
     System.out.println("                  https://fasttext.cc/docs/en/language-identification.html");
     System.out.println("                 'fasttextBinary' - compiled fasttext executable for language detection (optional), see");
     System.out.println("                  https://fasttext.cc/docs/en/support.html");
+    System.out.println("                 'fasttextProcesses' - number of fasttext processes to run in parallel (optional, default: 1)");
     System.out.println("                 'maxWorkQueueSize' - reject request if request queue gets larger than this (optional)");
+    System.out.println("                 'maxQueuedCheckMillis' - reject request if the estimated time of all waiting and running checks gets longer\n" +
+                       "                                          than this, in milliseconds (optional, default: 0 = no limit)");
     System.out.println("                 'rulesFile' - a file containing rules configuration, such as .langugagetool.cfg (optional)");
     System.out.println("                 'warmUp' - set to 'true' to warm up server at start, i.e. run a short check with all languages (optional)");
     System.out.println("                 'blockedReferrers' - a comma-separated list of HTTP referrers (and 'Origin' headers) that are blocked and will not be served (optional)");
@@ -171,8 +186,10 @@ abstract class Server {
   }
   
   protected ThreadPoolExecutor getExecutorService(LinkedBlockingQueue<Runnable> workQueue, HTTPServerConfig config) {
-    int threadPoolSize = config.getMaxCheckThreads();
-    ServerTools.print("Setting up thread pool with " + threadPoolSize + " threads");
+    // only maxCheckThreads checks run at the same time (see CheckScheduler), the other threads read requests
+    // and wait for their turn, so that short checks can overtake long ones:
+    int threadPoolSize = 2 * config.getMaxCheckThreads();
+    ServerTools.print("Setting up thread pool with " + threadPoolSize + " threads for " + config.getMaxCheckThreads() + " parallel checks");
     return new StoppingThreadPoolExecutor(threadPoolSize, workQueue);
   }
 
@@ -19,8 +19,12 @@
 package org.languagetool.server;
 
 import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import io.prometheus.client.Collector;
 import io.prometheus.client.Counter;
+import io.prometheus.client.CounterMetricFamily;
 import io.prometheus.client.Gauge;
+import io.prometheus.client.GaugeMetricFamily;
 import io.prometheus.client.Histogram;
 import io.prometheus.client.Summary;
 import io.prometheus.client.guava.cache.CacheMetricsCollector;
@@ -30,9 +34,15 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
+import org.languagetool.OffHeapResultCache;
+import org.languagetool.ResultCache;
+import org.languagetool.RuleTimingStats;
+import org.languagetool.language.FasttextStats;
+import org.languagetool.language.LanguageIdentifier;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ServerMetricsCollector {
 
@@ -127,8 +137,22 @@ public class ServerMetricsCollector {
   private final Gauge hiddenMatchesServerStatus = Gauge
     .build("languagetool_hidden_matches_server_up", "Status of hidden matches server").register();
 
+  private final Gauge databaseLogQueueSize = Gauge
+    .build("languagetool_database_log_queue_size", "Log entries waiting to be written to the database").register();
+  private final Counter databaseLogDroppedCounter = Counter
+    .build("languagetool_database_log_dropped_total", "Log entries (or their rule matches) not written to the database because the queue was too full")
+    .labelNames("type").register();
+
   private final CacheMetricsCollector cacheMetrics = new CacheMetricsCollector().register();
 
+  private final OffHeapCacheCollector offHeapCacheMetrics = new OffHeapCacheCollector().register();
+
+  private final RemoteCacheCollector remoteCacheMetrics = new RemoteCacheCollector().register();
+
+  private final FasttextMetricsCollector fasttextMetrics = new FasttextMetricsCollector().register();
+
+  private final RuleTimingCollector ruleTimingMetrics = new RuleTimingCollector().register();
+
 
   public static void init(int port) throws IOException {
     DefaultExports.initialize();
@@ -147,6 +171,18 @@ public class ServerMetricsCollector {
     cacheMetrics.addCache(name, cache);
   }
 
+  public void monitorOffHeapCache(String name, OffHeapResultCache cache) {
+    offHeapCacheMetrics.caches.put(name, cache);
+  }
+
+  public void monitorRemoteCache(String name, ResultCache cache) {
+    remoteCacheMetrics.caches.put(name, cache);
+  }
+
+  public void monitorFasttext(LanguageIdentifier identifier) {
+    fasttextMetrics.identifier = identifier;
+  }
+
   public void logHiddenServerConfiguration(boolean enabled) {
     hiddenMatchesServerEnabled.set(enabled ? 1.0 : 0.0);
   }
@@ -155,6 +191,14 @@ public class ServerMetricsCollector {
     hiddenMatchesServerStatus.set(up ? 1.0 : 0.0);
   }
 
+  void logDatabaseLogQueueSize(int size) {
+    databaseLogQueueSize.set(size);
+  }
+
+  void logDroppedDatabaseLogEntry(String type) {
+    databaseLogDroppedCounter.labels(type).inc();
+  }
+
   public void logCheck(Language language, long milliseconds, int textSize, int matchCount,
                        JLanguageTool.Mode mode, @Nullable String client, Map<String, Integer> ruleMatches) {
     String clientLabel = cleanClientLabel(client);
@@ -205,4 +249,137 @@ public class ServerMetricsCollector {
     failedHealthcheckCounter.inc();
   }
 
+  /**
+   * Exports the per-process statistics of the fasttext pool used for language detection,
+   * read at scrape time so the detection itself doesn't need to know about prometheus.
+   */
+  private static class FasttextMetricsCollector extends Collector {
+
+    private volatile LanguageIdentifier identifier;
+
+    @Override
+    public List<MetricFamilySamples> collect() {
+      LanguageIdentifier identifier = this.identifier;
+      if (identifier == null) {
+        return Collections.emptyList();
+      }
+      List<String> labels = Collections.singletonList("process");
+      GaugeMetricFamily up = new GaugeMetricFamily("languagetool_fasttext_up", "Status of fasttext processes", labels);
+      GaugeMetricFamily pending = new GaugeMetricFamily("languagetool_fasttext_pending_requests", "Requests waiting for or being served by fasttext processes", labels);
+      CounterMetricFamily requests = new CounterMetricFamily("languagetool_fasttext_requests_total", "Requests answered by fasttext processes", labels);
+      CounterMetricFamily failures = new CounterMetricFamily("languagetool_fasttext_failures_total", "Failed requests to fasttext processes", labels);
+      CounterMetricFamily restarts = new CounterMetricFamily("languagetool_fasttext_restarts_total", "Restarts of fasttext processes", labels);
+      CounterMetricFamily latency = new CounterMetricFamily("languagetool_fasttext_latency_seconds_total", "Total latency of fasttext requests, in seconds", labels);
+      for (FasttextStats stats : identifier.getFasttextStats()) {
+        List<String> labelValues = Collections.singletonList(String.valueOf(stats.getProcessIndex()));
+        up.addMetric(labelValues, stats.isAlive() ? 1.0 : 0.0);
+        pending.addMetric(labelValues, stats.getPendingRequests());
+        requests.addMetric(labelValues, stats.getRequests());
+        failures.addMetric(labelValues, stats.getFailures());
+        restarts.addMetric(labelValues, stats.getRestarts());
+        latency.addMetric(labelValues, stats.getTotalLatencyNanos() / 1_000_000_000.0);
+      }
+      return Arrays.asList(up, pending, requests, failures, restarts, latency);
+    }
+  }
+
+  /**
+   * Exports the statistics of {@link OffHeapResultCache}s, which aren't Guava caches and so
+   * can't be monitored by {@link CacheMetricsCollector}.
+   */
+  private static class OffHeapCacheCollector extends Collector {
+
+    private final Map<String, OffHeapResultCache> caches = new ConcurrentHashMap<>();
+
+    @Override
+    public List<MetricFamilySamples> collect() {
+      if (caches.isEmpty()) {
+        return Collections.emptyList();
+      }
+      List<String> labels = Collections.singletonList("cache");
+      CounterMetricFamily hits = new CounterMetricFamily("languagetool_offheap_cache_hit_total", "Cache hits of off-heap caches", labels);
+      CounterMetricFamily misses = new CounterMetricFamily("languagetool_offheap_cache_miss_total", "Cache misses of off-heap caches", labels);
+      CounterMetricFamily evictions = new CounterMetricFamily("languagetool_offheap_cache_eviction_total", "Entries overwritten or expired in off-heap caches", labels);
+      GaugeMetricFamily size = new GaugeMetricFamily("languagetool_offheap_cache_size", "Entries in off-heap caches", labels);
+      GaugeMetricFamily usedBytes = new GaugeMetricFamily("languagetool_offheap_cache_used_bytes", "Memory used by entries of off-heap caches", labels);
+      GaugeMetricFamily capacityBytes = new GaugeMetricFamily("languagetool_offheap_cache_capacity_bytes", "Memory reserved for off-heap caches", labels);
+      for (Map.Entry<String, OffHeapResultCache> entry : caches.entrySet()) {
+        List<String> labelValues = Collections.singletonList(entry.getKey());
+        OffHeapResultCache cache = entry.getValue();
+        CacheStats stats = cache.getMatchesStats();
+        hits.addMetric(labelValues, stats.hitCount());
+        misses.addMetric(labelValues, stats.missCount());
+        evictions.addMetric(labelValues, stats.evictionCount());
+        size.addMetric(labelValues, cache.getMatchesCount());
+        usedBytes.addMetric(labelValues, cache.getUsedBytes());
+        capacityBytes.addMetric(labelValues, cache.getCapacityBytes());
+      }
+      return Arrays.asList(hits, misses, evictions, size, usedBytes, capacityBytes);
+    }
+  }
+
+  /**
+   * Exports how often {@link ResultCache}s found matches in their remote store.
+   */
+  private static class RemoteCacheCollector extends Collector {
+
+    private final Map<String, ResultCache> caches = new ConcurrentHashMap<>();
+
+    @Override
+    public List<MetricFamilySamples> collect() {
+      if (caches.isEmpty()) {
+        return Collections.emptyList();
+      }
+      List<String> labels = Collections.singletonList("cache");
+      CounterMetricFamily hits = new CounterMetricFamily("languagetool_remote_cache_hit_total", "Local cache misses found in the remote store", labels);
+      CounterMetricFamily misses = new CounterMetricFamily("languagetool_remote_cache_miss_total", "Local cache misses not found in the remote store", labels);
+      for (Map.Entry<String, ResultCache> entry : caches.entrySet()) {
+        List<String> labelValues = Collections.singletonList(entry.getKey());
+        hits.addMetric(labelValues, entry.getValue().getRemoteHitCount());
+        misses.addMetric(labelValues, entry.getValue().getRemoteMissCount());
+      }
+      return Arrays.asList(hits, misses);
+    }
+  }
+
+  /**
+   * Exports the sampled check times of each rule from {@link RuleTimingStats} as a histogram,
+   * read at scrape time so that timing a rule only updates a few counters.
+   */
+  private static class RuleTimingCollector extends Collector {
+
+    private static final String NAME = "languagetool_rule_check_latency_seconds";
+    private static final List<String> LABELS = Arrays.asList("language", "rule_id");
+    private static final List<String> BUCKET_LABELS = Arrays.asList("language", "rule_id", "le");
+
+    @Override
+    public List<MetricFamilySamples> collect() {
+      List<RuleTimingStats.Histogram> histograms = RuleTimingStats.getHistograms();
+      if (histograms.isEmpty()) {
+        return Collections.emptyList();
+      }
+      long[] bounds = RuleTimingStats.getBucketBounds();
+      String[] boundLabels = new String[bounds.length + 1];
+      for (int i = 0; i < bounds.length; i++) {
+        boundLabels[i] = doubleToGoString(bounds[i] / 1_000_000_000.0);
+      }
+      boundLabels[bounds.length] = "+Inf";
+      List<MetricFamilySamples.Sample> samples = new ArrayList<>();
+      for (RuleTimingStats.Histogram histogram : histograms) {
+        long[] counts = histogram.getBucketCounts();
+        long cumulativeCount = 0;
+        for (int i = 0; i < counts.length; i++) {
+          cumulativeCount += counts[i];
+          samples.add(new MetricFamilySamples.Sample(NAME + "_bucket", BUCKET_LABELS,
+            Arrays.asList(histogram.getLanguage(), histogram.getRuleId(), boundLabels[i]), cumulativeCount));
+        }
+        List<String> labelValues = Arrays.asList(histogram.getLanguage(), histogram.getRuleId());
+        samples.add(new MetricFamilySamples.Sample(NAME + "_count", LABELS, labelValues, cumulativeCount));
+        samples.add(new MetricFamilySamples.Sample(NAME + "_sum", LABELS, labelValues, histogram.getSumNanos() / 1_000_000_000.0));
+      }
+      return Collections.singletonList(new MetricFamilySamples(NAME, Type.HISTOGRAM,
+        "Histogram of sampled rule check times, per rule", samples));
+    }
+  }
+
 }
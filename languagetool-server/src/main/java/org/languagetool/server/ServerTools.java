@@ -22,18 +22,27 @@ import com.sun.net.httpserver.HttpExchange;
 import org.jetbrains.annotations.NotNull;
 import org.languagetool.JLanguageTool;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * @since 3.4
  */
 final class ServerTools {
 
+  // smaller responses aren't worth the effort of compressing them:
+  private static final int MIN_GZIP_RESPONSE_BYTES = 1000;
+
   private ServerTools() {
   }
 
@@ -83,6 +92,37 @@ final class ServerTools {
     }
   }
 
+  /**
+   * Send a response, compressed with gzip if the client accepts that.
+   * @since 4.7
+   */
+  static void sendResponse(HttpExchange httpExchange, int httpReturnCode, String response) throws IOException {
+    byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+    String acceptEncoding = httpExchange.getRequestHeaders().getFirst("Accept-Encoding");
+    if (bytes.length >= MIN_GZIP_RESPONSE_BYTES && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+      try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+        gzip.write(bytes);
+      }
+      bytes = out.toByteArray();
+      httpExchange.getResponseHeaders().set("Content-Encoding", "gzip");
+    }
+    httpExchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+    httpExchange.sendResponseHeaders(httpReturnCode, bytes.length);
+    httpExchange.getResponseBody().write(bytes);
+  }
+
+  /**
+   * Get the request body, decompressed if the client sent it compressed with gzip.
+   * @since 4.7
+   */
+  static InputStream getRequestBody(HttpExchange httpExchange) throws IOException {
+    if ("gzip".equalsIgnoreCase(httpExchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+      return new GZIPInputStream(httpExchange.getRequestBody());
+    }
+    return httpExchange.getRequestBody();
+  }
+
   static UserLimits getUserLimits(Map<String, String> params, HTTPServerConfig config) {
     if (params.get("token") != null) {
       return UserLimits.getLimitsFromToken(config, params.get("token"));
@@ -18,6 +18,8 @@
  */
 package org.languagetool.server;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sun.net.httpserver.HttpExchange;
 import org.apache.commons.lang3.builder.EqualsBuilder;
@@ -31,11 +33,14 @@ import org.languagetool.language.LanguageIdentifier;
 import org.languagetool.markup.AnnotatedText;
 import org.languagetool.rules.CategoryId;
 import org.languagetool.rules.DictionaryMatchFilter;
+import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.bitext.BitextRule;
+import org.languagetool.rules.spelling.SpellingCheckRule;
 import org.languagetool.rules.spelling.morfologik.suggestions_ordering.SuggestionsOrdererConfig;
 import org.languagetool.tools.Tools;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
@@ -44,6 +49,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -56,11 +62,11 @@ abstract class TextChecker {
 
   protected abstract void setHeaders(HttpExchange httpExchange);
   protected abstract String getResponse(AnnotatedText text, DetectedLanguage lang, Language motherTongue, List<RuleMatch> matches,
-                                        List<RuleMatch> hiddenMatches, String incompleteResultReason, int compactMode);
+                                        List<RuleMatch> hiddenMatches, String incompleteResultReason, int checkedUpTo, int compactMode);
   @NotNull
   protected abstract List<String> getPreferredVariants(Map<String, String> parameters);
   protected abstract DetectedLanguage getLanguage(String text, Map<String, String> parameters, List<String> preferredVariants,
-                                                  List<String> additionalDetectLangs, List<String> preferredLangs);
+                                                  List<String> additionalDetectLangs, List<String> preferredLangs, @Nullable Long textSessionId);
   protected abstract boolean getLanguageAutoDetect(Map<String, String> parameters);
   @NotNull
   protected abstract List<String> getEnabledRuleIds(Map<String, String> parameters);
@@ -69,10 +75,16 @@ abstract class TextChecker {
     
   protected static final int CONTEXT_SIZE = 40; // characters
   protected static final int NUM_PIPELINES_PER_SETTING = 3; // for prewarming
+  // a batch check doesn't use more than one pipeline for fewer texts of a language than this:
+  private static final int MIN_TEXTS_PER_BATCH_CHUNK = 10;
+  private static final int NUM_PROFILE_PIPELINES = 180; // for prewarming from a profile, about as many as for the default settings
+  private static final int NUM_WARM_UP_SENTENCES = 20; // per prewarmed pipeline
+  private static final long PIPELINE_PROFILE_SAVE_MINUTES = 10;
+  // time a check may take after its deadline, to get to the next sentence boundary, before it gets cancelled:
+  private static final long DEADLINE_GRACE_MILLIS = 1000;
 
   protected final HTTPServerConfig config;
 
-  private static final String ENCODING = "UTF-8";
   private static final int CACHE_STATS_PRINT = 500; // print cache stats every n cache requests
   
   private final Map<String,Integer> languageCheckCounts = new HashMap<>();
@@ -80,10 +92,21 @@ abstract class TextChecker {
   private RequestCounter reqCounter;
   // keep track of timeouts of the hidden matches server, check health periodically;
   // -1 => healthy, else => check timed out at given date, check back if time difference > config.getHiddenMatchesFailTimeout()
-  private long lastHiddenMatchesServerTimeout;
+  private volatile long lastHiddenMatchesServerTimeout;
+  private final ResultExtender resultExtender;
   private final LanguageIdentifier identifier;
+  private final LanguageDetectionCache detectionCache;
   private final ExecutorService executorService;
   private final ResultCache cache;
+  private final CheckScheduler checkScheduler;
+  private final PipelineProfile pipelineProfile;
+  private final ScheduledExecutorService pipelineProfileSaver;
+  // suggestions for misspelled words whose suggestions the check has left out, key is language code + word:
+  private final Cache<String, List<String>> suggestionsCache = CacheBuilder.newBuilder()
+    .maximumSize(10000)
+    .expireAfterAccess(1, TimeUnit.HOURS)
+    .recordStats()
+    .build();
   private final DatabaseLogger logger;
   private final Long logServerId;
   PipelinePool pipelinePool; // mocked in test -> package-private / not final
@@ -93,10 +116,19 @@ abstract class TextChecker {
     this.workQueue = workQueue;
     this.reqCounter = reqCounter;
     this.identifier = new LanguageIdentifier();
-    this.identifier.enableFasttext(config.getFasttextBinary(), config.getFasttextModel());
+    this.identifier.enableFasttext(config.getFasttextBinary(), config.getFasttextModel(), config.getFasttextProcesses());
+    this.detectionCache = config.getLanguageDetectionCacheSize() > 0 ? new LanguageDetectionCache(
+      config.getLanguageDetectionCacheSize(), config.getCacheTTLSeconds(), TimeUnit.SECONDS) : null;
+    this.checkScheduler = new CheckScheduler(config.getMaxCheckThreads(), config.getMaxQueuedCheckMillis());
     this.executorService = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("lt-textchecker-thread-%d").build());
-    this.cache = config.getCacheSize() > 0 ? new ResultCache(
-      config.getCacheSize(), config.getCacheTTLSeconds(), TimeUnit.SECONDS) : null;
+    RemoteResultStore remoteStore = config.getRemoteCacheStore() != null ? createRemoteStore(config.getRemoteCacheStore()) : null;
+    if (config.getOffHeapCacheSizeMB() > 0) {
+      this.cache = new OffHeapResultCache(config.getCacheSize(), config.getOffHeapCacheSizeMB() * 1024L * 1024L,
+        config.getCacheTTLSeconds(), TimeUnit.SECONDS, remoteStore);
+    } else {
+      this.cache = config.getCacheSize() > 0 || remoteStore != null ? new ResultCache(
+        config.getCacheSize(), config.getCacheTTLSeconds(), TimeUnit.SECONDS, remoteStore) : null;
+    }
     this.logger = DatabaseLogger.getInstance();
     if (logger.isLogging()) {
       this.logServerId = DatabaseAccess.getInstance().getOrCreateServerId();
@@ -104,19 +136,43 @@ abstract class TextChecker {
       this.logServerId = null;
     }
 
+    this.resultExtender = config.getHiddenMatchesServer() != null ?
+      new ResultExtender(config.getHiddenMatchesServer(), config.getHiddenMatchesServerTimeout()) : null;
     ServerMetricsCollector.getInstance().logHiddenServerConfiguration(config.getHiddenMatchesServer() != null);
 
-    if (cache != null) {
+    ServerMetricsCollector.getInstance().monitorFasttext(identifier);
+    if (detectionCache != null) {
+      ServerMetricsCollector.getInstance().monitorCache("languagetool_language_detection_cache", detectionCache.getCache());
+    }
+
+    ServerMetricsCollector.getInstance().monitorCache("languagetool_suggestions_cache", suggestionsCache);
+    if (cache instanceof OffHeapResultCache) {
+      ServerMetricsCollector.getInstance().monitorOffHeapCache("languagetool_matches_cache", (OffHeapResultCache) cache);
+      ServerMetricsCollector.getInstance().monitorCache("languagetool_sentences_cache", cache.getSentenceCache());
+    } else if (cache != null) {
       ServerMetricsCollector.getInstance().monitorCache("languagetool_matches_cache", cache.getMatchesCache());
       ServerMetricsCollector.getInstance().monitorCache("languagetool_sentences_cache", cache.getSentenceCache());
     }
+    if (remoteStore != null) {
+      ServerMetricsCollector.getInstance().monitorRemoteCache("languagetool_matches_cache", cache);
+    }
 
+    pipelineProfile = config.getPipelineProfileFile() != null ? loadPipelineProfile(config.getPipelineProfileFile()) : null;
     pipelinePool = new PipelinePool(config, cache, internalServer);
     if (config.isPipelinePrewarmingEnabled()) {
       ServerTools.print("Prewarming pipelines...");
-      prewarmPipelinePool();
+      prewarmPipelinePool(getPrewarmSettings());
       ServerTools.print("Prewarming finished.");
     }
+    if (pipelineProfile != null) {
+      pipelineProfileSaver = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("lt-pipeline-profile-thread-%d").setDaemon(true).build());
+      pipelineProfileSaver.scheduleWithFixedDelay(this::savePipelineProfile,
+        PIPELINE_PROFILE_SAVE_MINUTES, PIPELINE_PROFILE_SAVE_MINUTES, TimeUnit.MINUTES);
+      Runtime.getRuntime().addShutdownHook(new Thread(this::savePipelineProfile, "lt-pipeline-profile-shutdown"));
+    } else {
+      pipelineProfileSaver = null;
+    }
     if (config.getAbTest() != null) {
       ServerTools.print("A/B-Test enabled: " + config.getAbTest());
       if (config.getAbTest().equals("SuggestionsOrderer")) {
@@ -128,9 +184,50 @@ abstract class TextChecker {
       //RuleLoggerManager.getInstance().addLogger(new SlowRuleLogger(this.logServerId, config.getSlowRuleLoggingThreshold()));
       RuleLoggerManager.getInstance().addLogger(new SlowRuleLogger(System.out, config.getSlowRuleLoggingThreshold()));
     }
+    RuleTimingStats.setSampleInterval(config.getRuleTimingSampleInterval());
+  }
+
+  private static RemoteResultStore createRemoteStore(String className) {
+    try {
+      return (RemoteResultStore) Class.forName(className).getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | ClassCastException e) {
+      throw new IllegalArgumentException("Could not create remote cache store '" + className +
+        "', it must implement " + RemoteResultStore.class.getName() + " and have a public no-argument constructor", e);
+    }
+  }
+
+  private PipelineProfile loadPipelineProfile(File file) {
+    if (file.exists()) {
+      try {
+        return PipelineProfile.load(file, config.globalConfig);
+      } catch (IOException e) {
+        ServerTools.print("Could not load pipeline profile from " + file + ", starting with an empty profile: " + e);
+      }
+    }
+    return new PipelineProfile();
+  }
+
+  private void savePipelineProfile() {
+    try {
+      pipelineProfile.save(config.getPipelineProfileFile());
+    } catch (Exception e) {
+      ServerTools.print("Could not save pipeline profile to " + config.getPipelineProfileFile() + ": " + e);
+    }
   }
 
-  private void prewarmPipelinePool() {
+  private Map<PipelinePool.PipelineSettings, Integer> getPrewarmSettings() {
+    if (pipelineProfile != null) {
+      Map<PipelinePool.PipelineSettings, Integer> prewarmSettings = pipelineProfile.getPipelineCounts(
+        NUM_PROFILE_PIPELINES, config.getMaxPipelinePoolSize(), config.getMaxCheckThreads());
+      if (!prewarmSettings.isEmpty()) {
+        ServerTools.print("Using pipeline profile " + config.getPipelineProfileFile() + " for " + prewarmSettings.size() + " settings");
+        return prewarmSettings;
+      }
+    }
+    return getDefaultPrewarmSettings();
+  }
+
+  private Map<PipelinePool.PipelineSettings, Integer> getDefaultPrewarmSettings() {
     // setting + number of pipelines
     // typical addon settings at the moment (2018-11-05)
     Map<PipelinePool.PipelineSettings, Integer> prewarmSettings = new HashMap<>();
@@ -156,29 +253,70 @@ abstract class TextChecker {
         prewarmSettings.put(settingsMotherTongueEnglish, NUM_PIPELINES_PER_SETTING);
       }
     }
+    return prewarmSettings;
+  }
+
+  private void prewarmPipelinePool(Map<PipelinePool.PipelineSettings, Integer> prewarmSettings) {
+    // pipelines for different settings are created in parallel:
+    ExecutorService prewarmExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+      new ThreadFactoryBuilder().setNameFormat("lt-prewarm-thread-%d").build());
     try {
+      List<Future<?>> futures = new ArrayList<>();
       for (Map.Entry<PipelinePool.PipelineSettings, Integer> prewarmSetting : prewarmSettings.entrySet()) {
-          int numPipelines = prewarmSetting.getValue();
-          PipelinePool.PipelineSettings setting = prewarmSetting.getKey();
-
-          // request n pipelines first, return all afterwards -> creates multiple for same setting
-          List<Pipeline> pipelines = new ArrayList<>();
-          for (int i = 0; i < numPipelines; i++) {
-            Pipeline p = pipelinePool.getPipeline(setting);
-            p.check("LanguageTool");
-            pipelines.add(p);
-          }
-          for (Pipeline p : pipelines) {
-            pipelinePool.returnPipeline(setting, p);
-          }
+        futures.add(prewarmExecutor.submit(() -> {
+          prewarmPipelines(prewarmSetting.getKey(), prewarmSetting.getValue());
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
       }
     } catch (Exception e) {
       throw new RuntimeException("Error while prewarming pipelines", e);
+    } finally {
+      prewarmExecutor.shutdownNow();
     }
   }
 
+  private void prewarmPipelines(PipelinePool.PipelineSettings setting, int numPipelines) throws Exception {
+    // request n pipelines first, return all afterwards -> creates multiple for same setting
+    List<Pipeline> pipelines = new ArrayList<>();
+    try {
+      for (int i = 0; i < numPipelines; i++) {
+        Pipeline p = pipelinePool.getPipeline(setting);
+        pipelines.add(p);
+        p.check(getWarmUpText(p, i, NUM_WARM_UP_SENTENCES));
+      }
+    } finally {
+      for (Pipeline p : pipelines) {
+        pipelinePool.returnPipeline(setting, p);
+      }
+    }
+  }
+
+  /**
+   * Get a text to check so that the code of the pipeline's rules gets compiled by the JIT before
+   * real requests arrive: the first incorrect example sentences of rules spread over all active rules.
+   * @param offset use different sentences for each offset, so the checks don't get their results from the cache
+   */
+  static String getWarmUpText(JLanguageTool lt, int offset, int maxSentences) {
+    List<Rule> rules = lt.getAllActiveRules();
+    StringBuilder text = new StringBuilder("LanguageTool");
+    for (int i = 0; i < maxSentences && !rules.isEmpty(); i++) {
+      Rule rule = rules.get((int) (((long) i * rules.size() / maxSentences + offset) % rules.size()));
+      if (!rule.getIncorrectExamples().isEmpty()) {
+        String example = rule.getIncorrectExamples().get(0).getExample();
+        text.append("\n\n").append(example.replace("<marker>", "").replace("</marker>", ""));
+      }
+    }
+    return text.toString();
+  }
+
   void shutdownNow() {
     executorService.shutdownNow();
+    if (pipelineProfileSaver != null) {
+      pipelineProfileSaver.shutdownNow();
+    }
   }
   
   void checkText(AnnotatedText aText, HttpExchange httpExchange, Map<String, String> parameters, ErrorRequestLimiter errorRequestLimiter,
@@ -206,16 +344,8 @@ abstract class TextChecker {
               " characters (it's " + aText.getPlainText().length() + " characters). Please submit a shorter text.");
     }
 
-    boolean filterDictionaryMatches = "true".equals(parameters.get("filterDictionaryMatches"));
-
-    UserConfig userConfig = new UserConfig(
-            limits.getPremiumUid() != null ? getUserDictWords(limits.getPremiumUid()) : Collections.emptyList(),
-            getRuleValues(parameters), config.getMaxSpellingSuggestions(), null, null, filterDictionaryMatches);
-
-    // NOTE: at the moment, feedback for A/B-Tests is only delivered from this client, so only run tests there
-    if (agent != null && agent.equals("ltorg")) {
-      userConfig.setAbTest(config.getAbTest());
-    }
+    Long textSessionId = getTextSessionId(parameters);
+    UserConfig userConfig = getUserConfig(parameters, limits, agent, textSessionId);
 
     //print("Check start: " + text.length() + " chars, " + langParam);
     boolean autoDetectLanguage = getLanguageAutoDetect(parameters);
@@ -228,7 +358,7 @@ abstract class TextChecker {
             Arrays.asList(parameters.get("noopLanguages").split(",")) : Collections.emptyList();
     List<String> preferredLangs = parameters.get("preferredLanguages") != null ?
             Arrays.asList(parameters.get("preferredLanguages").split(",")) : Collections.emptyList();
-    DetectedLanguage detLang = getLanguage(aText.getPlainText(), parameters, preferredVariants, noopLangs, preferredLangs);
+    DetectedLanguage detLang = getLanguage(aText.getPlainText(), parameters, preferredVariants, noopLangs, preferredLangs, textSessionId);
     Language lang = detLang.getGivenLanguage();
     Integer count = languageCheckCounts.get(lang.getShortCodeWithCountryAndVariant());
     if (count == null) {
@@ -239,76 +369,40 @@ abstract class TextChecker {
     //print("Starting check: " + aText.getPlainText().length() + " chars, #" + count);
     String motherTongueParam = parameters.get("motherTongue");
     Language motherTongue = motherTongueParam != null ? Languages.getLanguageForShortCode(motherTongueParam) : null;
-    boolean useEnabledOnly = "yes".equals(parameters.get("enabledOnly")) || "true".equals(parameters.get("enabledOnly"));
-    List<Language> altLanguages = new ArrayList<>();
-    if (parameters.get("altLanguages") != null) {
-      String[] altLangParams = parameters.get("altLanguages").split(",\\s*");
-      for (String langCode : altLangParams) {
-        Language altLang = Languages.getLanguageForShortCode(langCode);
-        altLanguages.add(altLang);
-        if (altLang.hasVariant() && !altLang.isVariant()) {
-          ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
-          throw new IllegalArgumentException("You specified altLanguage '" + langCode + "', but for this language you need to specify a variant, e.g. 'en-GB' instead of just 'en'");
-        }
-      }
-    }
-    List<String> enabledRules = getEnabledRuleIds(parameters);
+    QueryParams params = getQueryParams(parameters);
+    JLanguageTool.Mode mode = params.mode;
 
-    List<String> disabledRules = getDisabledRuleIds(parameters);
-    List<CategoryId> enabledCategories = getCategoryIds("enabledCategories", parameters);
-    List<CategoryId> disabledCategories = getCategoryIds("disabledCategories", parameters);
+    int textSize = aText.getPlainText().length();
 
-    if ((disabledRules.size() > 0 || disabledCategories.size() > 0) && useEnabledOnly) {
-      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
-      throw new IllegalArgumentException("You cannot specify disabled rules or categories using enabledOnly=true");
-    }
-    if (enabledRules.isEmpty() && enabledCategories.isEmpty() && useEnabledOnly) {
-      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
-      throw new IllegalArgumentException("You must specify enabled rules or categories when using enabledOnly=true");
+    // the hidden matches server only needs the text and the parameters, so query it while we check locally:
+    long hiddenMatchesStart = System.currentTimeMillis();
+    Future<List<RemoteRuleMatch>> hiddenMatchesFuture = null;
+    if (resultExtender != null && params.enableHiddenRules && config.getHiddenMatchesLanguages().contains(lang)) {
+      if (config.getHiddenMatchesServerFailTimeout() > 0 && lastHiddenMatchesServerTimeout != -1 &&
+        System.currentTimeMillis() - lastHiddenMatchesServerTimeout < config.getHiddenMatchesServerFailTimeout()) {
+        ServerMetricsCollector.getInstance().logHiddenServerStatus(false);
+        print("Warn: Skipped querying hidden matches server at " +
+          config.getHiddenMatchesServer() + " because of recent error/timeout (timeout=" + config.getHiddenMatchesServerFailTimeout() + "ms).");
+      } else {
+        hiddenMatchesFuture = resultExtender.getExtensionMatchesFuture(aText.getPlainText(), parameters);
+      }
     }
 
-    boolean useQuerySettings = enabledRules.size() > 0 || disabledRules.size() > 0 ||
-            enabledCategories.size() > 0 || disabledCategories.size() > 0;
-    boolean allowIncompleteResults = "true".equals(parameters.get("allowIncompleteResults"));
-    boolean enableHiddenRules = "true".equals(parameters.get("enableHiddenRules"));
-    JLanguageTool.Mode mode = ServerTools.getMode(parameters);
-    String callback = parameters.get("callback");
-    QueryParams params = new QueryParams(altLanguages, enabledRules, disabledRules,
-      enabledCategories, disabledCategories, useEnabledOnly,
-      useQuerySettings, allowIncompleteResults, enableHiddenRules, mode, callback);
+    List<RuleMatch> ruleMatchesSoFar = Collections.synchronizedList(new ArrayList<>());
 
-    Long textSessionId = null;
+    CheckScheduler.Ticket ticket;
     try {
-      if (parameters.containsKey("textSessionId")) {
-        String textSessionIdStr = parameters.get("textSessionId");
-        if (textSessionIdStr.contains(":")) { // transitioning to new format used in chrome addon
-          // format: "{random number in 0..99999}:{unix time}"
-          long random, timestamp;
-          int sepPos = textSessionIdStr.indexOf(':');
-          random = Long.valueOf(textSessionIdStr.substring(0, sepPos));
-          timestamp = Long.valueOf(textSessionIdStr.substring(sepPos + 1));
-          // use random number to choose a slice in possible range of values
-          // then choose position in slice by timestamp
-          long maxRandom = 100000;
-          long randomSegmentSize = (Long.MAX_VALUE - maxRandom) / maxRandom;
-          long segmentOffset = random * randomSegmentSize;
-          if (timestamp > randomSegmentSize) {
-            print(String.format("Could not transform textSessionId '%s'", textSessionIdStr));
-          }
-          textSessionId = segmentOffset + timestamp;
-        } else {
-          textSessionId = Long.valueOf(textSessionIdStr);
-        }
-
-        userConfig.setTextSessionId(textSessionId);
+      ticket = checkScheduler.acquire(textSize, lang, mode, limits.getMaxCheckTimeMillis());
+    } catch (ServerBusyException e) {
+      if (hiddenMatchesFuture != null) {
+        hiddenMatchesFuture.cancel(true);
       }
-    } catch (NumberFormatException ex) {
-      print("Could not parse textSessionId '" + parameters.get("textSessionId") + "' as long: " + ex.getMessage());
+      throw e;
     }
-    int textSize = aText.getPlainText().length();
-
-    List<RuleMatch> ruleMatchesSoFar = Collections.synchronizedList(new ArrayList<>());
-    
+    long checkStart = System.currentTimeMillis();
+    // with incomplete results allowed, the check stops at a sentence boundary when the time is up:
+    CheckDeadline deadline = params.allowIncompleteResults && limits.getMaxCheckTimeMillis() > 0 ?
+      new CheckDeadline(limits.getMaxCheckTimeMillis()) : null;
     Future<List<RuleMatch>> future = executorService.submit(new Callable<List<RuleMatch>>() {
       @Override
       public List<RuleMatch> call() throws Exception {
@@ -316,16 +410,26 @@ abstract class TextChecker {
         /*if (Math.random() < 0.1) {
           throw new OutOfMemoryError();
         }*/
-        return getRuleMatches(aText, lang, motherTongue, parameters, params, userConfig, f -> ruleMatchesSoFar.add(f));
+        return getRuleMatches(aText, lang, motherTongue, parameters, params, userConfig, f -> ruleMatchesSoFar.add(f), deadline);
       }
     });
     String incompleteResultReason = null;
+    int checkedUpTo = -1;
     List<RuleMatch> matches;
     try {
       if (limits.getMaxCheckTimeMillis() < 0) {
         matches = future.get();
       } else {
-        matches = future.get(limits.getMaxCheckTimeMillis(), TimeUnit.MILLISECONDS);
+        long graceMillis = deadline != null ? DEADLINE_GRACE_MILLIS : 0;
+        matches = future.get(limits.getMaxCheckTimeMillis() + graceMillis, TimeUnit.MILLISECONDS);
+      }
+      if (deadline != null && deadline.isIncomplete()) {
+        checkedUpTo = deadline.getCheckedUpTo();
+        print("Text checking took longer than allowed maximum of " + limits.getMaxCheckTimeMillis() + " milliseconds (lang: " +
+          lang.getShortCodeWithCountryAndVariant() + ", " + textSize + " characters of text, mode: " + mode.toString().toLowerCase() +
+          ") - returning " + matches.size() + " matches up to position " + checkedUpTo);
+        incompleteResultReason = "Results are incomplete: text checking took longer than allowed maximum of " +
+                String.format(Locale.ENGLISH, "%.2f", limits.getMaxCheckTimeMillis()/1000.0) + " seconds, the text has been checked up to position " + checkedUpTo;
       }
     } catch (ExecutionException e) {
       future.cancel(true);
@@ -368,37 +472,34 @@ abstract class TextChecker {
           logServerId, agentId, limits.getPremiumUid(), lang, detLang.getDetectedLanguage(), textSize, "load: "+ loadInfo));
         throw new RuntimeException(message, e);
       }
+    } finally {
+      // a cancelled check might still be running for a moment, but its slot is given to the next check anyway:
+      checkScheduler.release(ticket, System.currentTimeMillis() - checkStart);
     }
 
     setHeaders(httpExchange);
 
     List<RuleMatch> hiddenMatches = new ArrayList<>();
-    if (config.getHiddenMatchesServer() != null && params.enableHiddenRules &&
-      config.getHiddenMatchesLanguages().contains(lang)) {
-      if(config.getHiddenMatchesServerFailTimeout() > 0 && lastHiddenMatchesServerTimeout != -1 &&
-        System.currentTimeMillis() - lastHiddenMatchesServerTimeout < config.getHiddenMatchesServerFailTimeout()) {
+    if (hiddenMatchesFuture != null) {
+      try {
+        // no timeout needed here, the connection to the hidden matches server has its own timeouts:
+        long waitStart = System.currentTimeMillis();
+        List<RemoteRuleMatch> extensionMatches = hiddenMatchesFuture.get();
+        hiddenMatches = resultExtender.getFilteredExtensionMatches(matches, extensionMatches);
+        long end = System.currentTimeMillis();
+        print("Hidden matches: " + extensionMatches.size() + " -> " + hiddenMatches.size() + " in " + (end - hiddenMatchesStart) +
+          "ms (waited " + (end - waitStart) + "ms) for " + lang.getShortCodeWithCountryAndVariant());
+        ServerMetricsCollector.getInstance().logHiddenServerStatus(true);
+        lastHiddenMatchesServerTimeout = -1;
+      } catch (Exception e) {
+        Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
         ServerMetricsCollector.getInstance().logHiddenServerStatus(false);
-        print("Warn: Skipped querying hidden matches server at " +
-          config.getHiddenMatchesServer() + " because of recent error/timeout (timeout=" + config.getHiddenMatchesServerFailTimeout() + "ms).");
-      } else {
-        ResultExtender resultExtender = new ResultExtender(config.getHiddenMatchesServer(), config.getHiddenMatchesServerTimeout());
-        try {
-          long start = System.currentTimeMillis();
-          List<RemoteRuleMatch> extensionMatches = resultExtender.getExtensionMatches(aText.getPlainText(), parameters);
-          hiddenMatches = resultExtender.getFilteredExtensionMatches(matches, extensionMatches);
-          long end = System.currentTimeMillis();
-          print("Hidden matches: " + extensionMatches.size() + " -> " + hiddenMatches.size() + " in " + (end - start) + "ms for " + lang.getShortCodeWithCountryAndVariant());
-          ServerMetricsCollector.getInstance().logHiddenServerStatus(true);
-          lastHiddenMatchesServerTimeout = -1;
-        } catch (Exception e) {
-          ServerMetricsCollector.getInstance().logHiddenServerStatus(false);
-          print("Warn: Failed to query hidden matches server at " + config.getHiddenMatchesServer() + ": " + e.getClass() + ": " + e.getMessage() + ", input was " + aText.getPlainText().length() + " characters");
-          lastHiddenMatchesServerTimeout = System.currentTimeMillis();
-        }
+        print("Warn: Failed to query hidden matches server at " + config.getHiddenMatchesServer() + ": " + cause.getClass() + ": " + cause.getMessage() + ", input was " + aText.getPlainText().length() + " characters");
+        lastHiddenMatchesServerTimeout = System.currentTimeMillis();
       }
     }
     int compactMode = Integer.parseInt(parameters.getOrDefault("c", "0"));
-    String response = getResponse(aText, detLang, motherTongue, matches, hiddenMatches, incompleteResultReason, compactMode);
+    String response = getResponse(aText, detLang, motherTongue, matches, hiddenMatches, incompleteResultReason, checkedUpTo, compactMode);
     if (params.callback != null) {
       // JSONP - still needed today for the special case of hosting your own on-premise LT without SSL
       // and using it from a local MS Word (not Online Word) - issue #89 in the add-in repo:
@@ -407,8 +508,7 @@ abstract class TextChecker {
     String messageSent = "sent";
     String languageMessage = lang.getShortCodeWithCountryAndVariant();
     try {
-      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.getBytes(ENCODING).length);
-      httpExchange.getResponseBody().write(response.getBytes(ENCODING));
+      ServerTools.sendResponse(httpExchange, HttpURLConnection.HTTP_OK, response);
       ServerMetricsCollector.getInstance().logResponse(HttpURLConnection.HTTP_OK);
     } catch (IOException exception) {
       // the client is disconnected
@@ -449,6 +549,249 @@ abstract class TextChecker {
     }
   }
   
+  /**
+   * Check several texts and send the results for all of them in one response, in the order of the texts.
+   * The texts of each language are split into at most one chunk per check thread, and each chunk is
+   * checked with one pipeline. The texts share all settings except their language. Hidden matches
+   * and incomplete results aren't supported for batch checks.
+   * @param langCodes the language of each text, or {@code null} to use the {@code language} parameter
+   * @since 4.7
+   */
+  void checkTexts(List<AnnotatedText> texts, List<String> langCodes, HttpExchange httpExchange, Map<String, String> parameters) throws Exception {
+    if (parameters.get("sourceText") != null || parameters.get("callback") != null) {
+      throw new IllegalArgumentException("The 'sourceText' and 'callback' parameters are not supported for batch checks");
+    }
+    long timeStart = System.currentTimeMillis();
+    UserLimits limits = ServerTools.getUserLimits(parameters, config);
+    int totalSize = 0;
+    for (AnnotatedText text : texts) {
+      totalSize += text.getPlainText().length();
+    }
+    if (totalSize > limits.getMaxTextLength()) {
+      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.MAX_TEXT_SIZE);
+      throw new TextTooLongException("Your texts exceed the limit of " + limits.getMaxTextLength() +
+              " characters (they have " + totalSize + " characters together). Please submit fewer texts.");
+    }
+    String agent = parameters.get("useragent") != null ? parameters.get("useragent") : "-";
+    Long textSessionId = getTextSessionId(parameters);
+    UserConfig userConfig = getUserConfig(parameters, limits, agent, textSessionId);
+    String motherTongueParam = parameters.get("motherTongue");
+    Language motherTongue = motherTongueParam != null ? Languages.getLanguageForShortCode(motherTongueParam) : null;
+    QueryParams params = getQueryParams(parameters);
+    List<String> preferredVariants = getPreferredVariants(parameters);
+    List<String> noopLangs = parameters.get("noopLanguages") != null ?
+            Arrays.asList(parameters.get("noopLanguages").split(",")) : Collections.emptyList();
+    List<String> preferredLangs = parameters.get("preferredLanguages") != null ?
+            Arrays.asList(parameters.get("preferredLanguages").split(",")) : Collections.emptyList();
+
+    List<DetectedLanguage> languages = new ArrayList<>();
+    Map<Language, List<Integer>> textsByLanguage = new LinkedHashMap<>();
+    for (int i = 0; i < texts.size(); i++) {
+      Map<String, String> textParameters = parameters;
+      if (langCodes.get(i) != null) {
+        textParameters = new HashMap<>(parameters);
+        textParameters.put("language", langCodes.get(i));
+      }
+      if (textParameters.get("language") == null || textParameters.get("language").isEmpty()) {
+        throw new IllegalArgumentException("Missing language for text #" + i + ", set it for the text or with the 'language' parameter");
+      }
+      DetectedLanguage detLang = getLanguage(texts.get(i).getPlainText(), textParameters, preferredVariants, noopLangs, preferredLangs, textSessionId);
+      languages.add(detLang);
+      textsByLanguage.computeIfAbsent(detLang.getGivenLanguage(), k -> new ArrayList<>()).add(i);
+    }
+
+    List<List<RuleMatch>> matches = new ArrayList<>(Collections.nCopies(texts.size(), null));
+    List<BatchChunk> chunks = new ArrayList<>();
+    try {
+      for (Map.Entry<Language, List<Integer>> entry : textsByLanguage.entrySet()) {
+        PipelinePool.PipelineSettings settings = new PipelinePool.PipelineSettings(entry.getKey(), motherTongue, params, config.globalConfig, userConfig);
+        for (List<Integer> indexes : getBatchChunks(entry.getValue())) {
+          int chunkSize = 0;
+          for (int i : indexes) {
+            chunkSize += texts.get(i).getPlainText().length();
+          }
+          BatchChunk chunk = new BatchChunk(checkScheduler.acquire(chunkSize, entry.getKey(), params.mode, limits.getMaxCheckTimeMillis()));
+          chunks.add(chunk);
+          chunk.future = executorService.submit(() -> {
+            try {
+              List<AnnotatedText> chunkTexts = new ArrayList<>();
+              for (int i : indexes) {
+                chunkTexts.add(texts.get(i));
+              }
+              List<List<RuleMatch>> chunkMatches = getRuleMatches(chunkTexts, settings);
+              for (int j = 0; j < indexes.size(); j++) {
+                matches.set(indexes.get(j), chunkMatches.get(j));
+              }
+            } finally {
+              chunk.release(checkScheduler);
+            }
+            return null;
+          });
+        }
+      }
+      for (BatchChunk chunk : chunks) {
+        if (limits.getMaxCheckTimeMillis() < 0) {
+          chunk.future.get();
+        } else {
+          long remainingMillis = timeStart + limits.getMaxCheckTimeMillis() - System.currentTimeMillis();
+          chunk.future.get(Math.max(remainingMillis, 0), TimeUnit.MILLISECONDS);
+        }
+      }
+    } catch (ExecutionException e) {
+      if (e.getCause() != null && e.getCause() instanceof OutOfMemoryError) {
+        throw (OutOfMemoryError)e.getCause();
+      }
+      throw new RuntimeException(e.getMessage() + ", batch of " + texts.size() + " texts", e);
+    } catch (TimeoutException e) {
+      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.MAX_CHECK_TIME);
+      throw new RuntimeException("Text checking took longer than allowed maximum of " + limits.getMaxCheckTimeMillis() +
+        " milliseconds (batch of " + texts.size() + " texts, " + totalSize + " characters of text, mode: " + params.mode.toString().toLowerCase() + ")", e);
+    } finally {
+      for (BatchChunk chunk : chunks) {
+        if (chunk.future != null) {
+          chunk.future.cancel(true);
+        }
+        // a cancelled chunk might not have started, so its slot wouldn't be given back otherwise:
+        chunk.release(checkScheduler);
+      }
+    }
+
+    setHeaders(httpExchange);
+    int compactMode = Integer.parseInt(parameters.getOrDefault("c", "0"));
+    StringBuilder response = new StringBuilder("{\"results\":[");
+    for (int i = 0; i < texts.size(); i++) {
+      if (i > 0) {
+        response.append(',');
+      }
+      response.append(getResponse(texts.get(i), languages.get(i), motherTongue, matches.get(i), Collections.emptyList(), null, -1, compactMode));
+    }
+    response.append("]}");
+    ServerTools.sendResponse(httpExchange, HttpURLConnection.HTTP_OK, response.toString());
+    ServerMetricsCollector.getInstance().logResponse(HttpURLConnection.HTTP_OK);
+
+    int computationTime = (int) (System.currentTimeMillis() - timeStart);
+    int matchCount = 0;
+    for (Map.Entry<Language, List<Integer>> entry : textsByLanguage.entrySet()) {
+      int textSize = 0;
+      Map<String, Integer> ruleMatchCount = new HashMap<>();
+      for (int i : entry.getValue()) {
+        textSize += texts.get(i).getPlainText().length();
+        for (RuleMatch match : matches.get(i)) {
+          ruleMatchCount.merge(match.getRule().getId(), 1, Integer::sum);
+        }
+      }
+      int langMatchCount = ruleMatchCount.values().stream().mapToInt(Integer::intValue).sum();
+      matchCount += langMatchCount;
+      ServerMetricsCollector.getInstance().logCheck(entry.getKey(), computationTime, textSize, langMatchCount, params.mode, agent, ruleMatchCount);
+    }
+    print("Batch check done: " + texts.size() + " texts, " + totalSize + " chars, " + textsByLanguage.size() + " languages, " +
+      chunks.size() + " chunks, " + matchCount + " matches, " + computationTime + "ms, agent:" + agent);
+  }
+
+  /**
+   * Split the indexes of the texts of one language into at most one chunk per check thread.
+   */
+  private List<List<Integer>> getBatchChunks(List<Integer> indexes) {
+    int maxChunks = (indexes.size() + MIN_TEXTS_PER_BATCH_CHUNK - 1) / MIN_TEXTS_PER_BATCH_CHUNK;
+    int chunkCount = Math.max(1, Math.min(config.getMaxCheckThreads(), maxChunks));
+    List<List<Integer>> chunks = new ArrayList<>();
+    for (int i = 0; i < chunkCount; i++) {
+      chunks.add(indexes.subList(i * indexes.size() / chunkCount, (i + 1) * indexes.size() / chunkCount));
+    }
+    return chunks;
+  }
+
+  @Nullable
+  private static Long getTextSessionId(Map<String, String> parameters) {
+    Long textSessionId = null;
+    try {
+      if (parameters.containsKey("textSessionId")) {
+        String textSessionIdStr = parameters.get("textSessionId");
+        if (textSessionIdStr.contains(":")) { // transitioning to new format used in chrome addon
+          // format: "{random number in 0..99999}:{unix time}"
+          long random, timestamp;
+          int sepPos = textSessionIdStr.indexOf(':');
+          random = Long.valueOf(textSessionIdStr.substring(0, sepPos));
+          timestamp = Long.valueOf(textSessionIdStr.substring(sepPos + 1));
+          // use random number to choose a slice in possible range of values
+          // then choose position in slice by timestamp
+          long maxRandom = 100000;
+          long randomSegmentSize = (Long.MAX_VALUE - maxRandom) / maxRandom;
+          long segmentOffset = random * randomSegmentSize;
+          if (timestamp > randomSegmentSize) {
+            print(String.format("Could not transform textSessionId '%s'", textSessionIdStr));
+          }
+          textSessionId = segmentOffset + timestamp;
+        } else {
+          textSessionId = Long.valueOf(textSessionIdStr);
+        }
+      }
+    } catch (NumberFormatException ex) {
+      print("Could not parse textSessionId '" + parameters.get("textSessionId") + "' as long: " + ex.getMessage());
+    }
+    return textSessionId;
+  }
+
+  private UserConfig getUserConfig(Map<String, String> parameters, UserLimits limits, String agent, @Nullable Long textSessionId) {
+    boolean filterDictionaryMatches = "true".equals(parameters.get("filterDictionaryMatches"));
+    // the client asks for suggestions via /v2/suggestions when the user looks at a spelling error:
+    boolean deferSuggestions = "true".equals(parameters.get("deferSuggestions"));
+
+    UserConfig userConfig = new UserConfig(
+            limits.getPremiumUid() != null ? getUserDictWords(limits.getPremiumUid()) : Collections.emptyList(),
+            getRuleValues(parameters), config.getMaxSpellingSuggestions(), null, null, filterDictionaryMatches, deferSuggestions);
+
+    // NOTE: at the moment, feedback for A/B-Tests is only delivered from this client, so only run tests there
+    if (agent != null && agent.equals("ltorg")) {
+      userConfig.setAbTest(config.getAbTest());
+    }
+    if (textSessionId != null) {
+      userConfig.setTextSessionId(textSessionId);
+    }
+    return userConfig;
+  }
+
+  private QueryParams getQueryParams(Map<String, String> parameters) {
+    boolean useEnabledOnly = "yes".equals(parameters.get("enabledOnly")) || "true".equals(parameters.get("enabledOnly"));
+    List<Language> altLanguages = new ArrayList<>();
+    if (parameters.get("altLanguages") != null) {
+      String[] altLangParams = parameters.get("altLanguages").split(",\\s*");
+      for (String langCode : altLangParams) {
+        Language altLang = Languages.getLanguageForShortCode(langCode);
+        altLanguages.add(altLang);
+        if (altLang.hasVariant() && !altLang.isVariant()) {
+          ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
+          throw new IllegalArgumentException("You specified altLanguage '" + langCode + "', but for this language you need to specify a variant, e.g. 'en-GB' instead of just 'en'");
+        }
+      }
+    }
+    List<String> enabledRules = getEnabledRuleIds(parameters);
+
+    List<String> disabledRules = getDisabledRuleIds(parameters);
+    List<CategoryId> enabledCategories = getCategoryIds("enabledCategories", parameters);
+    List<CategoryId> disabledCategories = getCategoryIds("disabledCategories", parameters);
+
+    if ((disabledRules.size() > 0 || disabledCategories.size() > 0) && useEnabledOnly) {
+      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
+      throw new IllegalArgumentException("You cannot specify disabled rules or categories using enabledOnly=true");
+    }
+    if (enabledRules.isEmpty() && enabledCategories.isEmpty() && useEnabledOnly) {
+      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
+      throw new IllegalArgumentException("You must specify enabled rules or categories when using enabledOnly=true");
+    }
+
+    boolean useQuerySettings = enabledRules.size() > 0 || disabledRules.size() > 0 ||
+            enabledCategories.size() > 0 || disabledCategories.size() > 0;
+    boolean allowIncompleteResults = "true".equals(parameters.get("allowIncompleteResults"));
+    boolean enableHiddenRules = "true".equals(parameters.get("enableHiddenRules"));
+    JLanguageTool.Mode mode = ServerTools.getMode(parameters);
+    String callback = parameters.get("callback");
+    QueryParams params = new QueryParams(altLanguages, enabledRules, disabledRules,
+      enabledCategories, disabledCategories, useEnabledOnly,
+      useQuerySettings, allowIncompleteResults, enableHiddenRules, mode, callback);
+    return params;
+  }
+
   private Map<String, Integer> getRuleValues(Map<String, String> parameters) {
     Map<String, Integer> ruleValues = new HashMap<>();
     String parameterString = parameters.get("ruleValues");
@@ -476,7 +819,8 @@ abstract class TextChecker {
 
   private List<RuleMatch> getRuleMatches(AnnotatedText aText, Language lang,
                                          Language motherTongue, Map<String, String> parameters, 
-                                         QueryParams params, UserConfig userConfig, RuleMatchListener listener) throws Exception {
+                                         QueryParams params, UserConfig userConfig, RuleMatchListener listener,
+                                         @Nullable CheckDeadline deadline) throws Exception {
     if (cache != null && cache.requestCount() > 0 && cache.requestCount() % CACHE_STATS_PRINT == 0) {
       double hitRate = cache.hitRate();
       String hitPercentage = String.format(Locale.ENGLISH, "%.2f", hitRate * 100.0f);
@@ -504,8 +848,11 @@ abstract class TextChecker {
       Pipeline lt = null;
       try {
         settings = new PipelinePool.PipelineSettings(lang, motherTongue, params, config.globalConfig, userConfig);
+        if (pipelineProfile != null) {
+          pipelineProfile.record(settings);
+        }
         lt = pipelinePool.getPipeline(settings);
-        return lt.check(aText, true, JLanguageTool.ParagraphHandling.NORMAL, listener, params.mode);
+        return lt.check(aText, true, JLanguageTool.ParagraphHandling.NORMAL, listener, params.mode, deadline);
       } finally {
         if (lt != null) {
           pipelinePool.returnPipeline(settings, lt);
@@ -514,6 +861,59 @@ abstract class TextChecker {
     }
   }
 
+  /**
+   * Check texts with the same settings, getting the pipeline only once.
+   */
+  private List<List<RuleMatch>> getRuleMatches(List<AnnotatedText> texts, PipelinePool.PipelineSettings settings) throws Exception {
+    if (pipelineProfile != null) {
+      pipelineProfile.record(settings);
+    }
+    Pipeline lt = pipelinePool.getPipeline(settings);
+    try {
+      List<List<RuleMatch>> matches = new ArrayList<>();
+      for (AnnotatedText text : texts) {
+        matches.add(lt.check(text, true, JLanguageTool.ParagraphHandling.NORMAL, null, settings.getQuery().mode, null));
+      }
+      return matches;
+    } finally {
+      pipelinePool.returnPipeline(settings, lt);
+    }
+  }
+
+  /**
+   * Get the suggestions for a word that a check with {@code deferSuggestions=true} has returned as misspelled.
+   * @param token the {@code suggestionToken} of the match
+   * @since 4.7
+   */
+  List<String> getSpellingSuggestions(Language lang, String token) throws Exception {
+    String key = lang.getShortCodeWithCountryAndVariant() + "\n" + token;
+    List<String> suggestions = suggestionsCache.getIfPresent(key);
+    if (suggestions != null) {
+      return suggestions;
+    }
+    QueryParams params = new QueryParams(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(),
+      Collections.emptyList(), Collections.emptyList(), false, false, false, false, JLanguageTool.Mode.ALL, null);
+    PipelinePool.PipelineSettings settings = new PipelinePool.PipelineSettings(lang, null, params, config.globalConfig, new UserConfig());
+    Pipeline lt = pipelinePool.getPipeline(settings);
+    try {
+      suggestions = Collections.emptyList();
+      AnalyzedSentence sentence = lt.getAnalyzedSentence(token);
+      for (Rule rule : lt.getAllActiveRules()) {
+        if (rule instanceof SpellingCheckRule) {
+          RuleMatch[] matches = rule.match(sentence);
+          if (matches.length > 0) {
+            suggestions = Collections.unmodifiableList(matches[0].getSuggestedReplacements());
+            break;
+          }
+        }
+      }
+    } finally {
+      pipelinePool.returnPipeline(settings, lt);
+    }
+    suggestionsCache.put(key, suggestions);
+    return suggestions;
+  }
+
   @NotNull
   private List<CategoryId> getCategoryIds(String paramName, Map<String, String> parameters) {
     List<String> stringIds = getCommaSeparatedStrings(paramName, parameters);
@@ -536,7 +936,18 @@ abstract class TextChecker {
 
   DetectedLanguage detectLanguageOfString(String text, String fallbackLanguage, List<String> preferredVariants,
                                           List<String> noopLangs, List<String> preferredLangs) {
-    DetectedLanguage detected = identifier.detectLanguage(text, noopLangs, preferredLangs);
+    return detectLanguageOfString(text, fallbackLanguage, preferredVariants, noopLangs, preferredLangs, null);
+  }
+
+  DetectedLanguage detectLanguageOfString(String text, String fallbackLanguage, List<String> preferredVariants,
+                                          List<String> noopLangs, List<String> preferredLangs, @Nullable Long textSessionId) {
+    DetectedLanguage detected;
+    if (detectionCache != null) {
+      detected = detectionCache.get(text, noopLangs, preferredLangs, textSessionId,
+        () -> identifier.detectLanguage(text, noopLangs, preferredLangs));
+    } else {
+      detected = identifier.detectLanguage(text, noopLangs, preferredLangs);
+    }
     Language lang;
     if (detected == null) {
       lang = Languages.getLanguageForShortCode(fallbackLanguage != null ? fallbackLanguage : "en");
@@ -564,6 +975,27 @@ abstract class TextChecker {
     return new DetectedLanguage(null, lang, detected != null ? detected.getDetectionConfidence() : 0f);
   }
 
+  /**
+   * Some texts of a batch check that are checked with one pipeline, see {@link #checkTexts}.
+   */
+  private static class BatchChunk {
+
+    private final CheckScheduler.Ticket ticket;
+    private final long startTime = System.currentTimeMillis();
+    private final AtomicBoolean released = new AtomicBoolean();
+    private Future<?> future;
+
+    BatchChunk(CheckScheduler.Ticket ticket) {
+      this.ticket = ticket;
+    }
+
+    void release(CheckScheduler checkScheduler) {
+      if (released.compareAndSet(false, true)) {
+        checkScheduler.release(ticket, System.currentTimeMillis() - startTime);
+      }
+    }
+  }
+
   static class QueryParams {
     final List<Language> altLanguages;
     final List<String> enabledRules;
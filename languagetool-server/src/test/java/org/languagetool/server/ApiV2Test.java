@@ -61,5 +61,27 @@ public class ApiV2Test {
     assertTrue(httpExchange.getOutput().contains("The train arrived <marker>an hour</marker> ago."));
     assertTrue(httpExchange.getOutput().contains("The train arrived <marker>a hour</marker> ago."));
   }
+
+  @Test
+  public void testDeferredSuggestions() throws Exception {
+    HTTPServerConfig config = new HTTPServerConfig();
+    ApiV2 apiV2 = new ApiV2(new V2TextChecker(config, false, new LinkedBlockingQueue<>(), new RequestCounter()), null);
+    Map<String, String> params = new HashMap<>();
+    params.put("language", "en-US");
+    params.put("text", "This is a mistak.");
+    params.put("deferSuggestions", "true");
+    FakeHttpExchange checkExchange = new FakeHttpExchange();
+    apiV2.handleRequest("check", checkExchange, params, null, null, config);
+    assertTrue(checkExchange.getOutput().contains("\"replacements\":[],\"suggestionToken\":\"mistak\""));
+
+    Map<String, String> suggestionParams = new HashMap<>();
+    suggestionParams.put("language", "en-US");
+    suggestionParams.put("tokens", "mistak\nwoudl");
+    FakeHttpExchange suggestionsExchange = new FakeHttpExchange();
+    apiV2.handleRequest("suggestions", suggestionsExchange, suggestionParams, null, null, config);
+    String json = suggestionsExchange.getOutput();
+    assertTrue(json.contains("{\"token\":\"mistak\",\"replacements\":[{\"value\":\"mistake\"}"));
+    assertTrue(json.contains("{\"token\":\"woudl\",\"replacements\":[{\"value\":\"would\"}"));
+  }
   
 }
@@ -0,0 +1,114 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+
+import java.util.concurrent.*;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class CheckSchedulerTest {
+
+  private final Language lang = Languages.getLanguageForShortCode("en-US");
+
+  @Test
+  public void testEstimate() {
+    CheckScheduler scheduler = new CheckScheduler(4, 0);
+    long estimate = scheduler.estimateMillis(10_000, lang, JLanguageTool.Mode.ALL);
+    assertTrue(estimate > CheckScheduler.INTERACTIVE_MAX_MILLIS);
+    assertTrue(scheduler.estimateMillis(10_000, lang, JLanguageTool.Mode.TEXTLEVEL_ONLY) < estimate);
+    assertTrue(scheduler.estimateMillis(100, lang, JLanguageTool.Mode.ALL) <= CheckScheduler.INTERACTIVE_MAX_MILLIS);
+    // the estimate follows the measured time:
+    for (int i = 0; i < 100; i++) {
+      CheckScheduler.Ticket ticket = acquire(scheduler, 10_000);
+      scheduler.release(ticket, 10);
+    }
+    assertTrue(scheduler.estimateMillis(10_000, lang, JLanguageTool.Mode.ALL) < 20);
+    assertThat(scheduler.estimateMillis(10_000, Languages.getLanguageForShortCode("de-DE"), JLanguageTool.Mode.ALL), is(estimate));
+  }
+
+  @Test
+  public void testInteractiveChecksOvertakeBulkChecks() throws Exception {
+    CheckScheduler scheduler = new CheckScheduler(4, 0);
+    // 3 of 4 slots may be used by bulk checks:
+    CheckScheduler.Ticket bulk1 = acquire(scheduler, 50_000);
+    CheckScheduler.Ticket bulk2 = acquire(scheduler, 50_000);
+    CheckScheduler.Ticket bulk3 = acquire(scheduler, 50_000);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<CheckScheduler.Ticket> bulk4 = executor.submit(() -> acquire(scheduler, 50_000));
+      Thread.sleep(100);
+      assertFalse(bulk4.isDone());
+      assertThat(scheduler.getWaitingCount(), is(1));
+      CheckScheduler.Ticket interactive = acquire(scheduler, 100);
+      assertTrue(interactive.isInteractive());
+      Future<CheckScheduler.Ticket> interactive2 = executor.submit(() -> acquire(scheduler, 100));
+      Thread.sleep(100);
+      assertFalse(interactive2.isDone());
+      // the free slot goes to the interactive check, although the bulk check waited longer:
+      scheduler.release(interactive, 10);
+      interactive2.get(1, TimeUnit.SECONDS);
+      assertFalse(bulk4.isDone());
+      scheduler.release(bulk1, 1000);
+      bulk4.get(1, TimeUnit.SECONDS);
+      assertThat(scheduler.getWaitingCount(), is(0));
+    } finally {
+      executor.shutdownNow();
+    }
+    scheduler.release(bulk2, 1000);
+    scheduler.release(bulk3, 1000);
+  }
+
+  @Test
+  public void testRejectByEstimatedTime() throws Exception {
+    CheckScheduler scheduler = new CheckScheduler(1, 2000);
+    // allowed, as the server has nothing else to do:
+    CheckScheduler.Ticket large = acquire(scheduler, 100_000);
+    try {
+      acquire(scheduler, 10_000);
+      fail();
+    } catch (ServerBusyException expected) {}
+    scheduler.release(large, 5000);
+    assertThat(scheduler.getQueuedMillis(), is(0L));
+    CheckScheduler.Ticket small = acquire(scheduler, 1000);
+    try {
+      scheduler.acquire(1000, lang, JLanguageTool.Mode.ALL, 50);
+      fail();
+    } catch (ServerBusyException expected) {
+      // waited too long for the only slot
+    }
+    scheduler.release(small, 100);
+    assertThat(scheduler.getQueuedMillis(), is(0L));
+    assertThat(scheduler.getWaitingCount(), is(0));
+  }
+
+  private CheckScheduler.Ticket acquire(CheckScheduler scheduler, int textLength) {
+    try {
+      return scheduler.acquire(textLength, lang, JLanguageTool.Mode.ALL, -1);
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+}
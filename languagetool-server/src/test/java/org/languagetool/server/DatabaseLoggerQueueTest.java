@@ -0,0 +1,121 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Test;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class DatabaseLoggerQueueTest {
+
+  @Test
+  public void testQueueIsBounded() throws IOException {
+    // no workers, so nothing gets taken from the queue:
+    DatabaseLogger logger = new DatabaseLogger(getSessionFactory("queuetest"), 0);
+    try {
+      for (int i = 0; i < DatabaseLogger.MAX_QUEUE_SIZE + 10; i++) {
+        DatabaseCheckLogEntry entry = getCheckEntry(i);
+        logger.log(entry);
+        DatabaseRuleMatchLogEntry ruleMatches = entry.getRuleMatches();
+        assertNotNull(ruleMatches);
+        assertEquals(i <= DatabaseLogger.RULE_MATCH_LOGGING_LIMIT ? 2 : 0, ruleMatches.getMatchCount());
+      }
+      assertEquals(10, logger.getDroppedEntries());
+    } finally {
+      logger.disableLogging();
+    }
+  }
+
+  @Test
+  public void testWrite() throws Exception {
+    SqlSessionFactory factory = getSessionFactory("writetest");
+    DatabaseLogger logger = new DatabaseLogger(factory, 0);
+    logger.createTestTables();
+    try {
+      List<DatabaseLogEntry> batch = new ArrayList<>();
+      batch.add(getCheckEntry(1));
+      batch.add(new DatabaseMiscLogEntry(1L, null, null, "misc"));
+      DatabaseCheckLogEntry withoutMatches = getCheckEntry(2);
+      withoutMatches.setRuleMatches(new DatabaseRuleMatchLogEntry(Collections.emptyMap()));
+      batch.add(withoutMatches);
+      batch.add(getCheckEntry(3));
+      try (SqlSession session = factory.openSession(ExecutorType.REUSE, false)) {
+        DatabaseLogger.write(session, batch);
+      }
+      try (SqlSession session = factory.openSession(true);
+           Connection conn = session.getConnection();
+           Statement stmt = conn.createStatement()) {
+        assertEquals(3, count(stmt, "SELECT COUNT(*) FROM check_log"));
+        assertEquals(1, count(stmt, "SELECT COUNT(*) FROM misc_log"));
+        assertEquals(4, count(stmt, "SELECT COUNT(*) FROM rule_matches"));
+        // rule matches must reference the check they belong to:
+        assertEquals(2, count(stmt, "SELECT COUNT(*) FROM rule_matches r JOIN check_log c ON c.id = r.check_id WHERE c.text_session_id = 1"));
+        assertEquals(0, count(stmt, "SELECT COUNT(*) FROM rule_matches r JOIN check_log c ON c.id = r.check_id WHERE c.text_session_id = 2"));
+        assertEquals(2, count(stmt, "SELECT COUNT(*) FROM rule_matches r JOIN check_log c ON c.id = r.check_id WHERE c.text_session_id = 3"));
+      }
+    } finally {
+      logger.dropTestTables();
+      logger.disableLogging();
+    }
+  }
+
+  private DatabaseCheckLogEntry getCheckEntry(long textSessionId) {
+    Language lang = Languages.getLanguageForShortCode("xx");
+    DatabaseCheckLogEntry entry = new DatabaseCheckLogEntry(null, null, 1L, 100, 3, lang, lang, 10, textSessionId, "ALL");
+    Map<String, Integer> ruleMatches = new HashMap<>();
+    ruleMatches.put("RULE_A", 1);
+    ruleMatches.put("RULE_B", 2);
+    entry.setRuleMatches(new DatabaseRuleMatchLogEntry(ruleMatches));
+    return entry;
+  }
+
+  private int count(Statement stmt, String sql) throws SQLException {
+    try (ResultSet results = stmt.executeQuery(sql)) {
+      assertTrue(results.next());
+      return results.getInt(1);
+    }
+  }
+
+  private SqlSessionFactory getSessionFactory(String dbName) throws IOException {
+    Properties properties = new Properties();
+    properties.setProperty("driver", "org.hsqldb.jdbcDriver");
+    properties.setProperty("url", "jdbc:hsqldb:mem:" + dbName);
+    properties.setProperty("username", "");
+    properties.setProperty("password", "");
+    try (InputStream inputStream = Resources.getResourceAsStream("org/languagetool/server/mybatis-config.xml")) {
+      return new SqlSessionFactoryBuilder().build(inputStream, properties);
+    }
+  }
+
+}
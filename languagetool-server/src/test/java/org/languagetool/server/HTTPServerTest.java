@@ -33,6 +33,8 @@ import java.util.HashSet;
 
 import javax.xml.parsers.ParserConfigurationException;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Before;
 import org.junit.Test;
@@ -280,6 +282,35 @@ public class HTTPServerTest {
     }
   }
 
+  @Test
+  public void testBatchCheck() throws Exception {
+    HTTPServer server = new HTTPServer(new HTTPServerConfig(HTTPTools.getDefaultPort()), false);
+    try {
+      server.run();
+      String data = "{\"texts\": [{\"text\": \"This is an test.\"}, {\"text\": \"A correct sentence.\"}, " +
+        "{\"text\": \"I like the colors.\", \"language\": \"en-GB\"}, {\"text\": \"An bad sentence.\"}]}";
+      URL url = new URL("http://localhost:" + HTTPTools.getDefaultPort() + "/v2/check/batch");
+      String response = HTTPTools.checkAtUrlByPost(url, "language=en-US&data=" + URLEncoder.encode(data, "UTF-8"));
+      JsonNode results = new ObjectMapper().readTree(response).get("results");
+      assertThat(results.size(), is(4));
+      assertThat(results.get(0).get("language").get("code").asText(), is("en-US"));
+      assertThat(results.get(0).get("matches").get(0).get("rule").get("id").asText(), is("EN_A_VS_AN"));
+      assertThat(results.get(1).get("matches").size(), is(0));
+      assertThat(results.get(2).get("language").get("code").asText(), is("en-GB"));
+      assertThat(results.get(2).get("matches").get(0).get("rule").get("id").asText(), is("MORFOLOGIK_RULE_EN_GB"));
+      assertThat(results.get(3).get("matches").get(0).get("rule").get("id").asText(), is("EN_A_VS_AN"));
+      try {
+        System.out.println("=== Testing batch without language now, please ignore the following exception ===");
+        HTTPTools.checkAtUrlByPost(url, "data=" + URLEncoder.encode(data, "UTF-8"));
+        fail();
+      } catch (IOException expected) {
+        assertTrue(expected.toString().contains(" 400 "));
+      }
+    } finally {
+      server.stop();
+    }
+  }
+
   @Test
   public void testHealthcheck() throws Exception {
     HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort(), false);
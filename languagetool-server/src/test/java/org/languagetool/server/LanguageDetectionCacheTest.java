@@ -0,0 +1,77 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+import org.languagetool.DetectedLanguage;
+import org.languagetool.Languages;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class LanguageDetectionCacheTest {
+
+  private final List<String> none = Collections.emptyList();
+  private final AtomicInteger detections = new AtomicInteger();
+  private final Supplier<DetectedLanguage> detector = () -> {
+    detections.incrementAndGet();
+    return new DetectedLanguage(null, Languages.getLanguageForShortCode("en-US"), 0.99f);
+  };
+
+  @Test
+  public void testCache() {
+    LanguageDetectionCache cache = new LanguageDetectionCache(100, 60, TimeUnit.SECONDS);
+    assertEquals("en-US", cache.get("This is a test.", none, none, null, detector).getDetectedLanguage().getShortCodeWithCountryAndVariant());
+    cache.get("This is a test.", none, none, null, detector);
+    assertEquals(1, detections.get());
+    cache.get("This is a test.", none, Collections.singletonList("de"), null, detector);
+    assertEquals(2, detections.get());
+    cache.get("This is another test.", none, none, null, detector);
+    assertEquals(3, detections.get());
+    assertNull(cache.get("xyz", none, none, null, () -> null));
+    assertNull(cache.get("xyz", none, none, null, detector));
+    assertEquals(3, detections.get());
+  }
+
+  @Test
+  public void testSessionReuse() {
+    LanguageDetectionCache cache = new LanguageDetectionCache(100, 60, TimeUnit.SECONDS);
+    String text = StringUtils.repeat("This is a test. ", 10);
+    cache.get(text, none, none, 1L, detector);
+    assertEquals(1, detections.get());
+    cache.get(text + "And ", none, none, 1L, detector);  // grew a little
+    assertEquals(1, detections.get());
+    cache.get(text + "And ", none, none, 2L, detector);  // cached by text
+    assertEquals(1, detections.get());
+    cache.get(text + "More ", none, none, 2L, detector);  // other session
+    assertEquals(2, detections.get());
+    cache.get("X" + text.substring(1) + "And more ", none, none, 1L, detector);  // not a continuation
+    assertEquals(3, detections.get());
+    cache.get(text + StringUtils.repeat("And more. ", 10), none, none, 3L, detector);
+    cache.get(text + StringUtils.repeat("And more. ", 20), none, none, 3L, detector);  // grew too much
+    assertEquals(5, detections.get());
+  }
+
+}
@@ -0,0 +1,89 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.*;
+
+import java.io.File;
+import java.util.*;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class PipelineProfileTest {
+
+  private final GlobalConfig gConfig = new GlobalConfig();
+
+  @Test
+  public void testPipelineCounts() {
+    PipelineProfile profile = new PipelineProfile();
+    PipelinePool.PipelineSettings settingsEn = getSettings("en-US", JLanguageTool.Mode.ALL, new UserConfig());
+    PipelinePool.PipelineSettings settingsDe = getSettings("de-DE", JLanguageTool.Mode.ALL, new UserConfig());
+    PipelinePool.PipelineSettings settingsFr = getSettings("fr", JLanguageTool.Mode.TEXTLEVEL_ONLY, new UserConfig());
+    for (int i = 0; i < 90; i++) {
+      profile.record(getSettings("en-US", JLanguageTool.Mode.ALL, new UserConfig()));
+    }
+    for (int i = 0; i < 9; i++) {
+      profile.record(settingsDe);
+    }
+    profile.record(settingsFr);
+    // user dictionaries are not counted:
+    profile.record(getSettings("en-US", JLanguageTool.Mode.ALL, new UserConfig(Arrays.asList("foo"))));
+    assertThat(profile.getCounts().size(), is(3));
+    assertThat(profile.getCounts().get(settingsEn), is(90L));
+
+    LinkedHashMap<PipelinePool.PipelineSettings, Integer> counts = profile.getPipelineCounts(10, 10, 100);
+    // the budget is used up before the least frequent setting:
+    assertThat(new ArrayList<>(counts.keySet()), is(Arrays.asList(settingsEn, settingsDe)));
+    assertThat(new ArrayList<>(counts.values()), is(Arrays.asList(9, 1)));
+    assertThat(new ArrayList<>(profile.getPipelineCounts(10, 10, 5).values()), is(Arrays.asList(5, 1, 1)));
+    assertThat(new ArrayList<>(profile.getPipelineCounts(10, 2, 100).keySet()), is(Arrays.asList(settingsEn, settingsDe)));
+    assertTrue(new PipelineProfile().getPipelineCounts(10, 10, 10).isEmpty());
+  }
+
+  @Test
+  public void testSaveAndLoad() throws Exception {
+    PipelineProfile profile = new PipelineProfile();
+    UserConfig user = new UserConfig(new ArrayList<>(), Collections.singletonMap("TOO_LONG_SENTENCE", 30), 5, null, null, true, false);
+    PipelinePool.PipelineSettings settings1 = getSettings("en-US", JLanguageTool.Mode.TEXTLEVEL_ONLY, user);
+    PipelinePool.PipelineSettings settings2 = getSettings("de-DE", JLanguageTool.Mode.ALL, new UserConfig());
+    for (int i = 0; i < 10; i++) {
+      profile.record(settings1);
+    }
+    profile.record(settings2);
+    File file = File.createTempFile("pipeline-profile", ".json");
+    try {
+      profile.save(file);
+      PipelineProfile loaded = PipelineProfile.load(file, gConfig);
+      // counts are halved so the profile follows the traffic:
+      assertThat(loaded.getCounts().size(), is(1));
+      assertThat(loaded.getCounts().get(settings1), is(5L));
+    } finally {
+      assertTrue(file.delete());
+    }
+  }
+
+  private PipelinePool.PipelineSettings getSettings(String langCode, JLanguageTool.Mode mode, UserConfig user) {
+    TextChecker.QueryParams queryParams = new TextChecker.QueryParams(new LinkedList<>(), new LinkedList<>(), Collections.singletonList("WHITESPACE_RULE"),
+      new LinkedList<>(), new LinkedList<>(), false, true, false, false, mode, null);
+    return new PipelinePool.PipelineSettings(Languages.getLanguageForShortCode(langCode), null, queryParams, gConfig, user);
+  }
+
+}
@@ -24,6 +24,7 @@ import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.Languages;
 import org.languagetool.MultiThreadedJLanguageTool;
+import org.languagetool.ResultCache;
 import org.languagetool.UserConfig;
 import org.languagetool.language.LanguageIdentifier;
 import org.languagetool.rules.*;
@@ -47,6 +48,7 @@ import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 /**
  * Support for associating a LanguageTool instance and a JTextComponent
@@ -66,6 +68,12 @@ class LanguageToolSupport {
   private static final int MAX_RULES_PER_MENU = 12;
   //maximum category menu entries, if more create a More submenu
   private static final int MAX_CATEGORIES_PER_MENU = 12;
+  //number of sentences whose matches are cached, so that background
+  //checks only need to check the sentences that have been edited
+  private static final int CACHE_SIZE = 10000;
+  //text-level rules need the whole text and can't be cached, so while
+  //the user is typing they run only after this delay in milliseconds
+  private static final int TEXT_LEVEL_DELAY = 3000;
 
   private final UndoRedoSupport undo;
   private final LanguageIdentifier langIdentifier;
@@ -82,6 +90,13 @@ class LanguageToolSupport {
   private ActionListener actionListener;
   private int millisecondDelay = 1500;
   private AtomicInteger check;
+  private AtomicInteger textLevelCheck;
+  //the latest matches of sentence-level and of text-level rules, see checkText()
+  private List<RuleMatch> sentenceMatches = Collections.emptyList();
+  private String sentenceMatchesText;
+  private List<RuleMatch> textLevelMatches = Collections.emptyList();
+  private String textLevelMatchesText;
+  private JLanguageTool textLevelMatchesTool;
   private boolean popupMenuEnabled = true;
   private boolean backgroundCheckEnabled = true;
   private Configuration config;
@@ -155,8 +170,7 @@ class LanguageToolSupport {
     boolean update = false;
   
     Language language = languageTool.getLanguage();
-    languageTool = new MultiThreadedJLanguageTool(language, config.getMotherTongue(), 
-        new UserConfig(config.getConfigurableValues()));
+    languageTool = createLanguageTool(language);
     config.initStyleCategories(languageTool.getAllRules());
 
     Set<String> disabledRules = config.getDisabledRuleIds();
@@ -251,8 +265,7 @@ class LanguageToolSupport {
       //if (languageTool != null) {
       //  languageTool.shutdownWhenDone();
       //}
-      languageTool = new MultiThreadedJLanguageTool(language, config.getMotherTongue(), 
-          new UserConfig(config.getConfigurableValues()));
+      languageTool = createLanguageTool(language);
       config.initStyleCategories(languageTool.getAllRules());
       languageTool.setCleanOverlappingMatches(false);
       Tools.configureFromRules(languageTool, config);
@@ -263,6 +276,11 @@ class LanguageToolSupport {
     }
   }
 
+  private MultiThreadedJLanguageTool createLanguageTool(Language language) {
+    return new MultiThreadedJLanguageTool(language, config.getMotherTongue(), Runtime.getRuntime().availableProcessors(),
+        new UserConfig(config.getConfigurableValues()), new ResultCache(CACHE_SIZE));
+  }
+
   private void activateLanguageModelRules(Language language) {
     if (config.getNgramDirectory() != null) {
       File ngramLangDir = new File(config.getNgramDirectory(), language.getShortCode());
@@ -329,6 +347,7 @@ class LanguageToolSupport {
     });
 
     check = new AtomicInteger(0);
+    textLevelCheck = new AtomicInteger(0);
 
     this.textComponent.getDocument().addDocumentListener(new DocumentListener() {
       @Override
@@ -750,7 +769,22 @@ class LanguageToolSupport {
     }
 
     long startTime = System.currentTimeMillis();
-    List<RuleMatch> matches = this.languageTool.check(this.textComponent.getText());
+    String text = this.textComponent.getText();
+    List<RuleMatch> matches;
+    if (caller == null) {
+      //background check while the user is typing: only the sentence-level rules, whose
+      //matches of unchanged sentences come from the cache, the text-level rules follow later
+      sentenceMatches = this.languageTool.check(text, true, JLanguageTool.ParagraphHandling.ONLYNONPARA);
+      sentenceMatchesText = text;
+      matches = getMergedMatches(text);
+      textLevelCheck.getAndIncrement();
+      checkExecutor.schedule(new TextLevelRunnable(), TEXT_LEVEL_DELAY, TimeUnit.MILLISECONDS);
+    } else {
+      matches = this.languageTool.check(text);
+      sentenceMatches = matches.stream().filter(m -> !(m.getRule() instanceof TextLevelRule)).collect(Collectors.toList());
+      sentenceMatchesText = text;
+      setTextLevelMatches(text, matches.stream().filter(m -> m.getRule() instanceof TextLevelRule).collect(Collectors.toList()));
+    }
     long elapsedTime = System.currentTimeMillis() - startTime;
 
     int v = check.get();
@@ -768,6 +802,44 @@ class LanguageToolSupport {
     return matches;
   }
 
+  private synchronized void checkTextLevel() throws IOException {
+    String text = this.textComponent.getText();
+    if (!text.equals(sentenceMatchesText)) {
+      //the text has been changed, there's another background check coming
+      return;
+    }
+    long startTime = System.currentTimeMillis();
+    setTextLevelMatches(text, this.languageTool.check(text, true, JLanguageTool.ParagraphHandling.ONLYPARA));
+    long elapsedTime = System.currentTimeMillis() - startTime;
+
+    if (check.get() == 0) {
+      List<RuleMatch> matches = getMergedMatches(text);
+      SwingUtilities.invokeLater(() -> {
+        updateHighlights(matches);
+        fireEvent(LanguageToolEvent.Type.CHECKING_FINISHED, null, elapsedTime);
+      });
+    }
+  }
+
+  private void setTextLevelMatches(String text, List<RuleMatch> matches) {
+    textLevelMatches = matches;
+    textLevelMatchesText = text;
+    textLevelMatchesTool = this.languageTool;
+  }
+
+  /**
+   * The latest sentence-level matches, plus the latest text-level matches if they are
+   * still valid, i.e. if neither the text nor the LanguageTool instance have changed since.
+   */
+  private List<RuleMatch> getMergedMatches(String text) {
+    List<RuleMatch> matches = new ArrayList<>(sentenceMatches);
+    if (text.equals(textLevelMatchesText) && textLevelMatchesTool == this.languageTool) {
+      matches.addAll(textLevelMatches);
+      matches.sort(Comparator.comparingInt(RuleMatch::getFromPos));
+    }
+    return matches;
+  }
+
   private void removeHighlights() {
     for (Highlighter.Highlight hl : textComponent.getHighlighter().getHighlights()) {
       if (hl.getPainter() instanceof HighlightPainter) {
@@ -925,4 +997,20 @@ class LanguageToolSupport {
       }
     }
   }
+
+  private class TextLevelRunnable implements Runnable {
+
+    @Override
+    public void run() {
+      int v = textLevelCheck.decrementAndGet();
+      if (v != 0) {
+        return;
+      }
+      try {
+        checkTextLevel();
+      } catch (Exception ex) {
+        Tools.showError(ex);
+      }
+    }
+  }
 }
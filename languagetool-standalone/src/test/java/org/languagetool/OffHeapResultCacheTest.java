@@ -0,0 +1,120 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.rules.FakeRule;
+import org.languagetool.rules.RuleMatch;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+public class OffHeapResultCacheTest {
+
+  @Test
+  public void testPutAndGet() throws IOException {
+    OffHeapResultCache cache = new OffHeapResultCache(100, 1024 * 1024, 5, TimeUnit.MINUTES);
+    InputSentence input = getInput("foo");
+    AnalyzedSentence sentence = new AnalyzedSentence(new AnalyzedTokenReadings[]{});
+    FakeRule rule = new FakeRule();
+    RuleMatch match = new RuleMatch(rule, sentence, 0, 3, "message", null);
+    match.setSuggestedReplacements(Arrays.asList("bar", "baz"));
+    match.setUrl(new URL("https://languagetool.org"));
+    match.setType(RuleMatch.Type.Hint);
+    match.setEndColumn(4);
+    assertNull(cache.getIfPresent(input, sentence));
+    cache.put(input, Collections.singletonList(match));
+
+    List<RuleMatch> cachedMatches = cache.getIfPresent(getInput("foo"), sentence);
+    assertThat(cachedMatches.size(), is(1));
+    RuleMatch cachedMatch = cachedMatches.get(0);
+    assertSame(rule, cachedMatch.getRule());
+    assertSame(sentence, cachedMatch.getSentence());
+    assertThat(cachedMatch.getFromPos(), is(0));
+    assertThat(cachedMatch.getToPos(), is(3));
+    assertThat(cachedMatch.getMessage(), is("message"));
+    assertThat(cachedMatch.getShortMessage(), is(match.getShortMessage()));
+    assertThat(cachedMatch.getSuggestedReplacements(), is(Arrays.asList("bar", "baz")));
+    assertThat(cachedMatch.getUrl().toString(), is("https://languagetool.org"));
+    assertThat(cachedMatch.getType(), is(RuleMatch.Type.Hint));
+    assertThat(cachedMatch.getEndColumn(), is(4));
+
+    assertNull(cache.getIfPresent(getInput("bar"), sentence));
+    assertThat(cache.getMatchesStats().hitCount(), is(1L));
+    assertThat(cache.getMatchesStats().missCount(), is(2L));
+    assertThat(cache.getMatchesCount(), is(1L));
+    assertTrue(cache.getUsedBytes() > 0);
+  }
+
+  @Test
+  public void testOldestEntriesAreOverwritten() {
+    // 16 segments of 100 bytes each:
+    OffHeapResultCache cache = new OffHeapResultCache(100, 1600, 5, TimeUnit.MINUTES);
+    RuleMatch match = new RuleMatch(new FakeRule(), null, 0, 3, "message");
+    for (int i = 0; i < 1000; i++) {
+      cache.put(getInput("sentence " + i), Collections.singletonList(match));
+    }
+    assertTrue(cache.getUsedBytes() <= cache.getCapacityBytes());
+    assertTrue(cache.getMatchesCount() < 1000);
+    assertTrue(cache.getMatchesStats().evictionCount() > 0);
+    assertNotNull(cache.getIfPresent(getInput("sentence 999")));
+    assertNull(cache.getIfPresent(getInput("sentence 0")));
+    // too large for a segment:
+    cache.put(getInput("large"), Collections.nCopies(10, match));
+    assertNull(cache.getIfPresent(getInput("large")));
+  }
+
+  @Test
+  public void testExpiry() throws InterruptedException {
+    OffHeapResultCache cache = new OffHeapResultCache(100, 1024 * 1024, 10, TimeUnit.MILLISECONDS);
+    cache.put(getInput("foo"), Collections.emptyList());
+    assertNotNull(cache.getIfPresent(getInput("foo")));
+    Thread.sleep(50);
+    assertNull(cache.getIfPresent(getInput("foo")));
+    assertThat(cache.getMatchesCount(), is(0L));
+  }
+
+  @Test
+  public void testCheck() throws IOException {
+    OffHeapResultCache cache = new OffHeapResultCache(1000, 1024 * 1024, 5, TimeUnit.MINUTES);
+    JLanguageTool lt = new JLanguageTool(Languages.getLanguageForShortCode("en-US"), null, cache);
+    String text = "This is an test. And here is another sentence, that has has an error.";
+    List<RuleMatch> matches1 = lt.check(text);
+    List<RuleMatch> matches2 = lt.check(text);
+    assertTrue(matches1.size() > 0);
+    assertThat(matches2.toString(), is(matches1.toString()));
+    for (int i = 0; i < matches1.size(); i++) {
+      assertSame(matches1.get(i).getRule(), matches2.get(i).getRule());
+      assertThat(matches2.get(i).getSuggestedReplacements(), is(matches1.get(i).getSuggestedReplacements()));
+      assertNotNull(matches2.get(i).getSentence());
+    }
+    assertThat(cache.getMatchesStats().hitCount(), is(2L));
+  }
+
+  private InputSentence getInput(String text) {
+    return new InputSentence(text, Languages.getLanguageForShortCode("de"), null, new HashSet<>(), new HashSet<>(),
+      new HashSet<>(), new HashSet<>(), null, Collections.emptyList(), JLanguageTool.Mode.ALL);
+  }
+
+}
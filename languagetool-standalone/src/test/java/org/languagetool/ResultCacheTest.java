@@ -19,11 +19,16 @@
 package org.languagetool;
 
 import org.junit.Test;
+import org.languagetool.rules.CategoryId;
+import org.languagetool.rules.FakeRule;
+import org.languagetool.rules.RuleMatch;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.*;
@@ -75,4 +80,85 @@ public class ResultCacheTest {
     assertNull(cache.getIfPresent(input1aUc2Alt));
   }
 
+  @Test
+  public void testMatchesAreDetachedFromSentence() {
+    ResultCache cache = new ResultCache(100);
+    List<Language> el = Collections.emptyList();
+    InputSentence input = new InputSentence("foo", Languages.getLanguageForShortCode("de"), null, new HashSet<>(), new HashSet<>(), new HashSet<>(), new HashSet<>(), null, el, JLanguageTool.Mode.ALL);
+    AnalyzedSentence sentence = new AnalyzedSentence(new AnalyzedTokenReadings[]{});
+    RuleMatch match = new RuleMatch(new FakeRule(), sentence, 0, 3, "message", "short message");
+    match.setSuggestedReplacements(Arrays.asList("bar", "baz"));
+    match.setColumn(4);
+    cache.put(input, Collections.singletonList(match));
+
+    List<RuleMatch> cachedMatches = cache.getIfPresent(input, sentence);
+    assertThat(cachedMatches.size(), is(1));
+    RuleMatch cachedMatch = cachedMatches.get(0);
+    assertNotSame(match, cachedMatch);
+    assertSame(sentence, cachedMatch.getSentence());
+    assertSame(match.getRule(), cachedMatch.getRule());
+    assertThat(cachedMatch.getFromPos(), is(0));
+    assertThat(cachedMatch.getToPos(), is(3));
+    assertThat(cachedMatch.getMessage(), is("message"));
+    assertThat(cachedMatch.getShortMessage(), is("short message"));
+    assertThat(cachedMatch.getSuggestedReplacements(), is(Arrays.asList("bar", "baz")));
+    assertThat(cachedMatch.getColumn(), is(4));
+    assertNull(cache.getIfPresent(input).get(0).getSentence());
+  }
+
+  @Test
+  public void testMatchesWeigher() {
+    ResultCache.MatchesWeigher weigher = new ResultCache.MatchesWeigher();
+    List<Language> el = Collections.emptyList();
+    InputSentence input = new InputSentence("A short sentence.", Languages.getLanguageForShortCode("de"), null, new HashSet<>(), new HashSet<>(), new HashSet<>(), new HashSet<>(), null, el, JLanguageTool.Mode.ALL);
+    int noMatches = weigher.weigh(input, Collections.emptyList());
+    assertTrue(noMatches > 0);
+    assertTrue(noMatches < ResultCache.BYTES_PER_SENTENCE);
+    RuleMatch match = new RuleMatch(new FakeRule(), null, 0, 1, "A message that explains the error.");
+    int oneMatch = weigher.weigh(input, Collections.singletonList(new CachedRuleMatch(match)));
+    match.setSuggestedReplacements(Arrays.asList("foo", "bar"));
+    int oneMatchWithSuggestions = weigher.weigh(input, Collections.singletonList(new CachedRuleMatch(match)));
+    assertTrue(oneMatch > noMatches);
+    assertTrue(oneMatchWithSuggestions > oneMatch);
+  }
+
+  @Test
+  public void testStableKey() {
+    List<Language> el = Collections.emptyList();
+    JLanguageTool.Mode mode = JLanguageTool.Mode.ALL;
+    InputSentence input1a = new InputSentence("foo", Languages.getLanguageForShortCode("de"), null, new HashSet<>(Arrays.asList("ID1", "ID2")), new HashSet<>(), new HashSet<>(), new HashSet<>(), new UserConfig(Arrays.asList("word1")), el, mode);
+    InputSentence input1b = new InputSentence("foo", Languages.getLanguageForShortCode("de"), null, new HashSet<>(Arrays.asList("ID2", "ID1")), new HashSet<>(), new HashSet<>(), new HashSet<>(), new UserConfig(Arrays.asList("word1")), el, mode);
+    assertThat(input1a.getStableKey(), is(input1b.getStableKey()));
+    InputSentence input2a = new InputSentence("foo", Languages.getLanguageForShortCode("de"), null, new HashSet<>(Arrays.asList("ID1", "ID2")), new HashSet<>(), new HashSet<>(), new HashSet<>(), new UserConfig(Arrays.asList("word2")), el, mode);
+    InputSentence input2b = new InputSentence("foo", Languages.getLanguageForShortCode("de"), null, new HashSet<>(Arrays.asList("ID1")), new HashSet<>(Arrays.asList(new CategoryId("ID2"))), new HashSet<>(), new HashSet<>(), new UserConfig(Arrays.asList("word1")), el, mode);
+    InputSentence input2c = new InputSentence("foo", Languages.getLanguageForShortCode("de-DE"), null, new HashSet<>(Arrays.asList("ID1", "ID2")), new HashSet<>(), new HashSet<>(), new HashSet<>(), new UserConfig(Arrays.asList("word1")), el, mode);
+    assertNotEquals(input1a.getStableKey(), input2a.getStableKey());
+    assertNotEquals(input1a.getStableKey(), input2b.getStableKey());
+    assertNotEquals(input1a.getStableKey(), input2c.getStableKey());
+  }
+
+  @Test
+  public void testRemoteStore() throws IOException {
+    InMemoryResultStore store = new InMemoryResultStore();
+    // two caches that share a store, as on two servers:
+    ResultCache cache1 = new ResultCache(1000, 5, TimeUnit.MINUTES, store);
+    ResultCache cache2 = new ResultCache(1000, 5, TimeUnit.MINUTES, store);
+    String text = "This is an test. And here is another sentence, that has has an error.";
+    List<RuleMatch> matches1 = new JLanguageTool(Languages.getLanguageForShortCode("en-US"), null, cache1).check(text);
+    assertThat(store.size(), is(2));
+    assertThat(cache1.getRemoteMissCount(), is(2L));
+    List<RuleMatch> matches2 = new JLanguageTool(Languages.getLanguageForShortCode("en-US"), null, cache2).check(text);
+    assertThat(cache2.getRemoteHitCount(), is(2L));
+    assertTrue(matches1.size() > 0);
+    assertThat(matches2.toString(), is(matches1.toString()));
+    for (int i = 0; i < matches1.size(); i++) {
+      assertThat(matches2.get(i).getRule().getId(), is(matches1.get(i).getRule().getId()));
+      assertThat(matches2.get(i).getSuggestedReplacements(), is(matches1.get(i).getSuggestedReplacements()));
+    }
+    // now found in the local cache:
+    new JLanguageTool(Languages.getLanguageForShortCode("en-US"), null, cache2).check(text);
+    assertThat(cache2.getRemoteHitCount(), is(2L));
+    assertThat(cache2.getMatchesCache().stats().hitCount(), is(2L));
+  }
+
 }
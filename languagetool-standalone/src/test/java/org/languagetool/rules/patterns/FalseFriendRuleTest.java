@@ -19,6 +19,8 @@
 package org.languagetool.rules.patterns;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -28,6 +30,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.languagetool.JLanguageTool;
 import org.languagetool.language.*;
+import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.en.MorfologikAmericanSpellerRule;
 import org.languagetool.rules.en.MorfologikBritishSpellerRule;
@@ -75,6 +78,21 @@ public class FalseFriendRuleTest {
     assertErrors(0, "And forDemoOnly.", lt3);
   }
 
+  @Test
+  public void testRulesAreLoadedOncePerLanguagePair() throws IOException {
+    English english = new English();
+    JLanguageTool lt1 = new JLanguageTool(english, new Italian());
+    JLanguageTool lt2 = new JLanguageTool(english, new Italian());
+    JLanguageTool lt3 = new JLanguageTool(new English(), new Italian());
+    Rule rule1 = getRuleById("DEMO_ENTRY", lt1);
+    assertSame(rule1, getRuleById("DEMO_ENTRY", lt2));
+    assertNotSame(rule1, getRuleById("DEMO_ENTRY", lt3));
+  }
+
+  private Rule getRuleById(String id, JLanguageTool lt) {
+    return lt.getAllRules().stream().filter(rule -> rule.getId().equals(id)).findFirst().orElseThrow(() -> new RuntimeException("Rule not found: " + id));
+  }
+
   @Test
   public void testHintsForEnglishSpeakers() throws IOException {
     JLanguageTool lt = new JLanguageTool(new German(), new English());
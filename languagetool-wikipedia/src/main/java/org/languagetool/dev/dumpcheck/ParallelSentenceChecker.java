@@ -0,0 +1,241 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.dumpcheck;
+
+import org.apache.commons.lang3.StringUtils;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.rules.RuleMatch;
+
+import java.text.NumberFormat;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Checks sentences with several threads, each using its own {@link JLanguageTool}. A reader
+ * thread feeds the sentences into a bounded queue that the workers take from, the results
+ * are passed to the {@link ResultHandler} in the calling thread, either in the order of the
+ * source or in the order in which they have been checked.
+ * @since 4.7
+ */
+class ParallelSentenceChecker {
+
+  private static final int STATS_INTERVAL = 5000;
+
+  private final int threads;
+  private final int queueSize;
+  private final boolean ordered;
+  private final Supplier<JLanguageTool> languageToolFactory;
+
+  private volatile boolean stopped;
+  private int sentenceCount;
+  private int ruleMatchCount;
+
+  /**
+   * @param threads number of worker threads, each with its own {@link JLanguageTool}
+   * @param queueSize maximum number of sentences waiting to be checked and of results waiting to be handled
+   * @param ordered if true, results are handled in the order of the sentences in the source
+   * @param languageToolFactory creates the (configured) {@link JLanguageTool} for each worker
+   */
+  ParallelSentenceChecker(int threads, int queueSize, boolean ordered, Supplier<JLanguageTool> languageToolFactory) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("threads must be >= 1: " + threads);
+    }
+    if (queueSize < 1) {
+      throw new IllegalArgumentException("queueSize must be >= 1: " + queueSize);
+    }
+    this.threads = threads;
+    this.queueSize = queueSize;
+    this.ordered = ordered;
+    this.languageToolFactory = Objects.requireNonNull(languageToolFactory);
+  }
+
+  /**
+   * Check all sentences from {@code source}. Exceptions thrown by {@code resultHandler} (like
+   * {@link DocumentLimitReachedException}) stop all threads and are re-thrown.
+   */
+  void run(Iterator<Sentence> source, ResultHandler resultHandler, Language lang) throws InterruptedException {
+    BlockingQueue<CheckTask> taskQueue = new ArrayBlockingQueue<>(queueSize);
+    BlockingQueue<CheckResult> resultQueue = new ArrayBlockingQueue<>(queueSize);
+    List<Thread> allThreads = new ArrayList<>();
+    Thread reader = new Thread(() -> read(source, taskQueue, resultQueue), "lt-sentence-reader");
+    allThreads.add(reader);
+    List<Worker> workers = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      Worker worker = new Worker(taskQueue, resultQueue);
+      workers.add(worker);
+      allThreads.add(new Thread(worker, "lt-sentence-checker-" + i));
+    }
+    long startTime = System.currentTimeMillis();
+    for (Thread thread : allThreads) {
+      thread.start();
+    }
+    long receivedResults = 0;
+    long nextSeq = 0;
+    long totalSentences = -1;  // known once the reader is done
+    Map<Long, CheckResult> pending = new HashMap<>();
+    try {
+      while (totalSentences < 0 || receivedResults < totalSentences) {
+        CheckResult result = resultQueue.take();
+        if (result.exception != null) {
+          throw result.exception;
+        }
+        if (result.sentence == null) {  // end marker from reader
+          totalSentences = result.seq;
+          continue;
+        }
+        if (ordered) {
+          pending.put(result.seq, result);
+          CheckResult next;
+          while ((next = pending.remove(nextSeq)) != null) {
+            handleResult(next, resultHandler, lang, startTime, taskQueue.size(), pending.size());
+            nextSeq++;
+          }
+        } else {
+          handleResult(result, resultHandler, lang, startTime, taskQueue.size(), 0);
+        }
+        receivedResults++;
+      }
+    } finally {
+      stopped = true;
+      for (Thread thread : allThreads) {
+        thread.interrupt();
+      }
+      for (Thread thread : allThreads) {
+        thread.join();
+      }
+      printStats(startTime, taskQueue.size(), pending.size());
+      for (int i = 0; i < workers.size(); i++) {
+        Worker worker = workers.get(i);
+        System.err.printf("Worker %d: %d sentences, %.1fs checking\n", i, worker.checkedSentences, worker.checkNanos / 1_000_000_000.0);
+      }
+    }
+  }
+
+  /** Number of sentences passed to the {@link ResultHandler}. */
+  int getSentenceCount() {
+    return sentenceCount;
+  }
+
+  /** Number of rule matches passed to the {@link ResultHandler}. */
+  int getRuleMatchCount() {
+    return ruleMatchCount;
+  }
+
+  private void handleResult(CheckResult result, ResultHandler resultHandler, Language lang, long startTime, int queuedSentences, int pendingResults) {
+    resultHandler.handleResult(result.sentence, result.matches, lang);
+    ruleMatchCount += result.matches.size();
+    sentenceCount++;
+    if (sentenceCount % STATS_INTERVAL == 0) {
+      printStats(startTime, queuedSentences, pendingResults);
+    }
+  }
+
+  private void read(Iterator<Sentence> source, BlockingQueue<CheckTask> taskQueue, BlockingQueue<CheckResult> resultQueue) {
+    long seq = 0;
+    try {
+      while (!stopped && source.hasNext()) {
+        taskQueue.put(new CheckTask(seq++, source.next()));
+      }
+      resultQueue.put(new CheckResult(seq, null, null, null));
+    } catch (InterruptedException ignored) {
+      // stopped
+    } catch (RuntimeException e) {
+      reportException(resultQueue, e);
+    }
+  }
+
+  private void reportException(BlockingQueue<CheckResult> resultQueue, RuntimeException e) {
+    try {
+      resultQueue.put(new CheckResult(-1, null, null, e));
+    } catch (InterruptedException ignored) {
+      // stopped anyway
+    }
+  }
+
+  private void printStats(long startTime, int queuedSentences, int pendingResults) {
+    float seconds = (System.currentTimeMillis() - startTime) / 1000f;
+    System.err.printf("%s sentences checked, %.1f sentences/s, %d sentences queued%s\n",
+      NumberFormat.getNumberInstance(Locale.US).format(sentenceCount), seconds > 0 ? sentenceCount / seconds : 0f,
+      queuedSentences, ordered ? ", " + pendingResults + " results waiting for earlier sentences" : "");
+  }
+
+  private class Worker implements Runnable {
+
+    private final BlockingQueue<CheckTask> taskQueue;
+    private final BlockingQueue<CheckResult> resultQueue;
+
+    private volatile int checkedSentences;
+    private volatile long checkNanos;
+
+    Worker(BlockingQueue<CheckTask> taskQueue, BlockingQueue<CheckResult> resultQueue) {
+      this.taskQueue = taskQueue;
+      this.resultQueue = resultQueue;
+    }
+
+    @Override
+    public void run() {
+      try {
+        JLanguageTool lt = languageToolFactory.get();
+        while (!stopped) {
+          CheckTask task = taskQueue.take();
+          long startTime = System.nanoTime();
+          List<RuleMatch> matches;
+          try {
+            matches = lt.check(task.sentence.getText());
+          } catch (Exception e) {
+            reportException(resultQueue, new RuntimeException("Check failed on sentence: " + StringUtils.abbreviate(task.sentence.getText(), 250), e));
+            return;
+          }
+          checkNanos += System.nanoTime() - startTime;
+          checkedSentences++;
+          resultQueue.put(new CheckResult(task.seq, task.sentence, matches, null));
+        }
+      } catch (InterruptedException ignored) {
+        // stopped
+      } catch (RuntimeException e) {
+        reportException(resultQueue, e);
+      }
+    }
+  }
+
+  private static class CheckTask {
+    private final long seq;
+    private final Sentence sentence;
+    CheckTask(long seq, Sentence sentence) {
+      this.seq = seq;
+      this.sentence = sentence;
+    }
+  }
+
+  private static class CheckResult {
+    private final long seq;
+    private final Sentence sentence;
+    private final List<RuleMatch> matches;
+    private final RuntimeException exception;
+    CheckResult(long seq, Sentence sentence, List<RuleMatch> matches, RuntimeException exception) {
+      this.seq = seq;
+      this.sentence = sentence;
+      this.matches = matches;
+      this.exception = exception;
+    }
+  }
+}
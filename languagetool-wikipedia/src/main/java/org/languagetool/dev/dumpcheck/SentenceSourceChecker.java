@@ -33,6 +33,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.text.NumberFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.regex.Pattern;
 
 /**
@@ -41,6 +42,8 @@ import java.util.regex.Pattern;
  */
 public class SentenceSourceChecker {
 
+  private static final int QUEUE_SIZE_PER_THREAD = 100;
+
   private SentenceSourceChecker() {
     // no public constructor
   }
@@ -82,8 +85,10 @@ public class SentenceSourceChecker {
     File neuralNetworkModelDir = commandLine.hasOption("neuralnetworkmodel") ?
       new File(commandLine.getOptionValue("neuralnetworkmodel")) : null;
     Pattern filter = commandLine.hasOption("filter") ? Pattern.compile(commandLine.getOptionValue("filter")) : null;
+    int threads = Integer.parseInt(commandLine.getOptionValue("threads", "0"));
+    boolean ordered = !commandLine.hasOption("unordered");
     prg.run(propFile, disabledRuleIds, languageCode, Arrays.asList(fileNames), ruleIds, categoryIds, maxArticles,
-      maxErrors, languageModelDir, word2vecModelDir, neuralNetworkModelDir, filter);
+      maxErrors, languageModelDir, word2vecModelDir, neuralNetworkModelDir, filter, threads, ordered);
   }
 
   private static void addDisabledRules(String languageCode, Set<String> disabledRuleIds, Properties disabledRules) {
@@ -133,6 +138,13 @@ public class SentenceSourceChecker {
     options.addOption(Option.builder().longOpt("filter").argName("regex").hasArg()
             .desc("Consider only sentences that contain this regular expression (for speed up)")
             .build());
+    options.addOption(Option.builder().longOpt("threads").argName("number").hasArg()
+            .desc("check sentences in parallel with this many threads, each with its own LanguageTool instance " +
+                    "(default: check one sentence after the other, running the rules in parallel)")
+            .build());
+    options.addOption(Option.builder().longOpt("unordered")
+            .desc("with --threads, output results as soon as they are available instead of in the order of the input")
+            .build());
     try {
       CommandLineParser parser = new DefaultParser();
       return parser.parse(options, args);
@@ -149,32 +161,20 @@ public class SentenceSourceChecker {
 
   private void run(File propFile, Set<String> disabledRules, String langCode, List<String> fileNames, String[] ruleIds,
                    String[] additionalCategoryIds, int maxSentences, int maxErrors,
-                   File languageModelDir, File word2vecModelDir, File neuralNetworkModelDir, Pattern filter) throws IOException {
+                   File languageModelDir, File word2vecModelDir, File neuralNetworkModelDir, Pattern filter,
+                   int threads, boolean ordered) throws IOException {
     Language lang = Languages.getLanguageForShortCode(langCode);
-    MultiThreadedJLanguageTool languageTool = new MultiThreadedJLanguageTool(lang);
-    languageTool.setCleanOverlappingMatches(false);
-    if (languageModelDir != null) {
-      languageTool.activateLanguageModelRules(languageModelDir);
-    }
-    if (word2vecModelDir != null) {
-      languageTool.activateWord2VecModelRules(word2vecModelDir);
-    }
-    if (neuralNetworkModelDir != null) {
-      languageTool.activateNeuralNetworkRules(neuralNetworkModelDir);
-    }
-    if (ruleIds != null) {
-      enableOnlySpecifiedRules(ruleIds, languageTool);
-    } else {
-      applyRuleDeactivation(languageTool, disabledRules);
-    }
+    JLanguageTool languageTool = createLanguageTool(lang, threads <= 0, disabledRules, ruleIds, additionalCategoryIds,
+      languageModelDir, word2vecModelDir, neuralNetworkModelDir, true);
     if (filter != null) {
       System.out.println("*** NOTE: only sentences that match regular expression '" + filter + "' will be checked");
     }
-    activateAdditionalCategories(additionalCategoryIds, languageTool);
-    disableSpellingRules(languageTool);
     System.out.println("Working on: " + StringUtils.join(fileNames, ", "));
     System.out.println("Sentence limit: " + (maxSentences > 0 ? maxSentences : "no limit"));
     System.out.println("Error limit: " + (maxErrors > 0 ? maxErrors : "no limit"));
+    if (threads > 0) {
+      System.out.println("Threads: " + threads + (ordered ? "" : ", unordered output"));
+    }
     //System.out.println("Version: " + JLanguageTool.VERSION + " (" + JLanguageTool.BUILD_DATE + ")");
 
     ResultHandler resultHandler = null;
@@ -188,26 +188,46 @@ public class SentenceSourceChecker {
         resultHandler = new StdoutHandler(maxSentences, maxErrors);
       }
       MixingSentenceSource mixingSource = MixingSentenceSource.create(fileNames, lang, filter);
-      while (mixingSource.hasNext()) {
-        Sentence sentence = mixingSource.next();
+      if (threads > 0) {
+        // the first worker re-uses the instance created above:
+        Queue<JLanguageTool> instances = new ConcurrentLinkedQueue<>(Collections.singletonList(languageTool));
+        ParallelSentenceChecker checker = new ParallelSentenceChecker(threads, threads * QUEUE_SIZE_PER_THREAD, ordered, () -> {
+          JLanguageTool lt = instances.poll();
+          return lt != null ? lt : createLanguageTool(lang, false, disabledRules, ruleIds, additionalCategoryIds,
+            languageModelDir, word2vecModelDir, neuralNetworkModelDir, false);
+        });
         try {
-          List<RuleMatch> matches = languageTool.check(sentence.getText());
-          resultHandler.handleResult(sentence, matches, lang);
-          sentenceCount++;
-          if (sentenceCount % 5000 == 0) {
-            System.err.printf("%s sentences checked...\n", NumberFormat.getNumberInstance(Locale.US).format(sentenceCount));
+          checker.run(mixingSource, resultHandler, lang);
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        } finally {
+          ruleMatchCount = checker.getRuleMatchCount();
+          sentenceCount = checker.getSentenceCount();
+        }
+      } else {
+        while (mixingSource.hasNext()) {
+          Sentence sentence = mixingSource.next();
+          try {
+            List<RuleMatch> matches = languageTool.check(sentence.getText());
+            resultHandler.handleResult(sentence, matches, lang);
+            sentenceCount++;
+            if (sentenceCount % 5000 == 0) {
+              System.err.printf("%s sentences checked...\n", NumberFormat.getNumberInstance(Locale.US).format(sentenceCount));
+            }
+            ruleMatchCount += matches.size();
+          } catch (DocumentLimitReachedException | ErrorLimitReachedException e) {
+            throw e;
+          } catch (Exception e) {
+            throw new RuntimeException("Check failed on sentence: " + StringUtils.abbreviate(sentence.getText(), 250), e);
           }
-          ruleMatchCount += matches.size();
-        } catch (DocumentLimitReachedException | ErrorLimitReachedException e) {
-          throw e;
-        } catch (Exception e) {
-          throw new RuntimeException("Check failed on sentence: " + StringUtils.abbreviate(sentence.getText(), 250), e);
         }
       }
     } catch (DocumentLimitReachedException | ErrorLimitReachedException e) {
       System.out.println(getClass().getSimpleName() + ": " + e);
     } finally {
-      languageTool.shutdown();
+      if (languageTool instanceof MultiThreadedJLanguageTool) {
+        ((MultiThreadedJLanguageTool) languageTool).shutdown();
+      }
       if (resultHandler != null) {
         float matchesPerSentence = (float)ruleMatchCount / sentenceCount;
         System.out.printf(lang + ": %d total matches\n", ruleMatchCount);
@@ -221,15 +241,45 @@ public class SentenceSourceChecker {
     }
   }
 
-  private void enableOnlySpecifiedRules(String[] ruleIds, JLanguageTool languageTool) {
+  private JLanguageTool createLanguageTool(Language lang, boolean multiThreaded, Set<String> disabledRules, String[] ruleIds,
+                                           String[] additionalCategoryIds, File languageModelDir, File word2vecModelDir,
+                                           File neuralNetworkModelDir, boolean verbose) {
+    JLanguageTool languageTool = multiThreaded ? new MultiThreadedJLanguageTool(lang) : new JLanguageTool(lang);
+    languageTool.setCleanOverlappingMatches(false);
+    try {
+      if (languageModelDir != null) {
+        languageTool.activateLanguageModelRules(languageModelDir);
+      }
+      if (word2vecModelDir != null) {
+        languageTool.activateWord2VecModelRules(word2vecModelDir);
+      }
+      if (neuralNetworkModelDir != null) {
+        languageTool.activateNeuralNetworkRules(neuralNetworkModelDir);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    if (ruleIds != null) {
+      enableOnlySpecifiedRules(ruleIds, languageTool, verbose);
+    } else {
+      applyRuleDeactivation(languageTool, disabledRules, verbose);
+    }
+    activateAdditionalCategories(additionalCategoryIds, languageTool, verbose);
+    disableSpellingRules(languageTool, verbose);
+    return languageTool;
+  }
+
+  private void enableOnlySpecifiedRules(String[] ruleIds, JLanguageTool languageTool, boolean verbose) {
     for (Rule rule : languageTool.getAllRules()) {
       languageTool.disableRule(rule.getId());
     }
     for (String ruleId : ruleIds) {
       languageTool.enableRule(ruleId);
     }
-    warnOnNonExistingRuleIds(ruleIds, languageTool);
-    System.out.println("Only these rules are enabled: " + Arrays.toString(ruleIds));
+    if (verbose) {
+      warnOnNonExistingRuleIds(ruleIds, languageTool);
+      System.out.println("Only these rules are enabled: " + Arrays.toString(ruleIds));
+    }
   }
 
   private void warnOnNonExistingRuleIds(String[] ruleIds, JLanguageTool languageTool) {
@@ -247,21 +297,25 @@ public class SentenceSourceChecker {
     }
   }
 
-  private void applyRuleDeactivation(JLanguageTool languageTool, Set<String> disabledRules) {
+  private void applyRuleDeactivation(JLanguageTool languageTool, Set<String> disabledRules, boolean verbose) {
     // disabled via config file, usually to avoid too many false alarms:
     for (String disabledRuleId : disabledRules) {
       languageTool.disableRule(disabledRuleId);
     }
-    System.out.println("These rules are disabled: " + languageTool.getDisabledRules());
+    if (verbose) {
+      System.out.println("These rules are disabled: " + languageTool.getDisabledRules());
+    }
   }
 
-  private void activateAdditionalCategories(String[] additionalCategoryIds, JLanguageTool languageTool) {
+  private void activateAdditionalCategories(String[] additionalCategoryIds, JLanguageTool languageTool, boolean verbose) {
     if (additionalCategoryIds != null) {
       for (String categoryId : additionalCategoryIds) {
         for (Rule rule : languageTool.getAllRules()) {
           CategoryId id = rule.getCategory().getId();
           if (id != null && id.toString().equals(categoryId)) {
-            System.out.println("Activating " + rule.getId() + " in category " + categoryId);
+            if (verbose) {
+              System.out.println("Activating " + rule.getId() + " in category " + categoryId);
+            }
             languageTool.enableRule(rule.getId());
           }
         }
@@ -269,14 +323,16 @@ public class SentenceSourceChecker {
     }
   }
 
-  private void disableSpellingRules(JLanguageTool languageTool) {
+  private void disableSpellingRules(JLanguageTool languageTool, boolean verbose) {
     List<Rule> allActiveRules = languageTool.getAllActiveRules();
     for (Rule rule : allActiveRules) {
       if (rule.isDictionaryBasedSpellingRule()) {
         languageTool.disableRule(rule.getId());
       }
     }
-    System.out.println("All spelling rules are disabled");
+    if (verbose) {
+      System.out.println("All spelling rules are disabled");
+    }
   }
 
 }
@@ -28,8 +28,10 @@ import static org.languagetool.dev.index.PatternRuleQueryBuilder.SOURCE_FIELD_NA
 import java.io.File;
 import java.io.IOException;
 import java.net.URLEncoder;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.DirectoryReader;
@@ -42,8 +44,10 @@ import org.languagetool.AnalyzedSentence;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.Languages;
+import org.languagetool.rules.CleanOverlappingFilter;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.SameRuleGroupFilter;
 import org.languagetool.rules.patterns.PatternRule;
 import org.languagetool.tools.ContextTools;
 
@@ -61,6 +65,10 @@ public class Searcher {
 
   private static final boolean WIKITEXT_OUTPUT = false;
   
+  // Creating a JLanguageTool is expensive, so idle instances are kept across searches. They are
+  // only used for analyzing the candidate sentences, the rule searched for is applied directly:
+  private static final Map<String, Queue<JLanguageTool>> idleLanguageTools = new ConcurrentHashMap<>();
+
   private final Directory directory;
 
   private int skipHits = 0;
@@ -68,6 +76,7 @@ public class Searcher {
   private int maxSearchTimeMillis = 5000;
   private IndexSearcher indexSearcher;
   private DirectoryReader reader;
+  private int verificationThreads = Runtime.getRuntime().availableProcessors();
   private boolean limitSearch = true;
 
   public Searcher(Directory directory) {
@@ -128,6 +137,21 @@ public class Searcher {
     this.maxSearchTimeMillis = maxSearchTimeMillis;
   }
 
+  public int getVerificationThreads() {
+    return verificationThreads;
+  }
+
+  /**
+   * Number of threads that check the candidate sentences found by Lucene with LanguageTool.
+   * @since 4.7
+   */
+  public void setVerificationThreads(int verificationThreads) {
+    if (verificationThreads < 1) {
+      throw new IllegalArgumentException("verificationThreads must be >= 1: " + verificationThreads);
+    }
+    this.verificationThreads = verificationThreads;
+  }
+
   public SearcherResult findRuleMatchesOnIndex(PatternRule rule, Language language) throws IOException, UnsupportedPatternRuleException {
     // it seems wasteful to re-open the index every time, but I had strange problems (OOM, Array out of bounds, ...)
     // when not doing so...
@@ -143,6 +167,7 @@ public class Searcher {
       SearchRunnable runnable = new SearchRunnable(indexSearcher, query, language, rule);
       Thread searchThread = new Thread(runnable);
       searchThread.start();
+      boolean timedOut;
       try {
         // using a TimeLimitingCollector is not enough, as it doesn't cover all time required to
         // search for a complicated regex, so interrupt the whole thread instead:
@@ -151,11 +176,12 @@ public class Searcher {
         } else {
           searchThread.join(Integer.MAX_VALUE);
         }
+        timedOut = searchThread.isAlive();
         searchThread.interrupt();
       } catch (InterruptedException e) {
         throw new RuntimeException("Search thread got interrupted for query " + query, e);
       }
-      if (searchThread.isInterrupted()) {
+      if (timedOut) {
         throw new SearchTimeoutException("Search timeout of " + maxSearchTimeMillis + "ms reached for query " + query);
       }
       Exception exception = runnable.getException();
@@ -227,11 +253,15 @@ public class Searcher {
 
   List<PatternRule> getRuleById(String ruleId, Language language) throws IOException {
     List<PatternRule> rules = new ArrayList<>();
-    JLanguageTool langTool = new JLanguageTool(language);
-    for (Rule rule : langTool.getAllRules()) {
-      if (rule.getId().equals(ruleId) && rule instanceof PatternRule) {
-        rules.add((PatternRule) rule);
+    JLanguageTool langTool = borrowLanguageTool(language);
+    try {
+      for (Rule rule : langTool.getAllRules()) {
+        if (rule.getId().equals(ruleId) && rule instanceof PatternRule) {
+          rules.add((PatternRule) rule);
+        }
       }
+    } finally {
+      returnLanguageTool(langTool);
     }
     if (rules.size() > 0) {
       return rules;
@@ -240,31 +270,116 @@ public class Searcher {
     }
   }
 
-  private MatchingSentencesResult findMatchingSentences(IndexSearcher indexSearcher, TopDocs topDocs, JLanguageTool languageTool) throws IOException {
+  /**
+   * Check the candidate sentences with {@link #verificationThreads} threads. Candidates are taken in order,
+   * so the result is the same as with sequential checking: the matching sentences of a gapless range of
+   * candidates, stopping once {@link #maxHits} matching sentences have been found.
+   * @param deadline time in milliseconds after which a {@link SearchTimeoutException} is thrown
+   */
+  private MatchingSentencesResult findMatchingSentences(IndexSearcher indexSearcher, TopDocs topDocs, Language language,
+                                                        PatternRule rule, long deadline) throws InterruptedException {
+    ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+    int firstIndex = Math.max(skipHits - 1, 0);  // skipHits is needed for paging
+    MatchingSentence[] matches = new MatchingSentence[scoreDocs.length];
+    boolean[] checked = new boolean[scoreDocs.length];
+    AtomicInteger nextIndex = new AtomicInteger(firstIndex);
+    AtomicInteger matchCount = new AtomicInteger();
+    AtomicBoolean stopped = new AtomicBoolean();
+    Callable<Void> worker = () -> {
+      JLanguageTool languageTool = borrowLanguageTool(language);
+      try {
+        int i;
+        while (!stopped.get() && matchCount.get() < maxHits && (i = nextIndex.getAndIncrement()) < scoreDocs.length) {
+          if (System.currentTimeMillis() > deadline) {
+            throw new SearchTimeoutException("Search timeout of " + maxSearchTimeMillis + "ms reached while checking candidates for rule " + rule.getFullId());
+          }
+          Document doc = indexSearcher.doc(scoreDocs[i].doc);
+          String sentence = doc.get(FIELD_NAME);
+          List<AnalyzedSentence> analyzedSentences = languageTool.analyzeText(sentence);
+          List<RuleMatch> ruleMatches = getRuleMatches(languageTool, rule, analyzedSentences);
+          if (ruleMatches.size() > 0) {
+            String source = doc.get(SOURCE_FIELD_NAME);
+            String title = doc.get(Indexer.TITLE_FIELD_NAME);
+            AnalyzedSentence analyzedSentence = analyzedSentences.size() == 1 ?
+              analyzedSentences.get(0) : languageTool.getAnalyzedSentence(sentence);
+            matches[i] = new MatchingSentence(sentence, source, title, analyzedSentence, ruleMatches);
+            matchCount.incrementAndGet();
+          }
+          checked[i] = true;
+        }
+        return null;
+      } finally {
+        returnLanguageTool(languageTool);
+      }
+    };
+    int threads = Math.min(verificationThreads, Math.max(scoreDocs.length - firstIndex, 1));
+    ExecutorService executor = Executors.newFixedThreadPool(threads, r -> new Thread(r, "lt-searcher-verification"));
+    List<Future<Void>> futures = new ArrayList<>();
+    try {
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(worker));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof SearchTimeoutException) {
+        throw (SearchTimeoutException) e.getCause();
+      }
+      throw new RuntimeException("Checking candidates failed for rule " + rule.getFullId(), e.getCause());
+    } finally {
+      // stops the other workers after an exception or when the search thread got interrupted on timeout,
+      // the sentences being checked are finished, as checking can't be interrupted:
+      stopped.set(true);
+      executor.shutdown();
+    }
     List<MatchingSentence> matchingSentences = new ArrayList<>();
-    int i = 0;
+    int i = firstIndex;
     int docsChecked = 0;
-    for (ScoreDoc match : topDocs.scoreDocs) {
-      i++;
-      if (i < skipHits) {
-        // needed for paging
-        continue;
+    // all candidates up to the last one taken by a worker have been checked, but some of them
+    // might be superfluous as other workers already found enough matches:
+    while (i < scoreDocs.length && checked[i] && matchingSentences.size() < maxHits) {
+      if (matches[i] != null) {
+        matchingSentences.add(matches[i]);
       }
-      Document doc = indexSearcher.doc(match.doc);
-      String sentence = doc.get(FIELD_NAME);
-      List<RuleMatch> ruleMatches = languageTool.check(sentence);
       docsChecked++;
-      if (ruleMatches.size() > 0) {
-        String source = doc.get(SOURCE_FIELD_NAME);
-        String title = doc.get(Indexer.TITLE_FIELD_NAME);
-        AnalyzedSentence analyzedSentence = languageTool.getAnalyzedSentence(sentence);
-        MatchingSentence matchingSentence = new MatchingSentence(sentence, source, title, analyzedSentence, ruleMatches);
-        matchingSentences.add(matchingSentence);
-      }
+      i++;
     }
     return new MatchingSentencesResult(matchingSentences, i, docsChecked);
   }
-  
+
+  /**
+   * Apply the rule like {@link JLanguageTool#check(String)} would, if it was the only active rule.
+   */
+  private List<RuleMatch> getRuleMatches(JLanguageTool languageTool, PatternRule rule, List<AnalyzedSentence> analyzedSentences) throws IOException {
+    List<RuleMatch> ruleMatches = new ArrayList<>();
+    int charCount = 0;
+    for (AnalyzedSentence analyzedSentence : analyzedSentences) {
+      String sentence = analyzedSentence.getText();
+      if (!rule.canBeIgnoredFor(analyzedSentence)) {
+        for (RuleMatch match : rule.match(analyzedSentence)) {
+          ruleMatches.add(languageTool.adjustRuleMatchPos(match, charCount, charCount + 1, 0, sentence, null));
+        }
+      }
+      charCount += sentence.length();
+    }
+    ruleMatches = new SameRuleGroupFilter().filter(ruleMatches);
+    return new CleanOverlappingFilter(languageTool.getLanguage()).filter(ruleMatches);
+  }
+
+  private static JLanguageTool borrowLanguageTool(Language language) {
+    JLanguageTool languageTool = getIdleLanguageTools(language).poll();
+    return languageTool != null ? languageTool : new JLanguageTool(language);
+  }
+
+  private static void returnLanguageTool(JLanguageTool languageTool) {
+    getIdleLanguageTools(languageTool.getLanguage()).add(languageTool);
+  }
+
+  private static Queue<JLanguageTool> getIdleLanguageTools(Language language) {
+    return idleLanguageTools.computeIfAbsent(language.getShortCodeWithCountryAndVariant(), k -> new ConcurrentLinkedQueue<>());
+  }
+
   class MatchingSentencesResult {
     List<MatchingSentence> matchingSentences;
     int maxDocChecked;
@@ -276,18 +391,6 @@ public class Searcher {
     }
   }
 
-  private JLanguageTool getLanguageToolWithOneRule(Language lang, PatternRule patternRule) {
-    JLanguageTool langTool = new JLanguageTool(lang);
-    for (Rule rule : langTool.getAllActiveRules()) {
-      if (!rule.getId().equals(patternRule.getId())) {
-        langTool.disableRule(rule.getId());
-      }
-    }
-    langTool.addRule(patternRule);
-    langTool.enableRule(patternRule.getId()); // rule might be off by default
-    return langTool;
-  }
-
   static class PossiblyLimitedTopDocs {
     TopDocs topDocs;
     boolean resultIsTimeLimited;
@@ -334,22 +437,20 @@ public class Searcher {
     @Override
     public void run() {
       try {
-        long t1 = System.currentTimeMillis();
-        JLanguageTool languageTool = getLanguageToolWithOneRule(language, rule);
-        long langToolCreationTime = System.currentTimeMillis() - t1;
         long t2 = System.currentTimeMillis();
+        long deadline = limitSearch ? t2 + maxSearchTimeMillis : Long.MAX_VALUE;
         PossiblyLimitedTopDocs limitedTopDocs = getTopDocs(query);
         long luceneTime = System.currentTimeMillis() - t2;
         long t3 = System.currentTimeMillis();
         luceneMatchCount = limitedTopDocs.topDocs.totalHits;
         tooManyLuceneMatches = limitedTopDocs.topDocs.scoreDocs.length >= maxHits;
-        MatchingSentencesResult res = findMatchingSentences(indexSearcher, limitedTopDocs.topDocs, languageTool);
+        MatchingSentencesResult res = findMatchingSentences(indexSearcher, limitedTopDocs.topDocs, language, rule, deadline);
         matchingSentences = res.matchingSentences;
         maxDocChecked = res.maxDocChecked;
         docsChecked = res.docsChecked;
         numDocs = indexSearcher.getIndexReader().numDocs();
-        System.out.println("Check done in " + langToolCreationTime + "/" + luceneTime + "/" + (System.currentTimeMillis() - t3)
-            + "ms (LT creation/Lucene/matching) for " + limitedTopDocs.topDocs.scoreDocs.length + " docs");
+        System.out.println("Check done in " + luceneTime + "/" + (System.currentTimeMillis() - t3)
+            + "ms (Lucene/matching) for " + limitedTopDocs.topDocs.scoreDocs.length + " docs, " + verificationThreads + " threads");
       } catch (Exception e) {
         exception = e;
       }
@@ -0,0 +1,96 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2019 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.dumpcheck;
+
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.language.English;
+import org.languagetool.rules.RuleMatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class ParallelSentenceCheckerTest {
+
+  private final Language lang = new English();
+
+  @Test
+  public void testOrdered() throws InterruptedException {
+    List<Sentence> sentences = getSentences(100);
+    CollectingHandler handler = new CollectingHandler(0);
+    ParallelSentenceChecker checker = new ParallelSentenceChecker(3, 10, true, () -> new JLanguageTool(lang));
+    checker.run(sentences.iterator(), handler, lang);
+    assertThat(handler.sentences, is(sentences));
+    assertThat(checker.getSentenceCount(), is(100));
+    assertThat(checker.getRuleMatchCount(), is(50));
+  }
+
+  @Test
+  public void testUnordered() throws InterruptedException {
+    List<Sentence> sentences = getSentences(100);
+    CollectingHandler handler = new CollectingHandler(0);
+    ParallelSentenceChecker checker = new ParallelSentenceChecker(3, 10, false, () -> new JLanguageTool(lang));
+    checker.run(sentences.iterator(), handler, lang);
+    assertThat(handler.sentences.size(), is(100));
+    assertThat(checker.getRuleMatchCount(), is(50));
+  }
+
+  @Test
+  public void testLimit() throws InterruptedException {
+    CollectingHandler handler = new CollectingHandler(20);
+    ParallelSentenceChecker checker = new ParallelSentenceChecker(3, 10, true, () -> new JLanguageTool(lang));
+    try {
+      checker.run(getSentences(100).iterator(), handler, lang);
+      fail();
+    } catch (DocumentLimitReachedException expected) {
+      assertThat(checker.getSentenceCount(), is(19));
+    }
+  }
+
+  private List<Sentence> getSentences(int count) {
+    List<Sentence> sentences = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      // every other sentence has a match (a duplicated word):
+      String text = i % 2 == 0 ? "This is sentence number " + i + "." : "This is is sentence number " + i + ".";
+      sentences.add(new Sentence(text, "test", "title", "http://test", i));
+    }
+    return Collections.unmodifiableList(sentences);
+  }
+
+  private static class CollectingHandler extends ResultHandler {
+    private final List<Sentence> sentences = new ArrayList<>();
+    CollectingHandler(int maxSentences) {
+      super(maxSentences, 0);
+    }
+    @Override
+    protected void handleResult(Sentence sentence, List<RuleMatch> ruleMatches, Language language) {
+      sentences.add(sentence);
+      checkMaxSentences(++sentenceCount);
+    }
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -319,6 +319,27 @@ public class IndexerSearcherTest extends LuceneTestCase {
     assertEquals("RULE1", rule.getId());
   }
 
+  public void testWithSeveralVerificationThreads() throws Exception {
+    createIndex("We move back. Back then, we did not move. They move back again. " +
+                "Move or go back? The back door did not move. You move back.");
+    List<PatternToken> patternTokens = Arrays.asList(
+        new PatternToken("move", false, false, false),
+        new PatternToken("back", false, false, false)
+        );
+    PatternRule rule1 = new PatternRule("RULE1", new English(), patternTokens, "desc", "msg", "shortMsg");
+    for (int threads = 1; threads <= 4; threads++) {
+      Searcher errorSearcher = new Searcher(directory);
+      errorSearcher.setVerificationThreads(threads);
+      SearcherResult searcherResult = errorSearcher.findRuleMatchesOnIndex(rule1, new English());
+      assertEquals(6, searcherResult.getCheckedSentences());
+      assertEquals(3, searcherResult.getMatchingSentences().size());
+      for (MatchingSentence matchingSentence : searcherResult.getMatchingSentences()) {
+        assertTrue(matchingSentence.getSentence().contains("move back"));
+        assertEquals(1, matchingSentence.getRuleMatches().size());
+      }
+    }
+  }
+
   public void testWithOneElementWithException() throws Exception {
     createIndex("How to move back and fourth from linux to xmb?");
     PatternToken exceptionElem = new PatternToken("", false, true, false);